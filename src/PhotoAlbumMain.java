@@ -1,10 +1,15 @@
+import controller.BatchRenderer;
+import controller.CompiledScript;
 import controller.IPhotoalbumController;
 import controller.PhotoalbumController;
+import model.ConcurrentPhotoAlbumModel;
 import model.IPhotoalbum;
 import model.PhotoAlbumModel;
-import views.GraphicalViewFrame;
+import views.ViewOptions;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Entry point for the photo album application.
@@ -22,6 +27,11 @@ public class PhotoAlbumMain {
     String viewType = null;
     int xMax = 1000;
     int yMax = 1000;
+    ViewOptions options = new ViewOptions();
+    String batchSpec = null;
+    String outputDir = null;
+    String compiledFile = null;
+    int threads = Runtime.getRuntime().availableProcessors();
 
     try {
       // Parse command-line arguments
@@ -30,6 +40,31 @@ public class PhotoAlbumMain {
           case "-in" -> inputFile = args[++i]; // Input file argument
           case "-out" -> outputFile = args[++i]; // Output file argument
           case "-view", "-v" -> viewType = args[++i]; // View type argument
+          case "-thumbs" -> options.setThumbnailDir(new File(args[++i])); // Thumbnail cache
+          case "-full-repaint" -> options.setIncrementalRepaint(false); // Redraw whole canvas
+          case "-progressive" -> options.setProgressive(true); // Show snapshots while parsing
+          case "-batch" -> batchSpec = args[++i]; // Manifest or glob of album files
+          case "-outdir" -> outputDir = args[++i]; // Output directory for batch mode
+          case "-threads" -> threads = Integer.parseInt(args[++i]); // Batch parallelism
+          case "-compile" -> compiledFile = args[++i]; // Save the compiled script
+          case "-diagnostics" -> options.setDiagnostics(true); // Summarize script errors
+          case "-max-errors" -> { // Summarize script errors, listing at most n
+            options.setDiagnostics(true);
+            options.setMaxErrors(Integer.parseInt(args[++i]));
+          }
+          case "-port" -> options.setPort(Integer.parseInt(args[++i])); // Server view port
+          case "-page-size" -> options.setPageSize(Integer.parseInt(args[++i])); // Paged web
+          case "-svg-files" -> options.setSvgPerSnapshot(true); // One SVG file per snapshot
+          case "-compact-svg" -> options.setCompactSvg(true); // Size-optimized SVG
+          case "-formats" -> { // Formats for the export view, e.g. html,svg,png
+            options.setExportFormats(List.of(args[++i].split(",")));
+          }
+          case "-no-open" -> options.setOpenBrowser(false); // Don't launch a browser
+          case "-gzip" -> options.setGzip(true); // Compressed file output
+          case "-gzip-level" -> { // Compressed file output at a given level
+            options.setGzip(true);
+            options.setGzipLevel(Integer.parseInt(args[++i]));
+          }
           default -> { // Handle dimensions
             if (xMax == 1000) {
               xMax = Integer.parseInt(args[i]);
@@ -40,29 +75,38 @@ public class PhotoAlbumMain {
         }
       }
 
+      // Render many albums to web pages in this JVM
+      if (batchSpec != null) {
+        runBatch(batchSpec, outputDir == null ? "." : outputDir, threads, options);
+        return;
+      }
+
+      // Compile the script for later runs instead of showing it
+      if (compiledFile != null && inputFile != null) {
+        compile(inputFile, compiledFile);
+        return;
+      }
+
       // Ensure mandatory arguments are provided
       if (inputFile == null || viewType == null) {
         System.out.println("Input file and view type are required.");
         return;
       }
 
-      // Ensure output file is provided for web view
-      if ("web".equals(viewType) && outputFile == null) {
-        System.out.println("Output file is required for web view.");
+      // Ensure output file is provided for file-writing views
+      if (("web".equals(viewType) || "image".equals(viewType) || "export".equals(viewType))
+          && outputFile == null) {
+        System.out.println("Output file is required for " + viewType + " view.");
         return;
       }
 
-      // Create model and controller
-      IPhotoalbum model = new PhotoAlbumModel();
-      IPhotoalbumController controller = new PhotoalbumController(model);
+      // Create model and controller; progressive views read while the parser writes
+      IPhotoalbum model = options.isProgressive()
+          ? new ConcurrentPhotoAlbumModel() : new PhotoAlbumModel();
+      IPhotoalbumController controller = new PhotoalbumController(model, options);
 
       // Run the controller
       controller.run(inputFile, viewType, xMax, yMax, outputFile);
-
-      // Create and display graphical view if applicable
-      if ("graphical".equals(viewType)) {
-        new GraphicalViewFrame(model, xMax, yMax);
-      }
     } catch (IllegalArgumentException e) {
       System.out.println("Error: " + e.getMessage());
     } catch (IOException e) {
@@ -70,4 +114,36 @@ public class PhotoAlbumMain {
       e.printStackTrace();
     }
   }
+
+  /**
+   * Compiles a script and saves the result, so later runs load it without
+   * parsing.
+   * @param inputFile Script to compile.
+   * @param compiledFile Where to save the compiled script.
+   * @throws IOException If either file cannot be accessed.
+   */
+  private static void compile(String inputFile, String compiledFile) throws IOException {
+    long start = System.nanoTime();
+    CompiledScript script = CompiledScript.read(inputFile);
+    script.save(new File(compiledFile));
+    System.out.printf("Compiled %d instructions to %s in %.1f ms%n", script.size(),
+        compiledFile, (System.nanoTime() - start) / 1e6);
+  }
+
+  /**
+   * Renders every album named by a manifest or glob and prints a report.
+   * @param batchSpec Manifest file or glob pattern.
+   * @param outputDir Directory for the HTML files.
+   * @param threads Number of albums rendered at once.
+   * @param options Web export settings applied to every album.
+   * @throws IOException If the album list cannot be read.
+   */
+  private static void runBatch(String batchSpec, String outputDir, int threads,
+      ViewOptions options) throws IOException {
+    long start = System.nanoTime();
+    List<File> inputs = BatchRenderer.resolveInputs(batchSpec);
+    BatchRenderer renderer = new BatchRenderer(new File(outputDir), threads, options);
+    List<BatchRenderer.Result> results = renderer.renderAll(inputs);
+    BatchRenderer.printReport(results, System.nanoTime() - start);
+  }
 }
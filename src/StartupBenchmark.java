@@ -0,0 +1,80 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures start-to-exit time of the photo album in fresh JVMs and counts
+ * the AWT and Swing classes each run loads. Compares the headless web
+ * export with a run that needs the toolkit.
+ */
+public class StartupBenchmark {
+
+  /**
+   * Runs the benchmark.
+   * @param args Album file, then optionally the number of runs per case.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.out.println("Usage: StartupBenchmark <album file> [runs]");
+      return;
+    }
+    String album = args[0];
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    File out = File.createTempFile("startup", ".html");
+    File png = File.createTempFile("startup", ".png");
+    try {
+      measure("web -no-open", runs,
+          "-in", album, "-out", out.getPath(), "-v", "web", "-no-open");
+      measure("web -no-open -gzip", runs,
+          "-in", album, "-out", out.getPath(), "-v", "web", "-no-open", "-gzip");
+      measure("image (toolkit)", runs,
+          "-in", album, "-out", png.getPath(), "-v", "image", "800", "800");
+    } finally {
+      out.delete();
+      png.delete();
+      new File(out.getPath() + ".gz").delete();
+    }
+  }
+
+  /**
+   * Runs PhotoAlbumMain repeatedly in child JVMs and prints the timings.
+   * @param label Name of the case.
+   * @param runs Number of runs.
+   * @param appArgs Arguments for PhotoAlbumMain.
+   */
+  private static void measure(String label, int runs, String... appArgs)
+      throws IOException, InterruptedException {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    List<String> command = new ArrayList<>(List.of(java, "-Djava.awt.headless=true",
+        "-Xlog:class+load=info", "-cp", System.getProperty("java.class.path"),
+        "PhotoAlbumMain"));
+    command.addAll(Arrays.asList(appArgs));
+
+    List<Double> millis = new ArrayList<>();
+    int toolkitClasses = 0;
+    for (int i = 0; i < runs; i++) {
+      long start = System.nanoTime();
+      Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+      toolkitClasses = 0;
+      try (BufferedReader output = new BufferedReader(
+          new InputStreamReader(process.getInputStream()))) {
+        for (String line = output.readLine(); line != null; line = output.readLine()) {
+          if (line.contains(" java.awt.") || line.contains(" javax.swing.")
+              || line.contains(" sun.awt.") || line.contains(" sun.java2d.")) {
+            toolkitClasses++;
+          }
+        }
+      }
+      process.waitFor();
+      millis.add((System.nanoTime() - start) / 1e6);
+    }
+    Collections.sort(millis);
+    System.out.printf("%-20s median %7.1f ms  min %7.1f ms  AWT/Swing classes %d%n",
+        label, millis.get(millis.size() / 2), millis.get(0), toolkitClasses);
+  }
+}
@@ -0,0 +1,278 @@
+package controller;
+
+import model.IPhotoalbum;
+import model.PhotoAlbumModel;
+import views.ViewOptions;
+import views.WebView;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Renders many album files to web output in one JVM. Each album gets its
+ * own model and controller and runs on a bounded thread pool; the shape
+ * name and color caches of the controller and web view are shared.
+ */
+public class BatchRenderer {
+  private final File outputDir;
+  private final int threads;
+  private final ViewOptions template;
+
+  /**
+   * Creates a batch renderer.
+   * @param outputDir Directory the HTML files are written to.
+   * @param threads Number of albums rendered at once.
+   * @throws IllegalArgumentException If threads is not positive.
+   */
+  public BatchRenderer(File outputDir, int threads) {
+    this(outputDir, threads, new ViewOptions());
+  }
+
+  /**
+   * Creates a batch renderer with web export settings.
+   * @param outputDir Directory the HTML files are written to.
+   * @param threads Number of albums rendered at once.
+   * @param template Paging, SVG and compression settings used for every album.
+   * @throws IllegalArgumentException If threads is not positive.
+   */
+  public BatchRenderer(File outputDir, int threads, ViewOptions template) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+    this.outputDir = outputDir;
+    this.threads = threads;
+    this.template = template;
+  }
+
+  /**
+   * Result of rendering one album.
+   */
+  public static class Result {
+    private final File input;
+    private final File output;
+    private final long nanos;
+    private final String error;
+
+    /**
+     * Constructs a result.
+     * @param input Album file.
+     * @param nanos Time spent on the album.
+     * @param error Failure message, or null on success.
+     */
+    public Result(File input, long nanos, String error) {
+      this(input, null, nanos, error);
+    }
+
+    /**
+     * Constructs a result.
+     * @param input Album file.
+     * @param output Web page written for the album, or null.
+     * @param nanos Time spent on the album.
+     * @param error Failure message, or null on success.
+     */
+    public Result(File input, File output, long nanos, String error) {
+      this.input = input;
+      this.output = output;
+      this.nanos = nanos;
+      this.error = error;
+    }
+
+    /**
+     * Gets the album file.
+     * @return Album file.
+     */
+    public File getInput() {
+      return input;
+    }
+
+    /**
+     * Gets the web page written for the album.
+     * @return Output file, or null if none was assigned.
+     */
+    public File getOutput() {
+      return output;
+    }
+
+    /**
+     * Gets the time spent on the album.
+     * @return Time in milliseconds.
+     */
+    public double getMillis() {
+      return nanos / 1e6;
+    }
+
+    /**
+     * Gets the failure message.
+     * @return Message, or null if the album rendered.
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * Checks whether the album rendered.
+     * @return True on success.
+     */
+    public boolean isSuccess() {
+      return error == null;
+    }
+  }
+
+  /**
+   * Finds the album files named by a batch spec. A spec containing glob
+   * characters is matched against files in its directory; anything else is
+   * a manifest file listing one album path per line, with # comments.
+   * @param spec Glob pattern or manifest path.
+   * @return Album files in order.
+   * @throws IOException If the manifest or directory cannot be read.
+   */
+  public static List<File> resolveInputs(String spec) throws IOException {
+    List<File> inputs = new ArrayList<>();
+    if (spec.matches(".*[*?\\[{].*")) {
+      Path pattern = Path.of(spec);
+      Path dir = pattern.getParent() == null ? Path.of(".") : pattern.getParent();
+      PathMatcher matcher = FileSystems.getDefault()
+          .getPathMatcher("glob:" + pattern.getFileName());
+      try (Stream<Path> files = Files.list(dir)) {
+        files.filter(p -> Files.isRegularFile(p) && matcher.matches(p.getFileName()))
+            .sorted()
+            .forEach(p -> inputs.add(p.toFile()));
+      }
+      return inputs;
+    }
+    Path manifest = Path.of(spec);
+    Path base = manifest.toAbsolutePath().getParent();
+    for (String line : Files.readAllLines(manifest)) {
+      String entry = line.trim();
+      if (!entry.isEmpty() && !entry.startsWith("#")) {
+        inputs.add(base.resolve(entry).toFile());
+      }
+    }
+    return inputs;
+  }
+
+  /**
+   * Renders every album and waits for all of them to finish.
+   * @param inputs Album files.
+   * @return One result per album, in input order.
+   */
+  public List<Result> renderAll(List<File> inputs) {
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IllegalArgumentException("Unable to create output directory " + outputDir);
+    }
+    List<File> outputs = outputNames(inputs);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Result>> pending = new ArrayList<>();
+      for (int i = 0; i < inputs.size(); i++) {
+        File input = inputs.get(i);
+        File output = outputs.get(i);
+        pending.add(pool.submit(() -> render(input, output)));
+      }
+      List<Result> results = new ArrayList<>();
+      for (int i = 0; i < pending.size(); i++) {
+        try {
+          results.add(pending.get(i).get());
+        } catch (ExecutionException e) {
+          results.add(new Result(inputs.get(i), outputs.get(i), 0,
+              String.valueOf(e.getCause())));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          results.add(new Result(inputs.get(i), outputs.get(i), 0, "interrupted"));
+        }
+      }
+      return results;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Names each album's web page after its file, without the extension.
+   * Albums whose names would collide, such as a/x.txt and b/x.txt, get
+   * -2, -3 and so on in input order, so no page overwrites another.
+   * @param inputs Album files.
+   * @return Output file per album, in input order.
+   */
+  private List<File> outputNames(List<File> inputs) {
+    Set<String> taken = new HashSet<>();
+    List<File> outputs = new ArrayList<>();
+    for (File input : inputs) {
+      String base = input.getName().replaceFirst("\\.[^.]*$", "");
+      String name = base;
+      // compared without case, for case-insensitive file systems
+      for (int n = 2; !taken.add(name.toLowerCase()); n++) {
+        name = base + "-" + n;
+      }
+      outputs.add(new File(outputDir, name + ".html"));
+    }
+    return outputs;
+  }
+
+  /**
+   * Renders one album into its own model and web page.
+   * @param input Album file.
+   * @param output Web page to write.
+   * @return Timing and outcome for the album.
+   */
+  private Result render(File input, File output) {
+    long start = System.nanoTime();
+    if (!input.isFile()) {
+      return new Result(input, output, System.nanoTime() - start, "File not found");
+    }
+    try {
+      IPhotoalbum model = new PhotoAlbumModel();
+      ViewOptions options = new ViewOptions();
+      options.setOpenBrowser(false);
+      options.setPageSize(template.getPageSize());
+      options.setSvgPerSnapshot(template.isSvgPerSnapshot());
+      options.setCompactSvg(template.isCompactSvg());
+      options.setGzip(template.isGzip());
+      options.setGzipLevel(template.getGzipLevel());
+      // read and written directly so that I/O failures reach the report
+      if (NdjsonImporter.isNdjson(input.getPath())) {
+        NdjsonImporter.read(input.getPath(), model);
+      } else {
+        CompiledScript.execute(input.getPath(), null, model);
+      }
+      new WebView(model, options).export(output);
+      return new Result(input, output, System.nanoTime() - start, null);
+    } catch (Exception e) {
+      return new Result(input, output, System.nanoTime() - start, e.toString());
+    }
+  }
+
+  /**
+   * Prints one line per album and a summary.
+   * @param results Results from renderAll.
+   * @param totalNanos Wall-clock time of the whole batch.
+   */
+  public static void printReport(List<Result> results, long totalNanos) {
+    int failures = 0;
+    for (Result result : results) {
+      if (result.isSuccess()) {
+        System.out.printf("OK     %9.1f ms  %s -> %s%n", result.getMillis(), result.getInput(),
+            result.getOutput());
+      } else {
+        failures++;
+        System.out.printf("FAILED %9.1f ms  %s: %s%n", result.getMillis(),
+            result.getInput(), result.getError());
+      }
+    }
+    System.out.printf("%d albums, %d failed, %.1f ms total%n",
+        results.size(), failures, totalNanos / 1e6);
+  }
+}
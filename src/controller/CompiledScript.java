@@ -0,0 +1,733 @@
+package controller;
+
+import model.Color;
+import model.IPhotoalbum;
+import model.IShape;
+import model.ShapeType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An album script compiled to a dense opcode array. Each instruction is an
+ * opcode followed by indexes into a pool of names and descriptions; its
+ * numbers are stored in order of use in a separate array, so replaying the
+ * script reads both arrays front to back with no tokenizing, case folding
+ * or number parsing. A compiled script can be saved and loaded again, so
+ * later runs skip the text entirely.
+ */
+public final class CompiledScript {
+  // "PALC" followed by the format version
+  private static final int MAGIC = 0x50414C43;
+  private static final int VERSION = 1;
+
+  private static final int RECTANGLE = 0;
+  private static final int OVAL = 1;
+  private static final int MOVE = 2;
+  private static final int COLOR = 3;
+  private static final int RESIZE = 4;
+  private static final int REMOVE = 5;
+  private static final int SNAPSHOT = 6;
+  private static final int GROUP = 7;
+  private static final int UNGROUP = 8;
+  private static final int MOVE_GROUP = 9;
+  private static final int COLOR_GROUP = 10;
+  // command word of each opcode, for error messages
+  private static final String[] COMMANDS = {"shape", "shape", "move", "color", "resize",
+      "remove", "snapshot", "group", "ungroup", "move", "color"};
+  // numbers used by each opcode
+  private static final int[] ARITY = {7, 7, 2, 3, 2, 0, 0, 0, 0, 2, 3};
+
+  private final int[] code;
+  private final String[] strings;
+  private final double[] numbers;
+
+  private CompiledScript(int[] code, String[] strings, double[] numbers) {
+    this.code = code;
+    this.strings = strings;
+    this.numbers = numbers;
+  }
+
+  /**
+   * Compiles script lines. Lines that cannot be compiled are reported on
+   * standard error and left out, as the text interpreter always did.
+   * @param lines Script lines.
+   * @return The compiled script.
+   */
+  public static CompiledScript compile(Iterable<String> lines) {
+    return compile(lines, null);
+  }
+
+  /**
+   * Compiles script lines in diagnostics mode when a collector is given.
+   * Each line is then also checked against the shapes and groups that
+   * earlier lines created, so commands the album would reject are left
+   * out and recorded with their line numbers instead of printed.
+   * @param lines Script lines.
+   * @param diagnostics Collects errors, or null to print them.
+   * @return The compiled script, holding only the valid commands.
+   */
+  public static CompiledScript compile(Iterable<String> lines, ScriptDiagnostics diagnostics) {
+    Compiler compiler = new Compiler(diagnostics);
+    for (String line : lines) {
+      compiler.compileLine(line.trim());
+    }
+    return compiler.finish();
+  }
+
+  /**
+   * Compiles and runs a single command, as the text interpreter did one
+   * line at a time. Errors are reported on standard error.
+   * @param command Command line.
+   * @param model Album to run the command on.
+   */
+  public static void runCommand(String command, IPhotoalbum model) {
+    Compiler compiler = new Compiler(null, Compiler.COMMAND_CAPACITY);
+    compiler.compileLine(command.trim());
+    compiler.finish().run(model);
+  }
+
+  /**
+   * Reads a script file, loading it directly if it is already compiled.
+   * @param filename Text or compiled script.
+   * @return The compiled script.
+   * @throws FileNotFoundException If the file does not exist.
+   * @throws IOException If the file cannot be read or is a damaged
+   *     compiled script.
+   */
+  public static CompiledScript read(String filename) throws IOException {
+    return read(filename, null);
+  }
+
+  /**
+   * Reads a script file, compiling text in diagnostics mode when a
+   * collector is given. Compiled files are loaded as they are.
+   * @param filename Text or compiled script.
+   * @param diagnostics Collects errors, or null to print them.
+   * @return The compiled script.
+   * @throws FileNotFoundException If the file does not exist.
+   * @throws IOException If the file cannot be read or is a damaged
+   *     compiled script.
+   */
+  public static CompiledScript read(String filename, ScriptDiagnostics diagnostics)
+      throws IOException {
+    return load(filename, diagnostics, null);
+  }
+
+  /**
+   * Reads a script file and runs it on an album while reading. Text is
+   * compiled and run before the next line is read, or up to each snapshot
+   * command when errors are collected, so each snapshot is taken as soon
+   * as the file reaches it and printed errors follow the script's order.
+   * Compiled files are loaded and run.
+   * @param filename Text or compiled script.
+   * @param diagnostics Collects errors, or null to print them.
+   * @param model Album to run the script on.
+   * @throws FileNotFoundException If the file does not exist.
+   * @throws IOException If the file cannot be read or is a damaged
+   *     compiled script.
+   */
+  public static void execute(String filename, ScriptDiagnostics diagnostics, IPhotoalbum model)
+      throws IOException {
+    load(filename, diagnostics, model).run(model);
+  }
+
+  /**
+   * Reads a script file, compiling text a line at a time so only the
+   * compiled form is held.
+   * @param filename Text or compiled script.
+   * @param diagnostics Collects errors, or null to print them.
+   * @param model Album to run the compiled lines on while reading, or null.
+   * @return The script, or the part not yet run when an album is given.
+   * @throws IOException If the file cannot be read or is a damaged
+   *     compiled script.
+   */
+  private static CompiledScript load(String filename, ScriptDiagnostics diagnostics,
+                                     IPhotoalbum model) throws IOException {
+    File file = new File(filename);
+    if (!file.isFile()) {
+      throw new FileNotFoundException(filename);
+    }
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      in.mark(4);
+      byte[] magic = in.readNBytes(4);
+      in.reset();
+      if (magic.length == 4 && ByteBuffer.wrap(magic).getInt() == MAGIC) {
+        return decode(ByteBuffer.wrap(in.readAllBytes()));
+      }
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(in, StandardCharsets.UTF_8));
+      Compiler compiler = new Compiler(diagnostics);
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        compiler.compileLine(line.trim());
+        // printed errors come from each line at once, so they keep script
+        // order; collected ones are sorted by line number anyway
+        if (model != null && (diagnostics == null || compiler.snapshotCompiled)) {
+          compiler.take().run(model);
+        }
+      }
+      return compiler.finish();
+    }
+  }
+
+
+  /**
+   * Writes the compiled form to a file.
+   * @param file Destination.
+   * @throws IOException If the file cannot be written.
+   */
+  public void save(File file) throws IOException {
+    byte[][] encoded = new byte[strings.length][];
+    int size = 4 * 5 + code.length * 4 + numbers.length * 8;
+    for (int i = 0; i < strings.length; i++) {
+      encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+      size += 4 + encoded[i].length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putInt(VERSION);
+    buffer.putInt(strings.length);
+    for (byte[] string : encoded) {
+      buffer.putInt(string.length).put(string);
+    }
+    buffer.putInt(code.length);
+    buffer.asIntBuffer().put(code);
+    buffer.position(buffer.position() + code.length * 4);
+    buffer.putInt(numbers.length);
+    buffer.asDoubleBuffer().put(numbers);
+    Files.write(file.toPath(), buffer.array());
+  }
+
+  /**
+   * Rebuilds a script from its saved form.
+   * @param buffer Saved bytes, positioned at the magic number.
+   * @return The script.
+   * @throws IOException If the data is not a compiled script this version
+   *     can read.
+   */
+  private static CompiledScript decode(ByteBuffer buffer) throws IOException {
+    try {
+      buffer.getInt();
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported compiled script version " + version + ".");
+      }
+      String[] strings = new String[buffer.getInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] string = new byte[buffer.getInt()];
+        buffer.get(string);
+        strings[i] = new String(string, StandardCharsets.UTF_8);
+      }
+      int[] code = new int[buffer.getInt()];
+      buffer.asIntBuffer().get(code);
+      buffer.position(buffer.position() + code.length * 4);
+      double[] numbers = new double[buffer.getInt()];
+      buffer.asDoubleBuffer().get(numbers);
+      CompiledScript script = new CompiledScript(code, strings, numbers);
+      script.validate();
+      return script;
+    } catch (RuntimeException e) {
+      throw new IOException("Damaged compiled script.", e);
+    }
+  }
+
+  /**
+   * Checks that every instruction is well formed, so a damaged file fails
+   * on load rather than part way through a replay.
+   * @throws IllegalArgumentException If an instruction is invalid.
+   */
+  private void validate() {
+    int n = 0;
+    for (int pc = 0; pc < code.length; pc = next(pc)) {
+      int op = code[pc];
+      if (op < 0 || op >= ARITY.length || pc + 1 >= code.length) {
+        throw new IllegalArgumentException("Invalid instruction at " + pc + ".");
+      }
+      int end = op == GROUP ? pc + 3 + code[pc + 2] : pc + 2;
+      if (end > code.length || op == GROUP && code[pc + 2] < 1) {
+        throw new IllegalArgumentException("Invalid instruction at " + pc + ".");
+      }
+      for (int i = pc + 1; i < end; i++) {
+        if ((op != GROUP || i != pc + 2) && (code[i] < 0 || code[i] >= strings.length)) {
+          throw new IllegalArgumentException("Invalid operand at " + i + ".");
+        }
+      }
+      n += ARITY[op];
+    }
+    if (n != numbers.length) {
+      throw new IllegalArgumentException("Number pool does not match the code.");
+    }
+  }
+
+  /**
+   * Applies the script to an album. An instruction that fails is reported
+   * on standard error and the rest still run.
+   * @param model Album to update.
+   */
+  public void run(IPhotoalbum model) {
+    int n = 0;
+    for (int pc = 0; pc < code.length; pc = next(pc)) {
+      int op = code[pc];
+      String name = strings[code[pc + 1]];
+      try {
+        switch (op) {
+          case RECTANGLE -> model.createRectangle(name, ShapeType.RECTANGLE, numbers[n],
+              numbers[n + 1], numbers[n + 2], numbers[n + 3], colorAt(n + 4));
+          case OVAL -> model.createOval(name, ShapeType.OVAL, numbers[n], numbers[n + 1],
+              numbers[n + 2], numbers[n + 3], colorAt(n + 4));
+          case MOVE -> model.moveShape(name, numbers[n], numbers[n + 1]);
+          case COLOR -> model.changeShapeColor(name, numbers[n], numbers[n + 1], numbers[n + 2]);
+          case RESIZE -> resize(model, name, numbers[n], numbers[n + 1]);
+          case REMOVE -> model.removeShape(name);
+          case SNAPSHOT -> model.takeSnapshot(name);
+          case GROUP -> model.createGroup(name, members(pc));
+          case UNGROUP -> model.ungroup(name);
+          case MOVE_GROUP -> model.moveGroup(name, numbers[n], numbers[n + 1]);
+          case COLOR_GROUP -> model.changeGroupColor(name, numbers[n], numbers[n + 1],
+              numbers[n + 2]);
+        }
+      } catch (RuntimeException e) {
+        System.err.println("Error processing " + COMMANDS[op] + " command: " + e.getMessage());
+      }
+      n += ARITY[op];
+    }
+  }
+
+  /**
+   * Gets the number of instructions.
+   * @return Instruction count.
+   */
+  public int size() {
+    int count = 0;
+    for (int pc = 0; pc < code.length; pc = next(pc)) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Finds the instruction after one.
+   * @param pc Position of an instruction.
+   * @return Position of the next instruction.
+   */
+  private int next(int pc) {
+    return pc + (code[pc] == GROUP ? 3 + code[pc + 2] : 2);
+  }
+
+  /**
+   * Builds a color from three pooled numbers.
+   * @param n Position of the red value.
+   * @return The color.
+   */
+  private Color colorAt(int n) {
+    return new Color(numbers[n], numbers[n + 1], numbers[n + 2]);
+  }
+
+  /**
+   * Collects the member names of a group instruction.
+   * @param pc Position of the instruction.
+   * @return Member names.
+   */
+  private List<String> members(int pc) {
+    int count = code[pc + 2];
+    List<String> members = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      members.add(strings[code[pc + 3 + i]]);
+    }
+    return members;
+  }
+
+  /**
+   * Resizes a shape according to its type.
+   * @param model Album holding the shape.
+   * @param name Shape name.
+   * @param a Width or x-radius.
+   * @param b Height or y-radius.
+   * @throws IllegalArgumentException If the shape does not exist.
+   */
+  private static void resize(IPhotoalbum model, String name, double a, double b) {
+    IShape shape = model.getShape(name);
+    if (shape == null) {
+      throw new IllegalArgumentException("Shape '" + name + "' does not exist.");
+    }
+    if (shape.getShapeType() == ShapeType.RECTANGLE) {
+      model.resizeRectangle(name, a, b);
+    } else if (shape.getShapeType() == ShapeType.OVAL) {
+      model.resizeOval(name, a, b);
+    } else {
+      throw new IllegalArgumentException("Unsupported shape type for resize.");
+    }
+  }
+
+  /**
+   * Turns script lines into instructions and pools. Lines are checked
+   * before anything is emitted, so a bad line costs a message, not an
+   * exception.
+   */
+  private static final class Compiler {
+    private static final String UNKNOWN_COMMAND = "Unknown command.";
+    private static final int SCRIPT_CAPACITY = 64;
+    // enough for any single command except a large group
+    private static final int COMMAND_CAPACITY = 8;
+
+    private int[] code;
+    private int codeSize;
+    private double[] numbers;
+    private int numberCount;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    // one copy of each shape name for this compile, kept across take
+    private final Map<String, String> shapeNames = new HashMap<>();
+    // numbers of the line being compiled
+    private final double[] values = new double[7];
+    // null unless errors are collected instead of printed
+    private final ScriptDiagnostics diagnostics;
+    private final ShadowAlbum shadow;
+    private int lineNumber;
+    // set when a snapshot command is compiled, cleared by take
+    private boolean snapshotCompiled;
+
+    private Compiler(ScriptDiagnostics diagnostics) {
+      this(diagnostics, SCRIPT_CAPACITY);
+    }
+
+    /**
+     * Creates a compiler with buffers sized for the expected input.
+     * @param diagnostics Collects errors, or null to print them.
+     * @param capacity Initial size of the code and number buffers; they
+     *     grow as needed.
+     */
+    private Compiler(ScriptDiagnostics diagnostics, int capacity) {
+      this.diagnostics = diagnostics;
+      this.shadow = diagnostics == null ? null : new ShadowAlbum();
+      this.code = new int[capacity];
+      this.numbers = new double[capacity];
+    }
+
+    /**
+     * Compiles one line; comments and blank lines produce nothing.
+     * @param line Trimmed line.
+     */
+    private void compileLine(String line) {
+      lineNumber++;
+      if (line.startsWith("#") || line.isEmpty()) {
+        if (diagnostics != null) {
+          diagnostics.lineRead(false);
+        }
+        return;
+      }
+      String[] tokens = line.split("\\s+");
+      String command = tokens[0].toLowerCase();
+      int mark = codeSize;
+      int numberMark = numberCount;
+      String error = switch (command) {
+        case "shape" -> compileShape(tokens);
+        case "move" -> compileMove(tokens);
+        case "color" -> compileColor(tokens);
+        case "resize" -> compileResize(tokens);
+        case "remove" -> compileRemove(tokens);
+        case "snapshot" -> {
+          snapshotCompiled = true;
+          emit(SNAPSHOT, tokens.length > 1 ? String.join(" ", tokens)
+              .substring(tokens[0].length()).trim() : "");
+          yield null;
+        }
+        case "group" -> compileGroup(tokens);
+        case "ungroup" -> compileUngroup(tokens);
+        default -> UNKNOWN_COMMAND;
+      };
+      if (error != null) {
+        codeSize = mark;
+        numberCount = numberMark;
+      }
+      if (diagnostics != null) {
+        diagnostics.lineRead(error == null);
+        if (error == UNKNOWN_COMMAND) {
+          diagnostics.unknownCommand(lineNumber, command, error);
+        } else if (error != null) {
+          diagnostics.error(lineNumber, command, error);
+        }
+      } else if (error == UNKNOWN_COMMAND) {
+        System.err.println("Unknown command: " + tokens[0]);
+      } else if (error != null) {
+        System.err.println("Error processing " + command + " command: " + error);
+      }
+    }
+
+    private String compileShape(String[] tokens) {
+      if (tokens.length < 3) {
+        return "Expected a name and a shape type.";
+      }
+      String name = tokens[1];
+      ShapeType type = switch (tokens[2].toLowerCase()) {
+        case "rectangle" -> ShapeType.RECTANGLE;
+        case "oval" -> ShapeType.OVAL;
+        default -> null;
+      };
+      if (type == null) {
+        return "Unsupported shape type: " + tokens[2];
+      }
+      String error = parseNumbers(tokens, 3, 7);
+      if (error == null) {
+        error = values[2] <= 0 || values[3] <= 0 ? "Dimensions must be positive."
+            : checkColor(4);
+      }
+      if (error == null && shadow != null) {
+        error = shadow.createShape(name, type);
+      }
+      if (error == null) {
+        emit(type == ShapeType.RECTANGLE ? RECTANGLE : OVAL, name);
+        addNumbers(7);
+      }
+      return error;
+    }
+
+    private String compileMove(String[] tokens) {
+      // "move group G dx dy" moves a group by an offset
+      boolean group = tokens.length == 5 && tokens[1].equalsIgnoreCase("group");
+      int first = group ? 3 : 2;
+      String error = parseNumbers(tokens, first, 2);
+      if (error == null) {
+        error = checkTarget(group, tokens[first - 1]);
+      }
+      if (error == null) {
+        emit(group ? MOVE_GROUP : MOVE, tokens[first - 1]);
+        addNumbers(2);
+      }
+      return error;
+    }
+
+    private String compileColor(String[] tokens) {
+      // "color group G r g b" recolors a group
+      boolean group = tokens.length == 6 && tokens[1].equalsIgnoreCase("group");
+      int first = group ? 3 : 2;
+      String error = parseNumbers(tokens, first, 3);
+      if (error == null) {
+        error = checkColor(0);
+      }
+      if (error == null) {
+        error = checkTarget(group, tokens[first - 1]);
+      }
+      if (error == null) {
+        emit(group ? COLOR_GROUP : COLOR, tokens[first - 1]);
+        addNumbers(3);
+      }
+      return error;
+    }
+
+    private String compileResize(String[] tokens) {
+      String error = parseNumbers(tokens, 2, 2);
+      if (error == null && (values[0] <= 0 || values[1] <= 0)) {
+        error = "Dimensions must be positive.";
+      }
+      if (error == null) {
+        error = checkTarget(false, tokens[1]);
+      }
+      if (error == null) {
+        emit(RESIZE, tokens[1]);
+        addNumbers(2);
+      }
+      return error;
+    }
+
+    private String compileRemove(String[] tokens) {
+      if (tokens.length < 2) {
+        return "Expected a shape name.";
+      }
+      String error = shadow == null ? null : shadow.removeShape(tokens[1]);
+      if (error == null) {
+        emit(REMOVE, tokens[1]);
+      }
+      return error;
+    }
+
+    private String compileGroup(String[] tokens) {
+      if (tokens.length < 3) {
+        return "Usage: group <name> <member>...";
+      }
+      List<String> members = Arrays.asList(tokens).subList(2, tokens.length);
+      String error = shadow == null ? null : shadow.createGroup(tokens[1], members);
+      if (error == null) {
+        emit(GROUP, tokens[1]);
+        append(members.size());
+        for (String member : members) {
+          append(intern(shapeNames.computeIfAbsent(member, n -> n)));
+        }
+      }
+      return error;
+    }
+
+    private String compileUngroup(String[] tokens) {
+      if (tokens.length < 2) {
+        return "Expected a group name.";
+      }
+      String error = shadow == null ? null : shadow.ungroup(tokens[1]);
+      if (error == null) {
+        emit(UNGROUP, tokens[1]);
+      }
+      return error;
+    }
+
+    /**
+     * Checks that a command's target exists, when names are tracked.
+     * @param group True if the target is a group.
+     * @param name Target name.
+     * @return Error message, or null.
+     */
+    private String checkTarget(boolean group, String name) {
+      if (shadow == null) {
+        return null;
+      }
+      if (group) {
+        return shadow.requireGroup(name);
+      }
+      return shadow.typeOf(name) == null ? ShadowAlbum.missingShape(name) : null;
+    }
+
+    /**
+     * Parses numeric arguments into {@link #values}.
+     * @param tokens Line tokens.
+     * @param first Position of the first number.
+     * @param count Number of numbers.
+     * @return Error message, or null if all are present and valid.
+     */
+    private String parseNumbers(String[] tokens, int first, int count) {
+      if (tokens.length < first + count) {
+        return "Expected " + (first + count - 1) + " arguments, got "
+            + (tokens.length - 1) + ".";
+      }
+      for (int i = 0; i < count; i++) {
+        String token = tokens[first + i];
+        if (!isNumber(token)) {
+          return "Not a number: " + token;
+        }
+        values[i] = Double.parseDouble(token);
+      }
+      return null;
+    }
+
+    /**
+     * Checks a color held in {@link #values}.
+     * @param start Position of the red value.
+     * @return Error message, or null if every channel is in range.
+     */
+    private String checkColor(int start) {
+      for (int i = start; i < start + 3; i++) {
+        if (values[i] < 0 || values[i] > 255) {
+          return "Color values must be in range [0, 255].";
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Checks for a plain decimal number, optionally signed and with an
+     * exponent, so parsing it cannot throw.
+     * @param token Text to check.
+     * @return True if the text is a number.
+     */
+    private static boolean isNumber(String token) {
+      int i = 0;
+      int length = token.length();
+      if (i < length && (token.charAt(i) == '+' || token.charAt(i) == '-')) {
+        i++;
+      }
+      int digits = 0;
+      boolean point = false;
+      for (; i < length; i++) {
+        char c = token.charAt(i);
+        if (c >= '0' && c <= '9') {
+          digits++;
+        } else if (c == '.' && !point) {
+          point = true;
+        } else {
+          break;
+        }
+      }
+      if (digits == 0) {
+        return false;
+      }
+      if (i < length && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+        i++;
+        if (i < length && (token.charAt(i) == '+' || token.charAt(i) == '-')) {
+          i++;
+        }
+        int exponentStart = i;
+        while (i < length && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+          i++;
+        }
+        if (i == exponentStart) {
+          return false;
+        }
+      }
+      return i == length;
+    }
+
+    private void emit(int op, String operand) {
+      append(op);
+      append(intern(op == SNAPSHOT ? operand : shapeNames.computeIfAbsent(operand, n -> n)));
+    }
+
+    private void append(int value) {
+      if (codeSize == code.length) {
+        code = Arrays.copyOf(code, codeSize * 2);
+      }
+      code[codeSize++] = value;
+    }
+
+    /**
+     * Adds the first numbers of {@link #values} to the number pool.
+     * @param count Number of values.
+     */
+    private void addNumbers(int count) {
+      if (numberCount + count > numbers.length) {
+        numbers = Arrays.copyOf(numbers, numbers.length * 2);
+      }
+      System.arraycopy(values, 0, numbers, numberCount, count);
+      numberCount += count;
+    }
+
+    private int intern(String string) {
+      Integer index = stringIndex.get(string);
+      if (index == null) {
+        index = strings.size();
+        strings.add(string);
+        stringIndex.put(string, index);
+      }
+      return index;
+    }
+
+    private CompiledScript finish() {
+      return new CompiledScript(Arrays.copyOf(code, codeSize),
+          strings.toArray(new String[0]), Arrays.copyOf(numbers, numberCount));
+    }
+
+    /**
+     * Returns what has been compiled so far and starts an empty script,
+     * keeping the line count and the diagnostics state.
+     * @return The compiled part.
+     */
+    private CompiledScript take() {
+      CompiledScript script = finish();
+      codeSize = 0;
+      numberCount = 0;
+      strings.clear();
+      stringIndex.clear();
+      snapshotCompiled = false;
+      return script;
+    }
+  }
+}
@@ -3,9 +3,7 @@ package controller;
 import model.IPhotoalbum;
 import model.ISnapshot;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Manages snapshots navigation and retrieval.
@@ -14,7 +12,6 @@ public class GraphicalViewController {
   private final IPhotoalbum model;
   private final List<ISnapshot> snapshots;
   private final List<String> snapshotIDs;
-  private final Map<String, ISnapshot> snapshotMap;
   private int curSnapshotIndex;
 
   /**
@@ -25,20 +22,9 @@ public class GraphicalViewController {
     this.model = model;
     this.snapshots = model.getSnapshots();
     this.snapshotIDs = model.getSnapshotIDs();
-    this.snapshotMap = new HashMap<>();
-    initializeSnapshotMap();
     this.curSnapshotIndex = 0;
   }
 
-  /**
-   * Populates the snapshot map for quick retrieval.
-   */
-  private void initializeSnapshotMap() {
-    for (ISnapshot snapshot : snapshots) {
-      snapshotMap.put(snapshot.getSnapshotId(), snapshot);
-    }
-  }
-
   /**
    * Gets the currently selected snapshot.
    * @return Current snapshot, or null if none exist.
@@ -61,13 +47,60 @@ public class GraphicalViewController {
     return false;
   }
 
+  /**
+   * Jumps directly to the snapshot at an index.
+   * @param index Position of the snapshot.
+   * @return True if the index exists; false otherwise.
+   */
+  public boolean goTo(int index) {
+    if (index >= 0 && index < snapshots.size()) {
+      curSnapshotIndex = index;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gets the position of the currently selected snapshot.
+   * @return Current snapshot index.
+   */
+  public int getCurrentIndex() {
+    return curSnapshotIndex;
+  }
+
+  /**
+   * Gets the number of snapshots available.
+   * @return Snapshot count.
+   */
+  public int getSnapshotCount() {
+    return snapshots.size();
+  }
+
+  /**
+   * Retrieves a snapshot by its position.
+   * @param index Position of the snapshot.
+   * @return Snapshot at the index.
+   */
+  public ISnapshot getSnapshot(int index) {
+    return snapshots.get(index);
+  }
+
   /**
    * Retrieves a snapshot by its unique ID.
    * @param id Unique identifier for the snapshot.
    * @return Snapshot object, or null if not found.
    */
   public ISnapshot getSnapshotById(String id) {
-    return snapshotMap.get(id);
+    return model.getSnapshotById(id);
+  }
+
+  /**
+   * Finds the position of a snapshot by its unique ID.
+   * @param id Unique identifier for the snapshot.
+   * @return Index of the snapshot, or -1 if not found.
+   */
+  public int indexOfSnapshot(String id) {
+    return model.indexOfSnapshot(id);
   }
 
   /**
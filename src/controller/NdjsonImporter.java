@@ -0,0 +1,419 @@
+package controller;
+
+import model.Color;
+import model.IPhotoalbum;
+import model.PhotoAlbumModel;
+import model.ShapeType;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Rebuilds an album from the JSON Lines written by the "ndjson" export
+ * format. The file is read one line at a time with a small hand-written
+ * parser, so memory holds only the current and previous snapshots. Each
+ * line is applied as the changes from the line before it (creations,
+ * moves, resizes, recolors and removals) followed by a snapshot restored
+ * under its exported ID and timestamp, so snapshots come back as they were
+ * exported. Groups come back as their member shapes.
+ */
+public final class NdjsonImporter {
+
+  /**
+   * One exported shape: name, type, position in its line and its seven
+   * numbers.
+   */
+  private static final class Entry {
+    private final String name;
+    private final boolean oval;
+    private final int position;
+    private final double[] values = new double[7];
+
+    private Entry(String name, boolean oval, int position) {
+      this.name = name;
+      this.oval = oval;
+      this.position = position;
+    }
+
+    private boolean same(Entry other, int from, int to) {
+      for (int i = from; i < to; i++) {
+        if (values[i] != other.values[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private NdjsonImporter() {
+  }
+
+  /**
+   * Checks whether a file name looks like JSON Lines, compressed or not.
+   * @param filename File name.
+   * @return True for names ending in ".ndjson" or ".jsonl", optionally
+   *     followed by ".gz".
+   */
+  public static boolean isNdjson(String filename) {
+    String name = filename.toLowerCase().replaceFirst("\\.gz$", "");
+    return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+  }
+
+  /**
+   * Checks whether a file name marks gzip data, by the same rule as
+   * {@link #isNdjson}.
+   * @param filename File name.
+   * @return True for names ending in ".gz" in any case.
+   */
+  private static boolean isGzip(String filename) {
+    return filename.toLowerCase().endsWith(".gz");
+  }
+
+  /**
+   * Reads a JSON Lines album into a new model.
+   * @param filename File to read; names ending in ".gz", in any case, are
+   *     decompressed.
+   * @return The rebuilt album.
+   * @throws FileNotFoundException If the file does not exist.
+   * @throws IOException If the file cannot be read or is not a valid album.
+   */
+  public static PhotoAlbumModel load(String filename) throws IOException {
+    PhotoAlbumModel model = new PhotoAlbumModel();
+    read(filename, model);
+    return model;
+  }
+
+  /**
+   * Reads a JSON Lines album into a model that has no shapes yet.
+   * @param filename File to read; names ending in ".gz", in any case, are
+   *     decompressed.
+   * @param model Album to fill.
+   * @return Number of snapshots read.
+   * @throws FileNotFoundException If the file does not exist.
+   * @throws IOException If the file cannot be read or is not a valid album;
+   *     snapshots before the bad line are kept.
+   */
+  public static int read(String filename, IPhotoalbum model) throws IOException {
+    File file = new File(filename);
+    if (!file.isFile()) {
+      throw new FileNotFoundException(filename);
+    }
+    try (InputStream raw = new FileInputStream(file);
+         InputStream in = isGzip(filename) ? new GZIPInputStream(raw) : raw;
+         BufferedReader reader = new BufferedReader(
+             new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      Map<String, Entry> previous = new HashMap<>();
+      int snapshots = 0;
+      int lineNumber = 0;
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        Parser parser = new Parser(line, lineNumber);
+        Map<String, Entry> current = new LinkedHashMap<>();
+        parser.snapshot(current);
+        try {
+          apply(model, previous, current);
+          if (parser.id == null) {
+            model.takeSnapshot(parser.description);
+          } else {
+            model.restoreSnapshot(parser.id, parser.timestamp, parser.description);
+          }
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        previous = current;
+        snapshots++;
+      }
+      return snapshots;
+    }
+  }
+
+  /**
+   * Changes the album from one exported snapshot to the next. New shapes
+   * are drawn after existing ones, so shapes are updated in place only
+   * while the line lists them in their current drawing order; from the
+   * first shape out of that order on, every shape is created again.
+   * @param model Album to change.
+   * @param previous Shapes of the previous line.
+   * @param current Shapes of this line, in drawing order.
+   */
+  private static void apply(IPhotoalbum model, Map<String, Entry> previous,
+                            Map<String, Entry> current) {
+    for (String name : previous.keySet()) {
+      if (!current.containsKey(name)) {
+        model.removeShape(name);
+      }
+    }
+    boolean inOrder = true;
+    int lastPosition = -1;
+    for (Entry entry : current.values()) {
+      Entry before = previous.get(entry.name);
+      double[] v = entry.values;
+      if (inOrder && before != null && before.oval == entry.oval
+          && before.position > lastPosition) {
+        lastPosition = before.position;
+        update(model, before, entry);
+        continue;
+      }
+      inOrder = false;
+      if (before != null) {
+        model.removeShape(entry.name);
+      }
+      Color color = new Color(v[4], v[5], v[6]);
+      if (entry.oval) {
+        model.createOval(entry.name, ShapeType.OVAL, v[0], v[1], v[2], v[3], color);
+      } else {
+        model.createRectangle(entry.name, ShapeType.RECTANGLE, v[0], v[1], v[2], v[3],
+            color);
+      }
+    }
+  }
+
+  /**
+   * Applies the changes between two states of one shape.
+   * @param model Album to change.
+   * @param before Shape in the previous line.
+   * @param entry Same shape in this line.
+   */
+  private static void update(IPhotoalbum model, Entry before, Entry entry) {
+    double[] v = entry.values;
+    if (!entry.same(before, 0, 2)) {
+      model.moveShape(entry.name, v[0], v[1]);
+    }
+    if (!entry.same(before, 2, 4)) {
+      if (entry.oval) {
+        model.resizeOval(entry.name, v[2], v[3]);
+      } else {
+        model.resizeRectangle(entry.name, v[2], v[3]);
+      }
+    }
+    if (!entry.same(before, 4, 7)) {
+      model.changeShapeColor(entry.name, v[4], v[5], v[6]);
+    }
+  }
+
+  /**
+   * Reads the JSON of one line in place, without building a tree.
+   */
+  private static final class Parser {
+    private final String text;
+    private final int lineNumber;
+    private int pos;
+    private String id;
+    private String timestamp;
+    private String description = "";
+
+    private Parser(String text, int lineNumber) {
+      this.text = text;
+      this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Reads a snapshot object into the ID, timestamp and description
+     * fields. Unknown keys are skipped, so files from newer versions still
+     * load.
+     * @param shapes Receives the shapes in order.
+     * @throws IOException If the line is not a valid snapshot.
+     */
+    private void snapshot(Map<String, Entry> shapes) throws IOException {
+      expect('{');
+      if (!consume('}')) {
+        do {
+          String key = string();
+          expect(':');
+          switch (key) {
+            case "id" -> id = string();
+            case "timestamp" -> timestamp = string();
+            case "description" -> description = string();
+            case "shapes" -> shapes(shapes);
+            default -> skipValue();
+          }
+        } while (consume(','));
+        expect('}');
+      }
+      skipSpace();
+      if (pos < text.length()) {
+        throw error("Unexpected text after snapshot");
+      }
+    }
+
+    private void shapes(Map<String, Entry> shapes) throws IOException {
+      expect('[');
+      if (consume(']')) {
+        return;
+      }
+      do {
+        expect('[');
+        String name = string();
+        expect(',');
+        String type = string();
+        boolean oval = switch (type) {
+          case "oval" -> true;
+          case "rectangle" -> false;
+          default -> throw error("Unknown shape type: " + type);
+        };
+        Entry entry = new Entry(name, oval, shapes.size());
+        for (int i = 0; i < entry.values.length; i++) {
+          expect(',');
+          entry.values[i] = number();
+        }
+        expect(']');
+        if (shapes.put(name, entry) != null) {
+          throw error("Duplicate shape name: " + name);
+        }
+      } while (consume(','));
+      expect(']');
+    }
+
+    private String string() throws IOException {
+      expect('"');
+      StringBuilder out = null;
+      int start = pos;
+      while (pos < text.length()) {
+        char c = text.charAt(pos++);
+        if (c == '"') {
+          return out == null ? text.substring(start, pos - 1)
+              : out.append(text, start, pos - 1).toString();
+        }
+        if (c != '\\') {
+          continue;
+        }
+        if (out == null) {
+          out = new StringBuilder();
+        }
+        out.append(text, start, pos - 1);
+        if (pos >= text.length()) {
+          break;
+        }
+        char escaped = text.charAt(pos++);
+        switch (escaped) {
+          case '"', '\\', '/' -> out.append(escaped);
+          case 'b' -> out.append('\b');
+          case 'f' -> out.append('\f');
+          case 'n' -> out.append('\n');
+          case 'r' -> out.append('\r');
+          case 't' -> out.append('\t');
+          case 'u' -> {
+            if (pos + 4 > text.length()) {
+              throw error("Bad unicode escape");
+            }
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+              int digit = Character.digit(text.charAt(pos++), 16);
+              if (digit < 0) {
+                throw error("Bad unicode escape");
+              }
+              code = code * 16 + digit;
+            }
+            out.append((char) code);
+          }
+          default -> throw error("Bad escape: \\" + escaped);
+        }
+        start = pos;
+      }
+      throw error("Unterminated string");
+    }
+
+    private double number() throws IOException {
+      skipSpace();
+      int start = pos;
+      boolean negative = consumeRaw('-');
+      long whole = 0;
+      int digits = 0;
+      while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+        whole = whole * 10 + (text.charAt(pos++) - '0');
+        digits++;
+      }
+      if (digits == 0) {
+        throw error("Expected a number");
+      }
+      boolean integral = digits <= 15;
+      while (pos < text.length() && "0123456789.eE+-".indexOf(text.charAt(pos)) >= 0) {
+        pos++;
+        integral = false;
+      }
+      if (integral) {
+        return negative ? -whole : whole;
+      }
+      try {
+        return Double.parseDouble(text.substring(start, pos));
+      } catch (NumberFormatException e) {
+        throw error("Bad number: " + text.substring(start, pos));
+      }
+    }
+
+    private void skipValue() throws IOException {
+      skipSpace();
+      if (pos >= text.length()) {
+        throw error("Expected a value");
+      }
+      char c = text.charAt(pos);
+      if (c == '"') {
+        string();
+      } else if (c == '{' || c == '[') {
+        char close = c == '{' ? '}' : ']';
+        pos++;
+        if (consume(close)) {
+          return;
+        }
+        do {
+          if (c == '{') {
+            string();
+            expect(':');
+          }
+          skipValue();
+        } while (consume(','));
+        expect(close);
+      } else if (c == '-' || (c >= '0' && c <= '9')) {
+        number();
+      } else if (text.startsWith("true", pos) || text.startsWith("null", pos)) {
+        pos += 4;
+      } else if (text.startsWith("false", pos)) {
+        pos += 5;
+      } else {
+        throw error("Unexpected character '" + c + "'");
+      }
+    }
+
+    private void expect(char c) throws IOException {
+      if (!consume(c)) {
+        throw error("Expected '" + c + "'");
+      }
+    }
+
+    private boolean consume(char c) {
+      skipSpace();
+      return consumeRaw(c);
+    }
+
+    private boolean consumeRaw(char c) {
+      if (pos < text.length() && text.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipSpace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    private IOException error(String message) {
+      return new IOException("Line " + lineNumber + ", column " + (pos + 1) + ": " + message);
+    }
+  }
+}
@@ -1,11 +1,22 @@
 package controller;
 
 import model.*;
+import views.ExportView;
 import views.GraphicalView;
+import views.HttpServerView;
+import views.ImageView;
 import views.IView;
+import views.ProgressiveView;
+import views.ViewOptions;
 import views.WebView;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controls the photo album operations, connecting the
@@ -13,16 +24,31 @@ import java.io.IOException;
  * on moving logic, viewTypes.
  */
 public class PhotoalbumController implements IPhotoalbumController {
+  // snapshots parsed but not yet shown; a full queue pauses the parser
+  private static final int PUBLISH_QUEUE_CAPACITY = 64;
+  // how long the parser waits for queue space before checking the view
+  private static final long PUBLISH_WAIT_MILLIS = 100;
+  private static final ISnapshot END_OF_SCRIPT = new Snapshot("", "", "", List.of());
+
   private final IPhotoalbum model;
-  private final FileReader reader;
+  private final ViewOptions options;
 
   /**
    * Creates a controller for managing photo albums.
    * @param model The photo album model.
    */
   public PhotoalbumController(IPhotoalbum model) {
+    this(model, new ViewOptions());
+  }
+
+  /**
+   * Creates a controller for managing photo albums with view options.
+   * @param model The photo album model.
+   * @param options Settings passed on to the views.
+   */
+  public PhotoalbumController(IPhotoalbum model, ViewOptions options) {
     this.model = model;
-    this.reader = new FileReader(this);
+    this.options = options;
   }
 
   /**
@@ -37,15 +63,130 @@ public class PhotoalbumController implements IPhotoalbumController {
   @Override
   public void run(String filename, String viewType, int xMax, int yMax, String outputfile)
       throws IOException {
-    reader.readfile(filename);
+    if (options.isProgressive()) {
+      runProgressive(filename, viewType, xMax, yMax, outputfile);
+      return;
+    }
+    ScriptDiagnostics diagnostics = options.isDiagnostics()
+        ? new ScriptDiagnostics(options.getMaxErrors()) : null;
+    try {
+      if (NdjsonImporter.isNdjson(filename)) {
+        NdjsonImporter.read(filename, model);
+      } else {
+        CompiledScript.execute(filename, diagnostics, model);
+      }
+    } catch (FileNotFoundException e) {
+      System.err.println("Error: File not found ( " + filename + " )");
+    }
+    if (diagnostics != null) {
+      printDiagnostics(filename, diagnostics);
+    }
 
     switch (viewType.toLowerCase()) {
       case "graphical" -> viewGraphical(xMax, yMax, outputfile);
       case "web" -> viewWeb(xMax, yMax, outputfile);
+      case "server" -> viewServer(xMax, yMax, outputfile);
+      case "image" -> viewImage(xMax, yMax, outputfile);
+      case "export" -> viewExport(xMax, yMax, outputfile);
       default -> throw new IllegalArgumentException("Unknown view type: " + viewType);
     }
   }
 
+  /**
+   * Prints the errors collected from a script, then a summary.
+   * @param filename Script file.
+   * @param diagnostics Collected errors.
+   */
+  private static void printDiagnostics(String filename, ScriptDiagnostics diagnostics) {
+    for (ScriptDiagnostics.Diagnostic error : diagnostics.getErrors()) {
+      System.err.println(filename + ": " + error);
+    }
+    System.err.println(filename + ": " + diagnostics.summary());
+  }
+
+  /**
+   * Reads the script on a background thread and hands each snapshot to the
+   * view as soon as it is taken. The model must tolerate being read while
+   * the parser thread writes to it.
+   * @param filename File containing commands.
+   * @param viewType Type of view to display.
+   * @param xMax Max x-dimension of view window.
+   * @param yMax Max y-dimension of view window.
+   * @param outputfile File to write output.
+   */
+  private void runProgressive(String filename, String viewType, int xMax, int yMax,
+                              String outputfile) {
+    ProgressiveView view = switch (viewType.toLowerCase()) {
+      case "graphical" -> new GraphicalView(model, options);
+      case "web" -> new WebView(model, options);
+      default -> throw new IllegalArgumentException("Unknown view type: " + viewType);
+    };
+    BlockingQueue<ISnapshot> published = new ArrayBlockingQueue<>(PUBLISH_QUEUE_CAPACITY);
+    // set once the view stops taking snapshots, so the parser stops waiting
+    AtomicBoolean stopped = new AtomicBoolean();
+    SnapshotListener listener = snapshot -> enqueue(published, snapshot, stopped);
+    model.addSnapshotListener(listener);
+    ScriptDiagnostics diagnostics = options.isDiagnostics()
+        ? new ScriptDiagnostics(options.getMaxErrors()) : null;
+
+    Thread parser = new Thread(() -> {
+      try {
+        if (NdjsonImporter.isNdjson(filename)) {
+          NdjsonImporter.read(filename, model);
+        } else {
+          CompiledScript.execute(filename, diagnostics, model);
+        }
+      } catch (FileNotFoundException e) {
+        System.err.println("Error: File not found ( " + filename + " )");
+      } catch (IOException e) {
+        System.err.println("Error reading " + filename + ": " + e.getMessage());
+      } finally {
+        enqueue(published, END_OF_SCRIPT, stopped);
+      }
+    }, "script-parser");
+
+    try {
+      view.beginView(xMax, yMax, outputfile);
+      parser.start();
+      for (ISnapshot snapshot = published.take(); snapshot != END_OF_SCRIPT;
+           snapshot = published.take()) {
+        view.snapshotPublished(snapshot);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // if the view failed, the parser finishes the script without waiting
+      stopped.set(true);
+      model.removeSnapshotListener(listener);
+      published.clear();
+    }
+    view.finishView();
+    if (diagnostics != null) {
+      printDiagnostics(filename, diagnostics);
+    }
+  }
+
+  /**
+   * Puts a snapshot on the publish queue, waiting for space until the view
+   * stops taking snapshots. The listener runs under the model's lock, so it
+   * checks for a stopped view regularly instead of waiting forever.
+   * @param queue Queue between the parser and the view.
+   * @param snapshot Snapshot to publish.
+   * @param stopped Set once the view no longer takes snapshots.
+   */
+  private static void enqueue(BlockingQueue<ISnapshot> queue, ISnapshot snapshot,
+                              AtomicBoolean stopped) {
+    try {
+      while (!stopped.get()) {
+        if (queue.offer(snapshot, PUBLISH_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Displays the graphical view.
    * @param xMax Max x-dimension of view window.
@@ -53,7 +194,7 @@ public class PhotoalbumController implements IPhotoalbumController {
    * @param outputfile File to write output.
    */
   private void viewGraphical(int xMax, int yMax, String outputfile) {
-    IView view = new GraphicalView(model);
+    IView view = new GraphicalView(model, options);
     view.showView(xMax, yMax, outputfile);
   }
 
@@ -64,118 +205,56 @@ public class PhotoalbumController implements IPhotoalbumController {
    * @param outputfile File to write output.
    */
   private void viewWeb(int xMax, int yMax, String outputfile) {
-    IView view = new WebView(model);
+    IView view = new WebView(model, options);
     view.showView(xMax, yMax, outputfile);
   }
 
   /**
-   * Processes a given command.
-   * @param command The command to execute.
+   * Serves the album over HTTP.
+   * @param xMax Width of rendered snapshots.
+   * @param yMax Height of rendered snapshots.
+   * @param outputfile Unused.
    */
-  public void readCommand(String command) {
-    if (command.startsWith("#") || command.trim().isEmpty()) return; // ignore the comment line
-
-    String[] tokens = command.split("\\s+");
-    switch (tokens[0].toLowerCase()) {
-      case "shape" -> handleShape(tokens);
-      case "move" -> handleMove(tokens);
-      case "color" -> handleColor(tokens);
-      case "resize" -> handleResize(tokens);
-      case "remove" -> handleRemove(tokens);
-      case "snapshot" -> handleSnapshot(tokens);
-      default -> System.err.println("Unknown command: " + tokens[0]);
-    }
+  private void viewServer(int xMax, int yMax, String outputfile) {
+    IView view = new HttpServerView(model, options.getPort());
+    view.showView(xMax, yMax, outputfile);
   }
 
   /**
-   * Takes a snapshot with the provided description.
-   * @param description Description of the snapshot.
+   * Renders the last snapshot to a PNG file.
+   * @param xMax Image width.
+   * @param yMax Image height.
+   * @param outputfile PNG file to write.
    */
-  public void takeSnapshot(String description) {
-    model.takeSnapshot(description);
-  }
-
-  private void handleShape(String[] tokens) {
-    try {
-      String name = tokens[1];
-      ShapeType type = ShapeType.valueOf(tokens[2].toUpperCase());
-      double x = Double.parseDouble(tokens[3]);
-      double y = Double.parseDouble(tokens[4]);
-      double param1 = Double.parseDouble(tokens[5]);
-      double param2 = Double.parseDouble(tokens[6]);
-      Color color = parseColor(tokens, 7);
-
-      if (type == ShapeType.RECTANGLE) {
-        model.createRectangle(name, type, x, y, param1, param2, color);
-      } else if (type == ShapeType.OVAL) {
-        model.createOval(name, type, x, y, param1, param2, color);
-      } else {
-        throw new IllegalArgumentException("Unsupported shape type: " + type);
-      }
-    } catch (Exception e) {
-      System.err.println("Error processing shape command: " + e.getMessage());
-    }
-  }
-
-  private Color parseColor(String[] tokens, int startIndex) {
-    double red = Double.parseDouble(tokens[startIndex]);
-    double green = Double.parseDouble(tokens[startIndex + 1]);
-    double blue = Double.parseDouble(tokens[startIndex + 2]);
-    return new Color(red, green, blue);
-  }
-
-  private void handleMove(String[] tokens) {
-    try {
-      String name = tokens[1];
-      double x = Double.parseDouble(tokens[2]);
-      double y = Double.parseDouble(tokens[3]);
-      model.moveShape(name, x, y);
-    } catch (Exception e) {
-      System.err.println("Error processing move command: " + e.getMessage());
-    }
-  }
-
-  private void handleColor(String[] tokens) {
-    try {
-      String name = tokens[1];
-      Color color = parseColor(tokens, 2);
-      model.changeShapeColor(name, color.getR(), color.getG(), color.getB());
-    } catch (Exception e) {
-      System.err.println("Error processing color command: " + e.getMessage());
-    }
+  private void viewImage(int xMax, int yMax, String outputfile) {
+    IView view = new ImageView(model);
+    view.showView(xMax, yMax, outputfile);
   }
 
-  private void handleResize(String[] tokens) {
-    try {
-      String name = tokens[1];
-      double param1 = Double.parseDouble(tokens[2]);
-      double param2 = Double.parseDouble(tokens[3]);
-      IShape shape = model.getShape(name);
-
-      if (shape.getShapeType() == ShapeType.RECTANGLE) {
-        model.resizeRectangle(name, param1, param2);
-      } else if (shape.getShapeType() == ShapeType.OVAL) {
-        model.resizeOval(name, param1, param2);
-      } else {
-        throw new IllegalArgumentException("Unsupported shape type for resize.");
-      }
-    } catch (Exception e) {
-      System.err.println("Error processing resize command: " + e.getMessage());
-    }
+  /**
+   * Writes the album to every chosen format in one pass.
+   * @param xMax Canvas width.
+   * @param yMax Canvas height.
+   * @param outputfile Base name for the output files.
+   */
+  private void viewExport(int xMax, int yMax, String outputfile) {
+    IView view = new ExportView(model, options);
+    view.showView(xMax, yMax, outputfile);
   }
 
-  private void handleRemove(String[] tokens) {
-    try {
-      String name = tokens[1];
-      model.removeShape(name);
-    } catch (Exception e) {
-      System.err.println("Error processing remove command: " + e.getMessage());
-    }
+  /**
+   * Processes a given command.
+   * @param command The command to execute.
+   */
+  public void readCommand(String command) {
+    CompiledScript.runCommand(command, model);
   }
 
-  private void handleSnapshot(String[] tokens) {
-    String description = tokens.length > 1 ? String.join(" ", tokens)
-        .substring(tokens[0].length()).trim() : "";
+  /**
+   * Takes a snapshot with the provided description.
+   * @param description Description of the snapshot.
+   */
+  public void takeSnapshot(String description) {
     model.takeSnapshot(description);
   }
 }
@@ -0,0 +1,202 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Errors found while compiling a script in diagnostics mode. Every error
+ * is counted, but only the first few are kept, so a script with millions
+ * of bad lines still uses bounded memory.
+ */
+public final class ScriptDiagnostics {
+  /** Errors kept when no capacity is given. */
+  public static final int DEFAULT_CAPACITY = 100;
+  /** Key that counts every unrecognized command word, so the counts stay bounded. */
+  public static final String UNKNOWN = "unknown";
+
+  private final int capacity;
+  private final List<Diagnostic> errors = new ArrayList<>();
+  private final Map<String, Integer> errorsByCommand = new TreeMap<>();
+  private int errorCount;
+  private int lineCount;
+  private int commandCount;
+
+  /**
+   * One rejected line.
+   */
+  public static final class Diagnostic {
+    private final int line;
+    private final String command;
+    private final String message;
+
+    private Diagnostic(int line, String command, String message) {
+      this.line = line;
+      this.command = command;
+      this.message = message;
+    }
+
+    /**
+     * Gets the line number.
+     * @return Line number, starting at 1.
+     */
+    public int getLine() {
+      return line;
+    }
+
+    /**
+     * Gets the command word of the line.
+     * @return Command word in lower case.
+     */
+    public String getCommand() {
+      return command;
+    }
+
+    /**
+     * Gets what was wrong with the line.
+     * @return Error message.
+     */
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return "line " + line + " (" + command + "): " + message;
+    }
+  }
+
+  /**
+   * Creates a collector that keeps the default number of errors.
+   */
+  public ScriptDiagnostics() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a collector.
+   * @param capacity Number of errors to keep.
+   * @throws IllegalArgumentException If capacity is negative.
+   */
+  public ScriptDiagnostics(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Records a line that was read.
+   * @param command True if the line compiled to a command.
+   */
+  void lineRead(boolean command) {
+    lineCount++;
+    if (command) {
+      commandCount++;
+    }
+  }
+
+  /**
+   * Records a rejected line.
+   * @param line Line number.
+   * @param command Command word.
+   * @param message What was wrong.
+   */
+  void error(int line, String command, String message) {
+    error(line, command, command, message);
+  }
+
+  /**
+   * Records a line whose command word is not a command. All such lines
+   * are counted under {@link #UNKNOWN}, however many different words a
+   * script misspells.
+   * @param line Line number.
+   * @param command Unrecognized command word.
+   * @param message What was wrong.
+   */
+  void unknownCommand(int line, String command, String message) {
+    error(line, command, UNKNOWN, message);
+  }
+
+  /**
+   * Counts an error and keeps it if there is room.
+   * @param line Line number.
+   * @param command Command word as written.
+   * @param countKey Key the error is counted under.
+   * @param message What was wrong.
+   */
+  private void error(int line, String command, String countKey, String message) {
+    errorCount++;
+    errorsByCommand.merge(countKey, 1, Integer::sum);
+    if (errors.size() < capacity) {
+      errors.add(new Diagnostic(line, command, message));
+    }
+  }
+
+  /**
+   * Gets the kept errors.
+   * @return The first errors found, in line order.
+   */
+  public List<Diagnostic> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * Gets the number of errors, including those not kept.
+   * @return Error count.
+   */
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * Gets the number of errors per command word.
+   * @return Counts by command word, with unrecognized words under
+   *     {@link #UNKNOWN}, in alphabetical order.
+   */
+  public Map<String, Integer> getErrorCountsByCommand() {
+    return Collections.unmodifiableMap(errorsByCommand);
+  }
+
+  /**
+   * Gets the number of lines read, including comments and blank lines.
+   * @return Line count.
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Gets the number of commands that compiled.
+   * @return Command count.
+   */
+  public int getCommandCount() {
+    return commandCount;
+  }
+
+  /**
+   * Describes the outcome in one line.
+   * @return Summary such as "1200 lines, 1150 commands, 12 errors (move 10, shape 2)".
+   */
+  public String summary() {
+    StringBuilder summary = new StringBuilder()
+        .append(lineCount).append(" lines, ")
+        .append(commandCount).append(" commands, ")
+        .append(errorCount).append(errorCount == 1 ? " error" : " errors");
+    if (errorCount > 0) {
+      summary.append(" (");
+      String separator = "";
+      for (Map.Entry<String, Integer> entry : errorsByCommand.entrySet()) {
+        summary.append(separator).append(entry.getKey()).append(' ').append(entry.getValue());
+        separator = ", ";
+      }
+      summary.append(')');
+    }
+    if (errorCount > errors.size()) {
+      summary.append("; first ").append(errors.size()).append(" shown");
+    }
+    return summary.toString();
+  }
+}
@@ -0,0 +1,139 @@
+package controller;
+
+import model.ShapeType;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The names a script has created so far, tracked while it is compiled so
+ * commands that the album would reject can be found up front without
+ * throwing. Each check returns an error message, or null after recording
+ * the command's effect.
+ */
+class ShadowAlbum {
+  private final Map<String, ShapeType> shapes = new HashMap<>();
+  // members of each group
+  private final Map<String, Set<String>> groups = new HashMap<>();
+  // group of each grouped shape or group
+  private final Map<String, String> parents = new HashMap<>();
+
+  /**
+   * Checks and records a new shape.
+   * @param name Shape name.
+   * @param type Shape type.
+   * @return Error message, or null if the shape can be created.
+   */
+  String createShape(String name, ShapeType type) {
+    if (shapes.containsKey(name)) {
+      return "Shape with name '" + name + "' already exists.";
+    }
+    if (groups.containsKey(name)) {
+      return "Group with name '" + name + "' already exists.";
+    }
+    shapes.put(name, type);
+    return null;
+  }
+
+  /**
+   * Gets the type of a shape.
+   * @param name Shape name.
+   * @return Type, or null if there is no such shape.
+   */
+  ShapeType typeOf(String name) {
+    return shapes.get(name);
+  }
+
+  /**
+   * Checks and records a removal.
+   * @param name Shape name.
+   * @return Error message, or null if the shape exists.
+   */
+  String removeShape(String name) {
+    if (shapes.remove(name) == null) {
+      return missingShape(name);
+    }
+    leaveGroup(name);
+    return null;
+  }
+
+  /**
+   * Checks that a group exists.
+   * @param name Group name.
+   * @return Error message, or null if the group exists.
+   */
+  String requireGroup(String name) {
+    return groups.containsKey(name) ? null : "Group '" + name + "' does not exist.";
+  }
+
+  /**
+   * Checks and records a new group, by the album's rules.
+   * @param name Group name.
+   * @param members Shape and group names.
+   * @return Error message, or null if the group can be created.
+   */
+  String createGroup(String name, List<String> members) {
+    if (groups.containsKey(name) || shapes.containsKey(name)) {
+      return "Name '" + name + "' is already in use.";
+    }
+    if (new HashSet<>(members).size() != members.size()) {
+      return "Group members must be distinct.";
+    }
+    for (String member : members) {
+      if (!groups.containsKey(member) && !shapes.containsKey(member)) {
+        return "'" + member + "' does not exist.";
+      }
+      if (parents.containsKey(member)) {
+        return "'" + member + "' is already in a group.";
+      }
+    }
+    groups.put(name, new LinkedHashSet<>(members));
+    for (String member : members) {
+      parents.put(member, name);
+    }
+    return null;
+  }
+
+  /**
+   * Checks and records dissolving a group.
+   * @param name Group name.
+   * @return Error message, or null if the group exists.
+   */
+  String ungroup(String name) {
+    Set<String> members = groups.remove(name);
+    if (members == null) {
+      return "Group '" + name + "' does not exist.";
+    }
+    String parent = parents.get(name);
+    leaveGroup(name);
+    for (String member : members) {
+      if (parent == null) {
+        parents.remove(member);
+      } else {
+        parents.put(member, parent);
+        groups.get(parent).add(member);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Builds the message for an unknown shape.
+   * @param name Shape name.
+   * @return Error message.
+   */
+  static String missingShape(String name) {
+    return "Shape '" + name + "' does not exist.";
+  }
+
+  private void leaveGroup(String name) {
+    String parent = parents.remove(name);
+    if (parent != null) {
+      groups.get(parent).remove(name);
+    }
+  }
+}
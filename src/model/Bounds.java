@@ -0,0 +1,112 @@
+package model;
+
+/**
+ * An axis-aligned bounding box in canvas coordinates.
+ */
+public class Bounds {
+  private final double minX;
+  private final double minY;
+  private final double maxX;
+  private final double maxY;
+
+  /**
+   * Constructs a bounding box from its corners.
+   * @param minX Left edge.
+   * @param minY Top edge.
+   * @param maxX Right edge.
+   * @param maxY Bottom edge.
+   */
+  public Bounds(double minX, double minY, double maxX, double maxY) {
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+  }
+
+  /**
+   * Gets the left edge.
+   * @return Minimum x-coordinate.
+   */
+  public double getMinX() {
+    return minX;
+  }
+
+  /**
+   * Gets the top edge.
+   * @return Minimum y-coordinate.
+   */
+  public double getMinY() {
+    return minY;
+  }
+
+  /**
+   * Gets the right edge.
+   * @return Maximum x-coordinate.
+   */
+  public double getMaxX() {
+    return maxX;
+  }
+
+  /**
+   * Gets the bottom edge.
+   * @return Maximum y-coordinate.
+   */
+  public double getMaxY() {
+    return maxY;
+  }
+
+  /**
+   * Gets the width of the box.
+   * @return Width.
+   */
+  public double getWidth() {
+    return maxX - minX;
+  }
+
+  /**
+   * Gets the height of the box.
+   * @return Height.
+   */
+  public double getHeight() {
+    return maxY - minY;
+  }
+
+  /**
+   * Checks whether this box overlaps another.
+   * @param other Box to test.
+   * @return True if the boxes share any area.
+   */
+  public boolean intersects(Bounds other) {
+    return minX < other.maxX && other.minX < maxX
+        && minY < other.maxY && other.minY < maxY;
+  }
+
+  /**
+   * Checks whether this box fully contains another.
+   * @param other Box to test.
+   * @return True if other lies inside this box.
+   */
+  public boolean contains(Bounds other) {
+    return other.minX >= minX && other.maxX <= maxX
+        && other.minY >= minY && other.maxY <= maxY;
+  }
+
+  /**
+   * Computes the smallest box containing this box and another.
+   * @param other Box to merge with.
+   * @return The union of both boxes.
+   */
+  public Bounds union(Bounds other) {
+    return new Bounds(Math.min(minX, other.minX), Math.min(minY, other.minY),
+        Math.max(maxX, other.maxX), Math.max(maxY, other.maxY));
+  }
+
+  /**
+   * Returns a string representation of the box.
+   * @return Corner coordinates as a string.
+   */
+  @Override
+  public String toString() {
+    return String.format("(%.1f, %.1f) - (%.1f, %.1f)", minX, minY, maxX, maxY);
+  }
+}
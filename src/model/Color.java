@@ -1,5 +1,7 @@
 package model;
 
+import java.util.Objects;
+
 /**
  * Represents a color with RGB values.
  */
@@ -79,4 +81,31 @@ public class Color {
   public Color copy() {
     return new Color(r, g, b);
   }
+
+  /**
+   * Compares two colors by their RGB values.
+   * @param o Object to compare with.
+   * @return True if o is a color with the same RGB values.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Color other)) {
+      return false;
+    }
+    return Double.compare(r, other.r) == 0
+        && Double.compare(g, other.g) == 0
+        && Double.compare(b, other.b) == 0;
+  }
+
+  /**
+   * Computes a hash code from the RGB values.
+   * @return Hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(r, g, b);
+  }
 }
@@ -0,0 +1,710 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Photo album that several threads can mutate at once.
+ * Shape updates only lock the shape they touch, so threads working on
+ * different shapes never contend. Taking a snapshot briefly excludes all
+ * updates so every snapshot is a consistent cut of the album. The
+ * snapshot list is published without locks, so readers never wait.
+ */
+public class ConcurrentPhotoAlbumModel implements IPhotoalbum {
+  private final ConcurrentHashMap<String, Slot> shapes = new ConcurrentHashMap<>();
+  // shapes in creation order, which is the drawing order
+  private final ConcurrentSkipListMap<Long, IShape> drawOrder = new ConcurrentSkipListMap<>();
+  private final AtomicLong nextShapeOrder = new AtomicLong();
+  private final PublishedList<ISnapshot> snapshots = new PublishedList<>();
+  private final PublishedList<String> snapshotIDs = new PublishedList<>();
+  private final List<ISnapshot> snapshotsView = Collections.unmodifiableList(snapshots);
+  private final List<String> snapshotIDsView = Collections.unmodifiableList(snapshotIDs);
+  // per-shape timelines, extended by takeSnapshot
+  private final ShapeHistory history = new ShapeHistory();
+  private final Map<String, Integer> snapshotIndex = new ConcurrentHashMap<>();
+  // updates share the read side, snapshot capture takes the write side
+  private final ReentrantReadWriteLock captureLock = new ReentrantReadWriteLock();
+  private long nextSnapshotNumber = 1;
+  private final List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+  // grouped shapes store positions relative to their groups; groups are
+  // changed under the write lock
+  private final GroupTree groups = new GroupTree();
+  private final ModelEventPublisher events;
+
+  /**
+   * A shape together with its position in the drawing order.
+   */
+  private static final class Slot {
+    private final long order;
+    private final IShape shape;
+
+    private Slot(long order, IShape shape) {
+      this.order = order;
+      this.shape = shape;
+    }
+  }
+
+  /**
+   * Constructs an empty album.
+   */
+  public ConcurrentPhotoAlbumModel() {
+    this(Flow.defaultBufferSize());
+  }
+
+  /**
+   * Constructs an empty album whose event subscribers each buffer a given
+   * number of batches.
+   * @param eventBufferCapacity Event batches buffered per subscriber.
+   */
+  public ConcurrentPhotoAlbumModel(int eventBufferCapacity) {
+    events = new ModelEventPublisher(ForkJoinPool.commonPool(), eventBufferCapacity,
+        ModelEventPublisher.BATCH_SIZE);
+  }
+
+  /**
+   * Adds a rectangle to the album.
+   * @param name Rectangle name.
+   * @param type Shape type.
+   * @param x X-coordinate.
+   * @param y Y-coordinate.
+   * @param width Rectangle width.
+   * @param height Rectangle height.
+   * @param color Rectangle color.
+   * @throws IllegalArgumentException If the name already exists.
+   */
+  @Override
+  public void createRectangle(String name, ShapeType type, double x, double y,
+                              double width, double height, Color color) {
+    addShape(new Rectangle(name, type, x, y, width, height, color));
+  }
+
+  /**
+   * Adds an oval to the album.
+   * @param name Oval name.
+   * @param type Shape type.
+   * @param x X-coordinate.
+   * @param y Y-coordinate.
+   * @param xRadius X-axis radius.
+   * @param yRadius Y-axis radius.
+   * @param color Oval color.
+   * @throws IllegalArgumentException If the name already exists.
+   */
+  @Override
+  public void createOval(String name, ShapeType type, double x, double y,
+                         double xRadius, double yRadius, Color color) {
+    addShape(new Oval(name, type, x, y, xRadius, yRadius, color));
+  }
+
+  /**
+   * Removes a shape by name.
+   * @param shapeName Shape name to remove.
+   */
+  @Override
+  public void removeShape(String shapeName) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      Slot slot = shapes.remove(shapeName);
+      if (slot != null) {
+        // waits for putShape to finish adding the shape to the drawing order
+        synchronized (slot.shape) {
+          drawOrder.remove(slot.order);
+          shapeEvent(ModelEvent.Kind.SHAPE_REMOVED, slot.shape);
+        }
+        groups.shapeRemoved(shapeName);
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Clears all shapes from the album.
+   */
+  @Override
+  public void clearShapes() {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      shapes.clear();
+      drawOrder.clear();
+      groups.clear();
+      albumEvent(ModelEvent.Kind.SHAPES_CLEARED, null, null);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Clears all snapshots.
+   */
+  @Override
+  public void clearSnapshots() {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      snapshotIndex.clear();
+      snapshots.clear();
+      snapshotIDs.clear();
+      history.clear();
+      albumEvent(ModelEvent.Kind.SNAPSHOTS_CLEARED, null, null);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Moves a shape to new coordinates.
+   * @param shapeName Shape name.
+   * @param newX New X-coordinate.
+   * @param newY New Y-coordinate.
+   */
+  @Override
+  public void moveShape(String shapeName, double newX, double newY) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      IShape shape = liveShape(shapeName);
+      if (shape != null) {
+        double[] local = groups.toLocal(shapeName, newX, newY);
+        synchronized (shape) {
+          shape.move(local[0], local[1]);
+          shapeEvent(ModelEvent.Kind.SHAPE_MOVED, shape);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Changes a shape's color.
+   * @param shapeName Shape name.
+   * @param newR Red value.
+   * @param newG Green value.
+   * @param newB Blue value.
+   */
+  @Override
+  public void changeShapeColor(String shapeName, double newR, double newG, double newB) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      IShape shape = liveShape(shapeName);
+      if (shape != null) {
+        synchronized (shape) {
+          shape.changeColor(newR, newG, newB);
+          groups.colorChanged(shapeName);
+          shapeEvent(ModelEvent.Kind.SHAPE_RECOLORED, shape);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Resizes a rectangle.
+   * @param shapeName Rectangle name.
+   * @param newWidth New width.
+   * @param newHeight New height.
+   */
+  @Override
+  public void resizeRectangle(String shapeName, double newWidth, double newHeight) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      IShape shape = liveShape(shapeName);
+      if (shape instanceof Rectangle rectangle) {
+        synchronized (rectangle) {
+          rectangle.resizeWidth(newWidth);
+          rectangle.resizeHeight(newHeight);
+          shapeEvent(ModelEvent.Kind.SHAPE_RESIZED, rectangle);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Resizes an oval.
+   * @param shapeName Oval name.
+   * @param newXRadius New x-radius.
+   * @param newYRadius New y-radius.
+   */
+  @Override
+  public void resizeOval(String shapeName, double newXRadius, double newYRadius) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      IShape shape = liveShape(shapeName);
+      if (shape instanceof Oval oval) {
+        synchronized (oval) {
+          oval.resizeXRadius(newXRadius);
+          oval.resizeYRadius(newYRadius);
+          shapeEvent(ModelEvent.Kind.SHAPE_RESIZED, oval);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Applies a batch of operations after checking all of them. The batch
+   * holds out snapshots and other updates, so it is applied atomically.
+   * @param batch Operations in order.
+   * @throws IllegalArgumentException If any operation is invalid.
+   */
+  @Override
+  public void applyBatch(MutationBatch batch) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      batch.apply(batch.resolve(this::liveShape), this::putShape, groups, events);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Groups shapes and groups that are not yet in a group.
+   * @param name New group name.
+   * @param members Names of shapes and groups to include.
+   * @throws IllegalArgumentException If the name is taken or a member is
+   *     missing or already grouped.
+   */
+  @Override
+  public void createGroup(String name, List<String> members) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      groups.create(name, members, shapes::containsKey);
+      groupEvent(ModelEvent.Kind.GROUP_CREATED, name, List.copyOf(members), 0, 0, null);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Dissolves a group, keeping its members where they are drawn.
+   * @param name Group name.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public void ungroup(String name) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      groups.ungroup(name, this::liveShape);
+      albumEvent(ModelEvent.Kind.GROUP_REMOVED, name, null);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Moves every member of a group, in constant time.
+   * @param name Group name.
+   * @param dx Distance to move right.
+   * @param dy Distance to move down.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public void moveGroup(String name, double dx, double dy) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      groups.translate(name, dx, dy);
+      groupEvent(ModelEvent.Kind.GROUP_MOVED, name, List.of(), dx, dy, null);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Recolors every member of a group, in constant time.
+   * @param name Group name.
+   * @param newR Red value.
+   * @param newG Green value.
+   * @param newB Blue value.
+   * @throws IllegalArgumentException If the group does not exist or the
+   *     color is invalid.
+   */
+  @Override
+  public void changeGroupColor(String name, double newR, double newG, double newB) {
+    Color color = new Color(newR, newG, newB);
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      groups.recolor(name, color);
+      groupEvent(ModelEvent.Kind.GROUP_RECOLORED, name, List.of(), 0, 0, color);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Lists a group's direct members.
+   * @param name Group name.
+   * @return Shape names, then group names.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public List<String> getGroupMembers(String name) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      return groups.members(name);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Takes a snapshot of the album. Waits for in-flight updates to finish
+   * and holds back new ones while the shapes are copied.
+   * @param description Snapshot description.
+   */
+  @Override
+  public void takeSnapshot(String description) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      capture(Snapshot.idFor(nextSnapshotNumber++), null, description);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Takes a snapshot under a given ID and timestamp.
+   * @param id Snapshot ID.
+   * @param timestamp Timestamp text, or null for the current time.
+   * @param description Snapshot description.
+   * @throws IllegalArgumentException If a snapshot with the ID exists.
+   */
+  @Override
+  public void restoreSnapshot(String id, String timestamp, String description) {
+    Lock lock = captureLock.writeLock();
+    lock.lock();
+    try {
+      if (snapshotIndex.containsKey(id)) {
+        throw new IllegalArgumentException("Snapshot '" + id + "' already exists.");
+      }
+      nextSnapshotNumber = Math.max(nextSnapshotNumber, Snapshot.numberOf(id) + 1);
+      capture(id, timestamp, description);
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Adds a snapshot of the current shapes; the caller holds the write lock.
+   * @param newSnapshotId Snapshot ID.
+   * @param timestamp Timestamp text, or null for the current time.
+   * @param description Snapshot description.
+   */
+  private void capture(String newSnapshotId, String timestamp, String description) {
+    List<IShape> snapshotShapes = groups.isEmpty()
+        ? new ArrayList<>(drawOrder.values())
+        : groups.resolveAll(new ArrayList<>(drawOrder.values()));
+    String formatTime = timestamp != null ? timestamp
+        : LocalDateTime.now().format(Snapshot.TIMESTAMP_FORMAT);
+    ISnapshot newSnapshot = new Snapshot(newSnapshotId,
+        formatTime, description, snapshotShapes);
+
+    int index = snapshots.size();
+    history.record(index, index == 0 ? null : snapshots.get(index - 1), newSnapshot);
+    snapshots.add(newSnapshot);
+    snapshotIDs.add(newSnapshotId);
+    // published after the list, so a lookup never finds an index the
+    // list does not have yet
+    snapshotIndex.put(newSnapshotId, index);
+    // notified under the lock so listeners see snapshots in order
+    notifySnapshotTaken(newSnapshot);
+    albumEvent(ModelEvent.Kind.SNAPSHOT_TAKEN, null, newSnapshot);
+  }
+
+  /**
+   * Registers a callback that receives every new snapshot.
+   * @param listener Callback to notify.
+   */
+  @Override
+  public void addSnapshotListener(SnapshotListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Stops notifying a callback.
+   * @param listener Callback to remove.
+   */
+  @Override
+  public void removeSnapshotListener(SnapshotListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Gets the publisher of this album's changes. Events from concurrent
+   * updates are published in the order the updates took effect.
+   * @return Event publisher.
+   */
+  @Override
+  public ModelEventPublisher events() {
+    return events;
+  }
+
+  /**
+   * Retrieves snapshot IDs.
+   * @return Live, read-only view of the snapshot IDs.
+   */
+  @Override
+  public List<String> getSnapshotIDs() {
+    return snapshotIDsView;
+  }
+
+  /**
+   * Retrieves a snapshot by ID.
+   * @param id Snapshot ID.
+   * @return Snapshot or null if not found.
+   */
+  @Override
+  public ISnapshot getSnapshotById(String id) {
+    Integer index = snapshotIndex.get(id);
+    // the snapshots may be cleared, and others taken, after the lookup
+    ISnapshot snapshot = index == null ? null : snapshots.getIfPresent(index);
+    return snapshot != null && snapshot.getSnapshotId().equals(id) ? snapshot : null;
+  }
+
+  /**
+   * Finds the position of a snapshot.
+   * @param id Snapshot ID.
+   * @return Index in the snapshot list, or -1 if not found.
+   */
+  @Override
+  public int indexOfSnapshot(String id) {
+    Integer index = snapshotIndex.get(id);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Retrieves all snapshots without locking.
+   * @return Live view of the published snapshots.
+   */
+  @Override
+  public List<ISnapshot> getSnapshots() {
+    return snapshotsView;
+  }
+
+  /**
+   * Retrieves all shapes.
+   * @return Copy of the current shapes in drawing order, as drawn when any
+   *     are grouped.
+   */
+  @Override
+  public List<IShape> getShapes() {
+    // group changes take the write side, so groups are not torn mid-resolve
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      List<IShape> current = new ArrayList<>(drawOrder.values());
+      return groups.isEmpty() ? current : groups.resolveAll(current);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves a shape by name.
+   * @param name Shape name.
+   * @return Shape or null if not found; a grouped shape is returned as
+   *     drawn.
+   */
+  @Override
+  public IShape getShape(String name) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      IShape shape = liveShape(name);
+      return shape == null || groups.isEmpty() ? shape : groups.resolve(shape);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Computes the changes between two snapshots.
+   * @param fromId ID of the older snapshot.
+   * @param toId ID of the newer snapshot.
+   * @return Added, removed and changed shapes.
+   * @throws IllegalArgumentException If either snapshot does not exist.
+   */
+  @Override
+  public SnapshotDiff diffSnapshots(String fromId, String toId) {
+    return SnapshotDiff.between(findSnapshot(fromId), findSnapshot(toId));
+  }
+
+  /**
+   * Gets the recorded changes of a shape across the snapshots.
+   * @param name Shape name.
+   * @return Timeline, or null if no snapshot has contained the shape.
+   */
+  @Override
+  public ShapeTimeline getShapeHistory(String name) {
+    return history.get(name);
+  }
+
+  /**
+   * Finds shapes across the snapshots.
+   * @param query Region, color, type and snapshot range to match.
+   * @return Matches ordered by snapshot, then drawing order.
+   */
+  @Override
+  public List<QueryMatch> query(ShapeQuery query) {
+    return query.run(getSnapshots());
+  }
+
+  /**
+   * Passes a new snapshot to every listener.
+   * @param snapshot The new snapshot.
+   */
+  private void notifySnapshotTaken(ISnapshot snapshot) {
+    for (SnapshotListener listener : listeners) {
+      listener.snapshotTaken(snapshot);
+    }
+  }
+
+  /**
+   * Records a change to a shape if anyone is subscribed; the caller holds
+   * the capture lock and the shape's monitor, and publishes the event
+   * after releasing them.
+   * @param kind What changed.
+   * @param shape Live shape.
+   */
+  private void shapeEvent(ModelEvent.Kind kind, IShape shape) {
+    if (events.isActive()) {
+      events.shapeChanged(kind, shape, groups);
+    }
+  }
+
+  /**
+   * Records a change to a group or the album if anyone is subscribed; the
+   * caller publishes it after releasing the capture lock.
+   * @param kind What changed.
+   * @param name Group name, or null.
+   * @param snapshot New snapshot, or null.
+   */
+  private void albumEvent(ModelEvent.Kind kind, String name, ISnapshot snapshot) {
+    if (events.isActive()) {
+      events.emit(kind, name, null, snapshot);
+    }
+  }
+
+  /**
+   * Records a change to a group if anyone is subscribed; the caller
+   * publishes it after releasing the capture lock.
+   * @param kind What changed.
+   * @param name Group name.
+   * @param members Direct members of a new group, or an empty list.
+   * @param dx Distance the group moved right.
+   * @param dy Distance the group moved down.
+   * @param color New color of the group, or null.
+   */
+  private void groupEvent(ModelEvent.Kind kind, String name, List<String> members,
+                          double dx, double dy, Color color) {
+    if (events.isActive()) {
+      events.groupChanged(kind, name, members, dx, dy, color);
+    }
+  }
+
+  /**
+   * Finds a snapshot by ID.
+   * @param id Snapshot ID.
+   * @return The matching snapshot.
+   * @throws IllegalArgumentException If no snapshot has the ID.
+   */
+  private ISnapshot findSnapshot(String id) {
+    ISnapshot snapshot = getSnapshotById(id);
+    if (snapshot == null) {
+      throw new IllegalArgumentException("Snapshot '" + id + "' does not exist.");
+    }
+    return snapshot;
+  }
+
+  /**
+   * Finds the stored shape, whose position is relative to its groups.
+   * @param name Shape name.
+   * @return Shape or null if not found.
+   */
+  private IShape liveShape(String name) {
+    Slot slot = shapes.get(name);
+    return slot == null ? null : slot.shape;
+  }
+
+  /**
+   * Registers a new shape under its name.
+   * @param shape Shape to add.
+   * @throws IllegalArgumentException If the name already exists.
+   */
+  private void addShape(IShape shape) {
+    Lock lock = captureLock.readLock();
+    lock.lock();
+    try {
+      synchronized (shape) {
+        putShape(shape);
+        shapeEvent(ModelEvent.Kind.SHAPE_CREATED, shape);
+      }
+    } finally {
+      lock.unlock();
+    }
+    events.publishReady();
+  }
+
+  /**
+   * Registers a new shape; the caller holds the capture lock. The name and
+   * the drawing order are updated under the shape's monitor, which
+   * removeShape also takes, so a concurrent removal cannot run between
+   * them.
+   * @param shape Shape to add.
+   * @throws IllegalArgumentException If the name already exists.
+   */
+  private void putShape(IShape shape) {
+    if (groups.contains(shape.getName())) {
+      throw new IllegalArgumentException("Group with name '" + shape.getName()
+          + "' already exists.");
+    }
+    Slot slot = new Slot(nextShapeOrder.getAndIncrement(), shape);
+    synchronized (shape) {
+      if (shapes.putIfAbsent(shape.getName(), slot) != null) {
+        throw new IllegalArgumentException("Shape with name '" + shape.getName()
+            + "' already exists.");
+      }
+      drawOrder.put(slot.order, shape);
+    }
+  }
+}
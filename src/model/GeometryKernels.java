@@ -0,0 +1,138 @@
+package model;
+
+/**
+ * Bulk geometry over coordinates stored in primitive arrays, one array per
+ * coordinate. Each kernel is a single counted loop without allocation, so
+ * a pass over many boxes reads contiguous memory instead of making a
+ * virtual call per shape, and the JIT may unroll or vectorize the simpler
+ * loops. The kernels serve read-only passes over a snapshot's packed boxes
+ * (bounds, culling and grid bucketing); moving or scaling shapes still
+ * updates each shape object, or a whole group in constant time.
+ */
+public final class GeometryKernels {
+
+  private GeometryKernels() {
+  }
+
+  /**
+   * Adds two coordinate arrays element by element, e.g. positions and
+   * extents into far edges.
+   * @param a First operand.
+   * @param b Second operand.
+   * @param dst Destination; may be either operand.
+   * @param n Number of coordinates.
+   */
+  public static void add(double[] a, double[] b, double[] dst, int n) {
+    for (int i = 0; i < n; i++) {
+      dst[i] = a[i] + b[i];
+    }
+  }
+
+  /**
+   * Finds the smallest coordinate.
+   * @param values Coordinates.
+   * @param n Number of coordinates.
+   * @return Minimum, or positive infinity if n is 0.
+   */
+  public static double min(double[] values, int n) {
+    double min = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      min = Math.min(min, values[i]);
+    }
+    return min;
+  }
+
+  /**
+   * Finds the largest coordinate.
+   * @param values Coordinates.
+   * @param n Number of coordinates.
+   * @return Maximum, or negative infinity if n is 0.
+   */
+  public static double max(double[] values, int n) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      max = Math.max(max, values[i]);
+    }
+    return max;
+  }
+
+  /**
+   * Computes the union of boxes.
+   * @param minX Left edges.
+   * @param minY Top edges.
+   * @param maxX Right edges.
+   * @param maxY Bottom edges.
+   * @param n Number of boxes.
+   * @return Box covering all of them, or null if n is 0.
+   */
+  public static Bounds union(double[] minX, double[] minY, double[] maxX, double[] maxY,
+                             int n) {
+    if (n == 0) {
+      return null;
+    }
+    return new Bounds(min(minX, n), min(minY, n), max(maxX, n), max(maxY, n));
+  }
+
+  /**
+   * Marks the boxes that overlap an area, by the same rule as
+   * {@link Bounds#intersects}.
+   * @param minX Left edges.
+   * @param minY Top edges.
+   * @param maxX Right edges.
+   * @param maxY Bottom edges.
+   * @param n Number of boxes.
+   * @param area Area to test against.
+   * @param mask Receives 1 for each overlapping box and 0 otherwise.
+   * @return Number of overlapping boxes.
+   */
+  public static int intersects(double[] minX, double[] minY, double[] maxX, double[] maxY,
+                               int n, Bounds area, byte[] mask) {
+    double left = area.getMinX();
+    double top = area.getMinY();
+    double right = area.getMaxX();
+    double bottom = area.getMaxY();
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      // non-short-circuit & keeps the loop free of branches
+      boolean hit = minX[i] < right & left < maxX[i] & minY[i] < bottom & top < maxY[i];
+      mask[i] = (byte) (hit ? 1 : 0);
+      count += mask[i];
+    }
+    return count;
+  }
+
+  /**
+   * Lists the positions of marked elements.
+   * @param mask Flags from a kernel such as {@link #intersects}.
+   * @param n Number of flags.
+   * @param count Number of set flags.
+   * @return Positions of the set flags in ascending order.
+   */
+  public static int[] compact(byte[] mask, int n, int count) {
+    int[] positions = new int[count];
+    int next = 0;
+    for (int i = 0; i < n && next < count; i++) {
+      positions[next] = i;
+      next += mask[i];
+    }
+    return positions;
+  }
+
+  /**
+   * Maps coordinates to grid cells: {@code floor((src[i] - origin) / cellSize)}
+   * clamped to {@code [0, cells - 1]}.
+   * @param src Coordinates.
+   * @param dst Receives the cell of each coordinate.
+   * @param n Number of coordinates.
+   * @param origin Coordinate where cell 0 starts.
+   * @param cellSize Width of a cell; must be positive.
+   * @param cells Number of cells.
+   */
+  public static void cells(double[] src, int[] dst, int n, double origin, double cellSize,
+                           int cells) {
+    double last = cells - 1;
+    for (int i = 0; i < n; i++) {
+      dst[i] = (int) Math.max(0, Math.min(last, Math.floor((src[i] - origin) / cellSize)));
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Named groups of shapes and other groups. A group stores a translation
+ * and an optional color instead of changing its members, so moving or
+ * recoloring a group costs the same however many shapes it holds.
+ * Grouped shapes keep coordinates relative to their groups; their drawn
+ * state is resolved when a snapshot is taken or a shape is read. Colors
+ * are time-stamped so the most recent of a shape's own color and its
+ * groups' colors wins, exactly as if every change had been applied to the
+ * shapes directly.
+ */
+class GroupTree {
+  private final Map<String, Node> groups = new HashMap<>();
+  private final Map<String, Node> groupOfShape = new ConcurrentHashMap<>();
+  // when each grouped shape last had its own color changed
+  private final Map<String, Long> colorStamps = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+
+  /**
+   * A group with its members and pending transform.
+   */
+  private static final class Node {
+    private final String name;
+    private Node parent;
+    private final Set<String> shapes = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final Set<Node> children = new LinkedHashSet<>();
+    private double dx;
+    private double dy;
+    private Color color;
+    private long colorStamp;
+
+    private Node(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Checks whether any group exists.
+   * @return True if there are no groups.
+   */
+  boolean isEmpty() {
+    return groups.isEmpty();
+  }
+
+  /**
+   * Checks whether a group exists.
+   * @param name Group name.
+   * @return True if the group exists.
+   */
+  boolean contains(String name) {
+    return groups.containsKey(name);
+  }
+
+  /**
+   * Creates a group from shapes and groups that are not yet grouped.
+   * @param name New group name.
+   * @param members Names of shapes and groups to include.
+   * @param shapeExists Checks whether a shape exists.
+   * @throws IllegalArgumentException If the name is taken or a member is
+   *     missing, repeated or already in a group.
+   */
+  void create(String name, List<String> members, Predicate<String> shapeExists) {
+    if (name == null || name.trim().isEmpty()) {
+      throw new IllegalArgumentException("Group name cannot be null or empty.");
+    }
+    if (groups.containsKey(name) || shapeExists.test(name)) {
+      throw new IllegalArgumentException("Name '" + name + "' is already in use.");
+    }
+    if (members.isEmpty()) {
+      throw new IllegalArgumentException("A group needs at least one member.");
+    }
+    if (new LinkedHashSet<>(members).size() != members.size()) {
+      throw new IllegalArgumentException("Group members must be distinct.");
+    }
+    for (String member : members) {
+      Node group = groups.get(member);
+      if (group != null ? group.parent != null : groupOfShape.containsKey(member)) {
+        throw new IllegalArgumentException("'" + member + "' is already in a group.");
+      }
+      if (group == null && !shapeExists.test(member)) {
+        throw new IllegalArgumentException("'" + member + "' does not exist.");
+      }
+    }
+    Node node = new Node(name);
+    for (String member : members) {
+      Node group = groups.get(member);
+      if (group != null) {
+        group.parent = node;
+        node.children.add(group);
+      } else {
+        node.shapes.add(member);
+        groupOfShape.put(member, node);
+      }
+    }
+    groups.put(name, node);
+  }
+
+  /**
+   * Dissolves a group. Its transform is applied to its members, which move
+   * up to the group's parent, so nothing changes on screen.
+   * @param name Group name.
+   * @param shapes Finds a live shape by name.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  void ungroup(String name, Function<String, IShape> shapes) {
+    Node node = find(name);
+    for (String shapeName : node.shapes) {
+      IShape shape = shapes.apply(shapeName);
+      shape.move(shape.getX() + node.dx, shape.getY() + node.dy);
+      long stamp = colorStamps.getOrDefault(shapeName, 0L);
+      if (node.color != null && node.colorStamp > stamp) {
+        shape.changeColor(node.color.getR(), node.color.getG(), node.color.getB());
+        stamp = node.colorStamp;
+      }
+      if (node.parent == null) {
+        groupOfShape.remove(shapeName);
+        colorStamps.remove(shapeName);
+      } else {
+        node.parent.shapes.add(shapeName);
+        groupOfShape.put(shapeName, node.parent);
+        colorStamps.put(shapeName, stamp);
+      }
+    }
+    for (Node child : node.children) {
+      child.dx += node.dx;
+      child.dy += node.dy;
+      if (node.color != null && node.colorStamp > child.colorStamp) {
+        child.color = node.color;
+        child.colorStamp = node.colorStamp;
+      }
+      child.parent = node.parent;
+      if (node.parent != null) {
+        node.parent.children.add(child);
+      }
+    }
+    if (node.parent != null) {
+      node.parent.children.remove(node);
+    }
+    groups.remove(name);
+  }
+
+  /**
+   * Moves every member of a group.
+   * @param name Group name.
+   * @param dx Distance to move right.
+   * @param dy Distance to move down.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  void translate(String name, double dx, double dy) {
+    Node node = find(name);
+    node.dx += dx;
+    node.dy += dy;
+  }
+
+  /**
+   * Recolors every member of a group.
+   * @param name Group name.
+   * @param color New color.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  void recolor(String name, Color color) {
+    Node node = find(name);
+    node.color = color;
+    node.colorStamp = clock.incrementAndGet();
+  }
+
+  /**
+   * Lists a group's direct members.
+   * @param name Group name.
+   * @return Shape names, then group names.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  List<String> members(String name) {
+    Node node = find(name);
+    List<String> members;
+    synchronized (node.shapes) {
+      members = new ArrayList<>(node.shapes);
+    }
+    for (Node child : node.children) {
+      members.add(child.name);
+    }
+    return members;
+  }
+
+  /**
+   * Converts a position for a shape into the coordinates it stores.
+   * @param shapeName Shape name.
+   * @param x Position on the canvas.
+   * @param y Position on the canvas.
+   * @return Stored coordinates; unchanged for ungrouped shapes.
+   */
+  double[] toLocal(String shapeName, double x, double y) {
+    for (Node node = groupOfShape.get(shapeName); node != null; node = node.parent) {
+      x -= node.dx;
+      y -= node.dy;
+    }
+    return new double[] {x, y};
+  }
+
+  /**
+   * Records that a shape's own color just changed.
+   * @param shapeName Shape name.
+   */
+  void colorChanged(String shapeName) {
+    if (groupOfShape.containsKey(shapeName)) {
+      colorStamps.put(shapeName, clock.incrementAndGet());
+    }
+  }
+
+  /**
+   * Gets the state a shape is drawn with.
+   * @param shape Live shape.
+   * @return The shape itself if ungrouped, else a copy with its groups'
+   *     transforms applied.
+   */
+  IShape resolve(IShape shape) {
+    Node node = groupOfShape.get(shape.getName());
+    if (node == null) {
+      return shape;
+    }
+    double dx = 0;
+    double dy = 0;
+    long stamp = colorStamps.getOrDefault(shape.getName(), 0L);
+    Color color = null;
+    for (; node != null; node = node.parent) {
+      dx += node.dx;
+      dy += node.dy;
+      if (node.color != null && node.colorStamp > stamp) {
+        stamp = node.colorStamp;
+        color = node.color;
+      }
+    }
+    IShape resolved = shape.copy();
+    resolved.move(shape.getX() + dx, shape.getY() + dy);
+    if (color != null) {
+      resolved.changeColor(color.getR(), color.getG(), color.getB());
+    }
+    return resolved;
+  }
+
+  /**
+   * Resolves a list of shapes.
+   * @param shapes Live shapes.
+   * @return Shapes as drawn.
+   */
+  List<IShape> resolveAll(List<IShape> shapes) {
+    List<IShape> resolved = new ArrayList<>(shapes.size());
+    for (IShape shape : shapes) {
+      resolved.add(resolve(shape));
+    }
+    return resolved;
+  }
+
+  /**
+   * Drops a removed shape from its group.
+   * @param shapeName Shape name.
+   */
+  void shapeRemoved(String shapeName) {
+    Node node = groupOfShape.remove(shapeName);
+    if (node != null) {
+      node.shapes.remove(shapeName);
+      colorStamps.remove(shapeName);
+    }
+  }
+
+  /**
+   * Removes every group.
+   */
+  void clear() {
+    groups.clear();
+    groupOfShape.clear();
+    colorStamps.clear();
+  }
+
+  /**
+   * Finds a group by name.
+   * @param name Group name.
+   * @return The group.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  private Node find(String name) {
+    Node node = groups.get(name);
+    if (node == null) {
+      throw new IllegalArgumentException("Group '" + name + "' does not exist.");
+    }
+    return node;
+  }
+}
@@ -83,17 +83,99 @@ public interface IPhotoalbum {
   void changeShapeColor(String name, double newR, double newG, double newB);
 
   /**
-   * Captures a snapshot with a description.
+   * Applies a batch of operations. The whole batch is checked first, so
+   * either every operation is applied or none is.
+   * @param batch Operations in order.
+   * @throws IllegalArgumentException If any operation is invalid.
+   */
+  void applyBatch(MutationBatch batch);
+
+  /**
+   * Groups shapes and groups that are not yet in a group. Groups can be
+   * nested, and moving or recoloring one takes constant time however many
+   * shapes it holds.
+   * @param name New group name, distinct from every shape and group name.
+   * @param members Names of shapes and groups to include.
+   * @throws IllegalArgumentException If the name is taken or a member is
+   *     missing or already grouped.
+   */
+  void createGroup(String name, List<String> members);
+
+  /**
+   * Dissolves a group, keeping its members where they are drawn. Members
+   * join the group's parent, if it has one.
+   * @param name Group name.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  void ungroup(String name);
+
+  /**
+   * Moves every member of a group.
+   * @param name Group name.
+   * @param dx Distance to move right.
+   * @param dy Distance to move down.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  void moveGroup(String name, double dx, double dy);
+
+  /**
+   * Changes the color of every member of a group.
+   * @param name Group name.
+   * @param newR New red value (0-255).
+   * @param newG New green value (0-255).
+   * @param newB New blue value (0-255).
+   * @throws IllegalArgumentException If the group does not exist or the
+   *     color is invalid.
+   */
+  void changeGroupColor(String name, double newR, double newG, double newB);
+
+  /**
+   * Lists a group's direct members.
+   * @param name Group name.
+   * @return Shape names, then group names.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  List<String> getGroupMembers(String name);
+
+  /**
+   * Captures a snapshot with a description. Snapshots are numbered in the
+   * order they are taken, so IDs are unique and the same script always
+   * produces the same IDs.
    * @param description Snapshot description.
    */
   void takeSnapshot(String description);
 
+  /**
+   * Captures a snapshot under a given ID and timestamp, as when loading an
+   * exported album. Later snapshots are numbered past any restored ID of
+   * the form snapshot-N, so IDs stay unique.
+   * @param id Snapshot ID.
+   * @param timestamp Timestamp text, or null for the current time.
+   * @param description Snapshot description.
+   * @throws IllegalArgumentException If a snapshot with the ID exists.
+   */
+  void restoreSnapshot(String id, String timestamp, String description);
+
   /**
    * Gets all snapshot IDs.
    * @return List of snapshot IDs.
    */
   List<String> getSnapshotIDs();
 
+  /**
+   * Retrieves a snapshot by ID in constant time.
+   * @param id Snapshot ID.
+   * @return The matching snapshot, or null if none exists.
+   */
+  ISnapshot getSnapshotById(String id);
+
+  /**
+   * Finds the position of a snapshot in the list returned by getSnapshots.
+   * @param id Snapshot ID.
+   * @return Index of the snapshot, or -1 if none exists.
+   */
+  int indexOfSnapshot(String id);
+
   /**
    * Gets all snapshots.
    * @return List of snapshots.
@@ -112,4 +194,47 @@ public interface IPhotoalbum {
    * @return The matching shape.
    */
   IShape getShape(String name);
+
+  /**
+   * Computes the changes between two snapshots.
+   * @param fromId ID of the older snapshot.
+   * @param toId ID of the newer snapshot.
+   * @return Added, removed and changed shapes.
+   * @throws IllegalArgumentException If either snapshot does not exist.
+   */
+  SnapshotDiff diffSnapshots(String fromId, String toId);
+
+  /**
+   * Gets the recorded changes of a shape across the snapshots.
+   * @param name Shape name.
+   * @return Timeline, or null if no snapshot has contained the shape.
+   */
+  ShapeTimeline getShapeHistory(String name);
+
+  /**
+   * Finds shapes across the snapshots.
+   * @param query Region, color, type and snapshot range to match.
+   * @return Matches ordered by snapshot, then drawing order.
+   */
+  List<QueryMatch> query(ShapeQuery query);
+
+  /**
+   * Gets the publisher of this album's changes: shapes created, moved,
+   * recolored, resized and removed, group changes and snapshots, delivered
+   * in batches with per-subscriber backpressure.
+   * @return Event publisher.
+   */
+  ModelEventPublisher events();
+
+  /**
+   * Registers a callback that receives every snapshot taken from now on.
+   * @param listener Callback to notify.
+   */
+  void addSnapshotListener(SnapshotListener listener);
+
+  /**
+   * Stops notifying a callback registered with addSnapshotListener.
+   * @param listener Callback to remove; ignored if not registered.
+   */
+  void removeSnapshotListener(SnapshotListener listener);
 }
@@ -57,6 +57,13 @@ public interface IShape {
    */
   void changeColor(double r, double g, double b);
 
+  /**
+   * Computes the area covered by this shape on the canvas.
+   *
+   * @return the bounding box of the shape
+   */
+  Bounds getBounds();
+
   /**
    * Creates a duplicate of this shape instance.
    *
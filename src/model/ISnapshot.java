@@ -14,6 +14,13 @@ public interface ISnapshot {
    */
   String getSnapshotId();
 
+  /**
+   * Provides the time this snapshot was taken.
+   *
+   * @return the formatted timestamp
+   */
+  String getTimestamp();
+
   /**
    * Provides a textual description of this snapshot.
    *
@@ -27,4 +34,27 @@ public interface ISnapshot {
    * @return a list of shapes in the snapshot
    */
   List<IShape> getShapes();
+
+  /**
+   * Finds a shape in this snapshot by name.
+   *
+   * @param name the shape name
+   * @return the matching shape, or null if the snapshot has none
+   */
+  IShape getShape(String name);
+
+  /**
+   * Computes a hash of the shapes in this snapshot. Snapshots that draw
+   * the same shapes in the same order have the same fingerprint.
+   *
+   * @return the content fingerprint
+   */
+  long getFingerprint();
+
+  /**
+   * Provides the precomputed index used by queries over this snapshot.
+   *
+   * @return the snapshot summary
+   */
+  SnapshotSummary getSummary();
 }
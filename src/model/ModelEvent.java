@@ -0,0 +1,158 @@
+package model;
+
+import java.util.List;
+
+/**
+ * One change to an album, as delivered by {@link ModelEventPublisher}.
+ * Group transforms are reported once for the group rather than once per
+ * member shape: GROUP_CREATED lists the direct members, GROUP_MOVED
+ * carries the offset and GROUP_RECOLORED the color, so a subscriber that
+ * tracks shapes applies them to every shape in the group and its nested
+ * groups.
+ */
+public final class ModelEvent {
+
+  /**
+   * What changed.
+   */
+  public enum Kind {
+    SHAPE_CREATED,
+    SHAPE_MOVED,
+    SHAPE_RECOLORED,
+    SHAPE_RESIZED,
+    SHAPE_REMOVED,
+    SHAPES_CLEARED,
+    GROUP_CREATED,
+    GROUP_MOVED,
+    GROUP_RECOLORED,
+    GROUP_REMOVED,
+    SNAPSHOT_TAKEN,
+    SNAPSHOTS_CLEARED
+  }
+
+  private final Kind kind;
+  private final long sequence;
+  private final String name;
+  private final IShape shape;
+  private final ISnapshot snapshot;
+  private final List<String> members;
+  private final double dx;
+  private final double dy;
+  private final Color color;
+
+  /**
+   * Constructs an event.
+   * @param kind What changed.
+   * @param sequence Position among all events of the album.
+   * @param name Shape or group name, or null.
+   * @param shape Shape state after the change, or null.
+   * @param snapshot New snapshot, or null.
+   */
+  ModelEvent(Kind kind, long sequence, String name, IShape shape, ISnapshot snapshot) {
+    this(kind, sequence, name, shape, snapshot, List.of(), 0, 0, null);
+  }
+
+  /**
+   * Constructs an event with a group payload.
+   * @param kind What changed.
+   * @param sequence Position among all events of the album.
+   * @param name Shape or group name, or null.
+   * @param shape Shape state after the change, or null.
+   * @param snapshot New snapshot, or null.
+   * @param members Direct members of a new group.
+   * @param dx Distance a group moved right.
+   * @param dy Distance a group moved down.
+   * @param color New color of a group, or null.
+   */
+  ModelEvent(Kind kind, long sequence, String name, IShape shape, ISnapshot snapshot,
+             List<String> members, double dx, double dy, Color color) {
+    this.kind = kind;
+    this.sequence = sequence;
+    this.name = name;
+    this.shape = shape;
+    this.snapshot = snapshot;
+    this.members = members;
+    this.dx = dx;
+    this.dy = dy;
+    this.color = color;
+  }
+
+  /**
+   * Gets what changed.
+   * @return Event kind.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the position of the event among the album's published events.
+   * Numbers are consecutive, so a subscriber can tell it missed none.
+   * @return Sequence number.
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Gets the shape or group the event is about.
+   * @return Name, or null for snapshot and clear events.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets a copy of the shape as drawn after the change. For removals this
+   * is the last state before removal.
+   * @return Shape state, or null for group, snapshot and clear events.
+   */
+  public IShape getShape() {
+    return shape;
+  }
+
+  /**
+   * Gets the snapshot that was taken.
+   * @return Snapshot for SNAPSHOT_TAKEN events, otherwise null.
+   */
+  public ISnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets the direct members of a new group, shapes and groups alike.
+   * @return Member names for GROUP_CREATED events, otherwise empty.
+   */
+  public List<String> getMembers() {
+    return members;
+  }
+
+  /**
+   * Gets how far a group moved right.
+   * @return Offset for GROUP_MOVED events, otherwise 0.
+   */
+  public double getDx() {
+    return dx;
+  }
+
+  /**
+   * Gets how far a group moved down.
+   * @return Offset for GROUP_MOVED events, otherwise 0.
+   */
+  public double getDy() {
+    return dy;
+  }
+
+  /**
+   * Gets the color a group's members were given.
+   * @return Color for GROUP_RECOLORED events, otherwise null.
+   */
+  public Color getColor() {
+    return color;
+  }
+
+  @Override
+  public String toString() {
+    return "#" + sequence + " " + kind + (name == null ? "" : " " + name);
+  }
+}
@@ -0,0 +1,247 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes an album's changes as batches of {@link ModelEvent}s.
+ * Events are collected until a batch is full or a snapshot is taken, then
+ * handed to every subscriber in order. Each subscriber has its own bounded
+ * buffer and receives batches only as fast as it requests them; when a
+ * buffer is full, batches wait in a bounded queue and then the album's
+ * writers wait, so a slow subscriber slows the writers instead of losing
+ * events. Batches are submitted only after the album has released its
+ * locks, so subscribers may read the album. They are called on another
+ * thread and must not change it.
+ * No events are built while nobody is subscribed.
+ */
+public final class ModelEventPublisher implements Flow.Publisher<List<ModelEvent>>,
+    AutoCloseable {
+  /** Events per batch. */
+  public static final int BATCH_SIZE = 256;
+
+  private final SubmissionPublisher<List<ModelEvent>> publisher;
+  private final int batchSize;
+  private final int maxReady;
+  // batches waiting to be submitted, added in sequence order
+  private final Queue<List<ModelEvent>> ready = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger readyCount = new AtomicInteger();
+  // held by the one thread submitting batches
+  private final ReentrantLock submitLock = new ReentrantLock();
+  private List<ModelEvent> pending = new ArrayList<>();
+  private long nextSequence;
+  private boolean closed;
+  // whether anyone was subscribed when last checked, read without locking
+  private volatile boolean active;
+
+  /**
+   * Creates a publisher that delivers on the common fork/join pool.
+   */
+  ModelEventPublisher() {
+    this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), BATCH_SIZE);
+  }
+
+  /**
+   * Creates a publisher.
+   * @param executor Runs subscriber callbacks.
+   * @param bufferCapacity Batches buffered per subscriber.
+   * @param batchSize Events per batch.
+   */
+  ModelEventPublisher(Executor executor, int bufferCapacity, int batchSize) {
+    this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    this.batchSize = batchSize;
+    this.maxReady = bufferCapacity;
+  }
+
+  /**
+   * Adds a subscriber. It receives batches published from now on.
+   * @param subscriber Receives event batches.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super List<ModelEvent>> subscriber) {
+    submitLock.lock();
+    try {
+      publisher.subscribe(subscriber);
+      active = true;
+    } finally {
+      submitLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of subscribers.
+   * @return Subscriber count.
+   */
+  public int getSubscriberCount() {
+    return publisher.getNumberOfSubscribers();
+  }
+
+  /**
+   * Publishes the events collected so far without waiting for a full batch.
+   * Must not be called while holding any of the album's locks.
+   */
+  public void flush() {
+    synchronized (this) {
+      if (!pending.isEmpty()) {
+        enqueue();
+      }
+    }
+    publishReady(true);
+  }
+
+  /**
+   * Publishes any remaining events and completes every subscription.
+   */
+  @Override
+  public void close() {
+    flush();
+    synchronized (this) {
+      closed = true;
+    }
+    submitLock.lock();
+    try {
+      publisher.close();
+    } finally {
+      submitLock.unlock();
+    }
+  }
+
+  /**
+   * Hands completed batches to the subscribers, in order. The album calls
+   * this after releasing its locks, so a subscriber that is slow, or that
+   * reads the album, never holds up the album's locks. One thread submits
+   * at a time; others leave their batches to it and return, unless too many
+   * batches are waiting, in which case they wait their turn.
+   */
+  void publishReady() {
+    publishReady(false);
+  }
+
+  /**
+   * Hands completed batches to the subscribers.
+   * @param wait True to wait for a thread that is already submitting.
+   */
+  private void publishReady(boolean wait) {
+    while (hasReady()) {
+      if (wait || readyCount() > maxReady) {
+        submitLock.lock();
+      } else if (!submitLock.tryLock()) {
+        // the submitting thread rechecks after unlocking
+        return;
+      }
+      try {
+        for (List<ModelEvent> batch = pollReady(); batch != null; batch = pollReady()) {
+          if (!publisher.isClosed()) {
+            // blocks while a subscriber's buffer is full
+            publisher.submit(batch);
+          }
+        }
+        // asked here rather than by the album, since the publisher's own
+        // lock is held while a submit waits
+        active = publisher.hasSubscribers();
+      } finally {
+        submitLock.unlock();
+      }
+    }
+  }
+
+  private boolean hasReady() {
+    return !ready.isEmpty();
+  }
+
+  private int readyCount() {
+    return readyCount.get();
+  }
+
+  private List<ModelEvent> pollReady() {
+    List<ModelEvent> batch = ready.poll();
+    if (batch != null) {
+      readyCount.decrementAndGet();
+    }
+    return batch;
+  }
+
+  /**
+   * Queues a completed batch; the caller holds this object's monitor, so
+   * batches are queued in sequence order.
+   */
+  private void enqueue() {
+    ready.add(pending);
+    readyCount.incrementAndGet();
+    pending = new ArrayList<>();
+  }
+
+  /**
+   * Checks whether anyone is listening, so callers can skip building
+   * events.
+   * @return True if there are subscribers.
+   */
+  boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Adds an event about a shape, with a copy of its drawn state.
+   * @param kind What changed.
+   * @param shape Live shape.
+   * @param groups Groups of the album, to resolve grouped shapes.
+   */
+  void shapeChanged(ModelEvent.Kind kind, IShape shape, GroupTree groups) {
+    IShape drawn = groups.resolve(shape);
+    emit(kind, shape.getName(), drawn == shape ? shape.copy() : drawn, null);
+  }
+
+  /**
+   * Adds an event about a group with its payload.
+   * @param kind What changed.
+   * @param name Group name.
+   * @param members Direct members of a new group, or an empty list.
+   * @param dx Distance a group moved right.
+   * @param dy Distance a group moved down.
+   * @param color New color of a group, or null.
+   */
+  synchronized void groupChanged(ModelEvent.Kind kind, String name, List<String> members,
+                                 double dx, double dy, Color color) {
+    if (closed) {
+      return;
+    }
+    add(new ModelEvent(kind, nextSequence++, name, null, null, members, dx, dy, color));
+  }
+
+  /**
+   * Adds an event, and queues the batch for {@link #publishReady} if it is
+   * full or a snapshot was taken. Never waits for subscribers, so it is
+   * safe to call under the album's locks.
+   * @param kind What changed.
+   * @param name Shape or group name, or null.
+   * @param shape Shape state, or null.
+   * @param snapshot New snapshot, or null.
+   */
+  synchronized void emit(ModelEvent.Kind kind, String name, IShape shape, ISnapshot snapshot) {
+    if (closed) {
+      return;
+    }
+    add(new ModelEvent(kind, nextSequence++, name, shape, snapshot));
+  }
+
+  /**
+   * Appends an event, queueing the batch if it is full or ends with a
+   * snapshot. The caller holds this publisher's monitor and has checked
+   * that it is open.
+   * @param event Event to append.
+   */
+  private void add(ModelEvent event) {
+    pending.add(event);
+    if (pending.size() >= batchSize || event.getKind() == ModelEvent.Kind.SNAPSHOT_TAKEN) {
+      enqueue();
+    }
+  }
+}
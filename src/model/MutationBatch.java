@@ -0,0 +1,303 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A list of shape operations applied to an album in one call. Operations
+ * are stored as parallel primitive arrays, and each distinct shape name is
+ * stored once, so a batch of many moves costs no per-operation objects
+ * and the album resolves every name only once.
+ */
+public final class MutationBatch {
+  /**
+   * Kinds of operation, with the number of numeric arguments each takes.
+   */
+  public enum Op {
+    MOVE(2, ModelEvent.Kind.SHAPE_MOVED),
+    RESIZE(2, ModelEvent.Kind.SHAPE_RESIZED),
+    COLOR(3, ModelEvent.Kind.SHAPE_RECOLORED),
+    CREATE_RECTANGLE(7, ModelEvent.Kind.SHAPE_CREATED),
+    CREATE_OVAL(7, ModelEvent.Kind.SHAPE_CREATED);
+
+    private static final Op[] VALUES = values();
+    private final int arity;
+    private final ModelEvent.Kind event;
+
+    Op(int arity, ModelEvent.Kind event) {
+      this.arity = arity;
+      this.event = event;
+    }
+  }
+
+  private final List<String> names = new ArrayList<>();
+  private final Map<String, Integer> nameIds = new HashMap<>();
+  private byte[] ops = new byte[16];
+  private int[] targets = new int[16];
+  private double[] args = new double[64];
+  private int size;
+  private int argCount;
+
+  /**
+   * Adds a move.
+   * @param name Shape name.
+   * @param x New X-coordinate.
+   * @param y New Y-coordinate.
+   * @return This batch.
+   */
+  public MutationBatch move(String name, double x, double y) {
+    add(Op.MOVE, name);
+    return push(x).push(y);
+  }
+
+  /**
+   * Adds a resize. Rectangles take a width and height, ovals two radii.
+   * @param name Shape name.
+   * @param first New width or x-radius.
+   * @param second New height or y-radius.
+   * @return This batch.
+   */
+  public MutationBatch resize(String name, double first, double second) {
+    add(Op.RESIZE, name);
+    return push(first).push(second);
+  }
+
+  /**
+   * Adds a color change.
+   * @param name Shape name.
+   * @param r Red value.
+   * @param g Green value.
+   * @param b Blue value.
+   * @return This batch.
+   */
+  public MutationBatch color(String name, double r, double g, double b) {
+    add(Op.COLOR, name);
+    return push(r).push(g).push(b);
+  }
+
+  /**
+   * Adds a new rectangle.
+   * @param name Rectangle name.
+   * @param x X-coordinate.
+   * @param y Y-coordinate.
+   * @param width Rectangle width.
+   * @param height Rectangle height.
+   * @param color Rectangle color.
+   * @return This batch.
+   */
+  public MutationBatch createRectangle(String name, double x, double y,
+                                       double width, double height, Color color) {
+    add(Op.CREATE_RECTANGLE, name);
+    return push(x).push(y).push(width).push(height)
+        .push(color.getR()).push(color.getG()).push(color.getB());
+  }
+
+  /**
+   * Adds a new oval.
+   * @param name Oval name.
+   * @param x X-coordinate.
+   * @param y Y-coordinate.
+   * @param xRadius X-axis radius.
+   * @param yRadius Y-axis radius.
+   * @param color Oval color.
+   * @return This batch.
+   */
+  public MutationBatch createOval(String name, double x, double y,
+                                  double xRadius, double yRadius, Color color) {
+    add(Op.CREATE_OVAL, name);
+    return push(x).push(y).push(xRadius).push(yRadius)
+        .push(color.getR()).push(color.getG()).push(color.getB());
+  }
+
+  /**
+   * Gets the number of operations.
+   * @return Operation count.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every operation so the batch can be refilled.
+   */
+  public void clear() {
+    names.clear();
+    nameIds.clear();
+    size = 0;
+    argCount = 0;
+  }
+
+  /**
+   * Looks up every name once and checks the whole batch against the
+   * album before anything is changed.
+   * @param lookup Finds a current shape by name.
+   * @return The shape for each name ID; null for shapes the batch creates.
+   * @throws IllegalArgumentException If any operation is invalid, naming
+   *     the first one that is.
+   */
+  IShape[] resolve(Function<String, IShape> lookup) {
+    IShape[] shapes = new IShape[names.size()];
+    // type of each name as the batch runs: existing shapes, then creations
+    ShapeType[] types = new ShapeType[names.size()];
+    for (int id = 0; id < shapes.length; id++) {
+      shapes[id] = lookup.apply(names.get(id));
+      types[id] = shapes[id] == null ? null : shapes[id].getShapeType();
+    }
+    int arg = 0;
+    for (int i = 0; i < size; i++) {
+      Op op = Op.VALUES[ops[i]];
+      int id = targets[i];
+      String name = names.get(id);
+      switch (op) {
+        case CREATE_RECTANGLE, CREATE_OVAL -> {
+          if (name == null || name.trim().isEmpty()) {
+            throw invalid(i, "Name cannot be null or empty.");
+          }
+          if (types[id] != null) {
+            throw invalid(i, "Shape with name '" + name + "' already exists.");
+          }
+          checkPositive(i, args[arg + 2], args[arg + 3]);
+          checkColor(i, arg + 4);
+          types[id] = op == Op.CREATE_RECTANGLE ? ShapeType.RECTANGLE : ShapeType.OVAL;
+        }
+        default -> {
+          if (types[id] == null) {
+            throw invalid(i, "Shape '" + name + "' does not exist.");
+          }
+          if (op == Op.RESIZE) {
+            checkPositive(i, args[arg], args[arg + 1]);
+          } else if (op == Op.COLOR) {
+            checkColor(i, arg);
+          }
+        }
+      }
+      arg += op.arity;
+    }
+    return shapes;
+  }
+
+  /**
+   * Applies a batch that has passed {@link #resolve}.
+   * @param shapes Shapes returned by resolve; filled in as shapes are created.
+   * @param add Registers a newly created shape with the album.
+   * @param groups The album's groups, so grouped shapes land where asked.
+   * @param events Receives an event per operation.
+   */
+  void apply(IShape[] shapes, Consumer<IShape> add, GroupTree groups,
+             ModelEventPublisher events) {
+    boolean publish = events.isActive();
+    int arg = 0;
+    for (int i = 0; i < size; i++) {
+      Op op = Op.VALUES[ops[i]];
+      int id = targets[i];
+      double a = args[arg];
+      double b = args[arg + 1];
+      switch (op) {
+        case MOVE -> {
+          double[] local = groups.toLocal(names.get(id), a, b);
+          shapes[id].move(local[0], local[1]);
+        }
+        case RESIZE -> {
+          if (shapes[id] instanceof Rectangle rectangle) {
+            rectangle.resizeWidth(a);
+            rectangle.resizeHeight(b);
+          } else if (shapes[id] instanceof Oval oval) {
+            oval.resizeXRadius(a);
+            oval.resizeYRadius(b);
+          }
+        }
+        case COLOR -> {
+          shapes[id].changeColor(a, b, args[arg + 2]);
+          groups.colorChanged(names.get(id));
+        }
+        case CREATE_RECTANGLE, CREATE_OVAL -> {
+          Color color = new Color(args[arg + 4], args[arg + 5], args[arg + 6]);
+          shapes[id] = op == Op.CREATE_RECTANGLE
+              ? new Rectangle(names.get(id), ShapeType.RECTANGLE, a, b,
+                  args[arg + 2], args[arg + 3], color)
+              : new Oval(names.get(id), ShapeType.OVAL, a, b,
+                  args[arg + 2], args[arg + 3], color);
+          add.accept(shapes[id]);
+        }
+      }
+      if (publish) {
+        events.shapeChanged(op.event, shapes[id], groups);
+      }
+      arg += op.arity;
+    }
+  }
+
+  /**
+   * Appends an operation header.
+   * @param op Operation kind.
+   * @param name Shape name.
+   */
+  private void add(Op op, String name) {
+    if (size == ops.length) {
+      ops = Arrays.copyOf(ops, size * 2);
+      targets = Arrays.copyOf(targets, size * 2);
+    }
+    Integer id = nameIds.get(name);
+    if (id == null) {
+      id = names.size();
+      names.add(name);
+      nameIds.put(name, id);
+    }
+    ops[size] = (byte) op.ordinal();
+    targets[size] = id;
+    size++;
+  }
+
+  /**
+   * Appends a numeric argument.
+   * @param value Argument value.
+   * @return This batch.
+   */
+  private MutationBatch push(double value) {
+    if (argCount == args.length) {
+      args = Arrays.copyOf(args, argCount * 2);
+    }
+    args[argCount++] = value;
+    return this;
+  }
+
+  /**
+   * Checks that two dimensions are positive.
+   * @param index Operation index.
+   * @param first First dimension.
+   * @param second Second dimension.
+   */
+  private static void checkPositive(int index, double first, double second) {
+    if (first <= 0 || second <= 0) {
+      throw invalid(index, "Dimensions must be positive.");
+    }
+  }
+
+  /**
+   * Checks that three color components are in range.
+   * @param index Operation index.
+   * @param offset Position of the red component in args.
+   */
+  private void checkColor(int index, int offset) {
+    for (int c = offset; c < offset + 3; c++) {
+      if (args[c] < 0 || args[c] > 255) {
+        throw invalid(index, "Color values must be in range [0, 255].");
+      }
+    }
+  }
+
+  /**
+   * Builds the error for an invalid operation.
+   * @param index Operation index.
+   * @param message What is wrong.
+   * @return Exception to throw.
+   */
+  private static IllegalArgumentException invalid(int index, String message) {
+    return new IllegalArgumentException("Operation " + index + ": " + message);
+  }
+}
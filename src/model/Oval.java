@@ -63,6 +63,16 @@ public class Oval extends Shape {
     this.yRadius = newYRadius;
   }
 
+  /**
+   * Computes the oval's bounding box, matching how views lay it out
+   * with (x, y) as the top-left corner of the enclosing box.
+   * @return Box spanning both diameters.
+   */
+  @Override
+  public Bounds getBounds() {
+    return new Bounds(x, y, x + 2 * xRadius, y + 2 * yRadius);
+  }
+
   /**
    * Returns a string representation of the oval.
    * @return String description.
@@ -1,11 +1,11 @@
 package model;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages shapes and snapshots in a photo album.
@@ -14,8 +14,18 @@ public class PhotoAlbumModel implements IPhotoalbum {
   private final List<IShape> shapes = new ArrayList<>();
   private final List<ISnapshot> snapshots = new ArrayList<>();
   private final List<String> snapshotIDs = new ArrayList<>();
-  // improve the efficiency of checking if the shape's name is unique
-  private final Set<String> shapeNames = new HashSet<>();
+  // position of each snapshot by ID, so lookups don't scan snapshotIDs
+  private final Map<String, Integer> snapshotIndex = new HashMap<>();
+  // per-shape timelines, extended by takeSnapshot
+  private final ShapeHistory history = new ShapeHistory();
+  // never reset, so IDs stay unique even after clearSnapshots
+  private long nextSnapshotNumber = 1;
+  private final List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+  // shapes by name, for unique-name checks and constant-time lookups
+  private final Map<String, IShape> shapesByName = new HashMap<>();
+  // grouped shapes store positions relative to their groups
+  private final GroupTree groups = new GroupTree();
+  private final ModelEventPublisher events = new ModelEventPublisher();
 
   /**
    * Adds a rectangle to the album.
@@ -30,8 +40,9 @@ public class PhotoAlbumModel implements IPhotoalbum {
   public void createRectangle(String name, ShapeType type, double x, double y,
                               double width, double height, Color color) {
     validateShapeName(name);
-    shapes.add(new Rectangle(name, type, x, y, width, height, color));
-    shapeNames.add(name);
+    IShape shape = new Rectangle(name, type, x, y, width, height, color);
+    addShape(shape);
+    shapeEvent(ModelEvent.Kind.SHAPE_CREATED, shape);
   }
 
   /**
@@ -47,8 +58,9 @@ public class PhotoAlbumModel implements IPhotoalbum {
   public void createOval(String name, ShapeType type, double x, double y,
                          double xRadius, double yRadius, Color color) {
     validateShapeName(name);
-    shapes.add(new Oval(name, type, x, y, xRadius, yRadius, color));
-    shapeNames.add(name);
+    IShape shape = new Oval(name, type, x, y, xRadius, yRadius, color);
+    addShape(shape);
+    shapeEvent(ModelEvent.Kind.SHAPE_CREATED, shape);
   }
 
   /**
@@ -57,8 +69,12 @@ public class PhotoAlbumModel implements IPhotoalbum {
    */
   @Override
   public void removeShape(String shapeName) {
-    shapes.removeIf(shape -> shape.getName().equals(shapeName));
-    shapeNames.remove(shapeName);
+    IShape removed = shapesByName.remove(shapeName);
+    if (removed != null) {
+      shapeEvent(ModelEvent.Kind.SHAPE_REMOVED, removed);
+      shapes.remove(removed);
+      groups.shapeRemoved(shapeName);
+    }
   }
 
   /**
@@ -67,7 +83,9 @@ public class PhotoAlbumModel implements IPhotoalbum {
   @Override
   public void clearShapes() {
     shapes.clear();
-    shapeNames.clear();
+    shapesByName.clear();
+    groups.clear();
+    albumEvent(ModelEvent.Kind.SHAPES_CLEARED, null, null);
   }
 
   /**
@@ -77,6 +95,9 @@ public class PhotoAlbumModel implements IPhotoalbum {
   public void clearSnapshots() {
     snapshots.clear();
     snapshotIDs.clear();
+    snapshotIndex.clear();
+    history.clear();
+    albumEvent(ModelEvent.Kind.SNAPSHOTS_CLEARED, null, null);
   }
 
   /**
@@ -87,9 +108,11 @@ public class PhotoAlbumModel implements IPhotoalbum {
    */
   @Override
   public void moveShape(String shapeName, double newX, double newY) {
-    IShape shape = getShape(shapeName);
+    IShape shape = shapesByName.get(shapeName);
     if (shape != null) {
-      shape.move(newX, newY);
+      double[] local = groups.toLocal(shapeName, newX, newY);
+      shape.move(local[0], local[1]);
+      shapeEvent(ModelEvent.Kind.SHAPE_MOVED, shape);
     }
   }
 
@@ -102,9 +125,11 @@ public class PhotoAlbumModel implements IPhotoalbum {
    */
   @Override
   public void changeShapeColor(String shapeName, double newR, double newG, double newB) {
-    IShape shape = getShape(shapeName);
+    IShape shape = shapesByName.get(shapeName);
     if (shape != null) {
       shape.changeColor(newR, newG, newB);
+      groups.colorChanged(shapeName);
+      shapeEvent(ModelEvent.Kind.SHAPE_RECOLORED, shape);
     }
   }
 
@@ -116,10 +141,11 @@ public class PhotoAlbumModel implements IPhotoalbum {
    */
   @Override
   public void resizeRectangle(String shapeName, double newWidth, double newHeight) {
-    IShape shape = getShape(shapeName);
+    IShape shape = shapesByName.get(shapeName);
     if (shape instanceof Rectangle rectangle) {
       rectangle.resizeWidth(newWidth);
       rectangle.resizeHeight(newHeight);
+      shapeEvent(ModelEvent.Kind.SHAPE_RESIZED, rectangle);
     }
   }
 
@@ -131,28 +157,162 @@ public class PhotoAlbumModel implements IPhotoalbum {
    */
   @Override
   public void resizeOval(String shapeName, double newXRadius, double newYRadius) {
-    IShape shape = getShape(shapeName);
+    IShape shape = shapesByName.get(shapeName);
     if (shape instanceof Oval oval) {
       oval.resizeXRadius(newXRadius);
       oval.resizeYRadius(newYRadius);
+      shapeEvent(ModelEvent.Kind.SHAPE_RESIZED, oval);
     }
   }
 
+  /**
+   * Applies a batch of operations after checking all of them.
+   * @param batch Operations in order.
+   * @throws IllegalArgumentException If any operation is invalid.
+   */
+  @Override
+  public void applyBatch(MutationBatch batch) {
+    batch.apply(batch.resolve(shapesByName::get), this::addShape, groups, events);
+    events.publishReady();
+  }
+
+  /**
+   * Groups shapes and groups that are not yet in a group.
+   * @param name New group name.
+   * @param members Names of shapes and groups to include.
+   * @throws IllegalArgumentException If the name is taken or a member is
+   *     missing or already grouped.
+   */
+  @Override
+  public void createGroup(String name, List<String> members) {
+    groups.create(name, members, shapesByName::containsKey);
+    groupEvent(ModelEvent.Kind.GROUP_CREATED, name, List.copyOf(members), 0, 0, null);
+  }
+
+  /**
+   * Dissolves a group, keeping its members where they are drawn.
+   * @param name Group name.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public void ungroup(String name) {
+    groups.ungroup(name, shapesByName::get);
+    albumEvent(ModelEvent.Kind.GROUP_REMOVED, name, null);
+  }
+
+  /**
+   * Moves every member of a group, in constant time.
+   * @param name Group name.
+   * @param dx Distance to move right.
+   * @param dy Distance to move down.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public void moveGroup(String name, double dx, double dy) {
+    groups.translate(name, dx, dy);
+    groupEvent(ModelEvent.Kind.GROUP_MOVED, name, List.of(), dx, dy, null);
+  }
+
+  /**
+   * Recolors every member of a group, in constant time.
+   * @param name Group name.
+   * @param newR Red value.
+   * @param newG Green value.
+   * @param newB Blue value.
+   * @throws IllegalArgumentException If the group does not exist or the
+   *     color is invalid.
+   */
+  @Override
+  public void changeGroupColor(String name, double newR, double newG, double newB) {
+    Color color = new Color(newR, newG, newB);
+    groups.recolor(name, color);
+    groupEvent(ModelEvent.Kind.GROUP_RECOLORED, name, List.of(), 0, 0, color);
+  }
+
+  /**
+   * Lists a group's direct members.
+   * @param name Group name.
+   * @return Shape names, then group names.
+   * @throws IllegalArgumentException If the group does not exist.
+   */
+  @Override
+  public List<String> getGroupMembers(String name) {
+    return groups.members(name);
+  }
+
   /**
    * Takes a snapshot of the album.
    * @param description Snapshot description.
    */
   @Override
   public void takeSnapshot(String description) {
-    List<IShape> snapshotShapes = new ArrayList<>(shapes);
-    String newSnapshotId = LocalDateTime.now().toString();
-    String formatTime = LocalDateTime.now().format(
-        DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"));
+    capture(Snapshot.idFor(nextSnapshotNumber++), null, description);
+  }
+
+  /**
+   * Takes a snapshot under a given ID and timestamp.
+   * @param id Snapshot ID.
+   * @param timestamp Timestamp text, or null for the current time.
+   * @param description Snapshot description.
+   * @throws IllegalArgumentException If a snapshot with the ID exists.
+   */
+  @Override
+  public void restoreSnapshot(String id, String timestamp, String description) {
+    if (snapshotIndex.containsKey(id)) {
+      throw new IllegalArgumentException("Snapshot '" + id + "' already exists.");
+    }
+    nextSnapshotNumber = Math.max(nextSnapshotNumber, Snapshot.numberOf(id) + 1);
+    capture(id, timestamp, description);
+  }
+
+  /**
+   * Adds a snapshot of the current shapes.
+   * @param newSnapshotId Snapshot ID.
+   * @param timestamp Timestamp text, or null for the current time.
+   * @param description Snapshot description.
+   */
+  private void capture(String newSnapshotId, String timestamp, String description) {
+    List<IShape> snapshotShapes = groups.isEmpty()
+        ? new ArrayList<>(shapes) : groups.resolveAll(shapes);
+    String formatTime = timestamp != null ? timestamp
+        : LocalDateTime.now().format(Snapshot.TIMESTAMP_FORMAT);
     ISnapshot newSnapshot = new Snapshot(newSnapshotId,
         formatTime, description, snapshotShapes);
 
+    int index = snapshots.size();
+    history.record(index, index == 0 ? null : snapshots.get(index - 1), newSnapshot);
+    snapshotIndex.put(newSnapshotId, index);
     snapshots.add(newSnapshot);
     snapshotIDs.add(newSnapshotId);
+    notifySnapshotTaken(newSnapshot);
+    albumEvent(ModelEvent.Kind.SNAPSHOT_TAKEN, null, newSnapshot);
+  }
+
+  /**
+   * Registers a callback that receives every new snapshot.
+   * @param listener Callback to notify.
+   */
+  @Override
+  public void addSnapshotListener(SnapshotListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Stops notifying a callback.
+   * @param listener Callback to remove.
+   */
+  @Override
+  public void removeSnapshotListener(SnapshotListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Gets the publisher of this album's changes.
+   * @return Event publisher.
+   */
+  @Override
+  public ModelEventPublisher events() {
+    return events;
   }
 
   /**
@@ -164,6 +324,28 @@ public class PhotoAlbumModel implements IPhotoalbum {
     return snapshotIDs;
   }
 
+  /**
+   * Retrieves a snapshot by ID.
+   * @param id Snapshot ID.
+   * @return Snapshot or null if not found.
+   */
+  @Override
+  public ISnapshot getSnapshotById(String id) {
+    Integer index = snapshotIndex.get(id);
+    return index == null ? null : snapshots.get(index);
+  }
+
+  /**
+   * Finds the position of a snapshot.
+   * @param id Snapshot ID.
+   * @return Index in the snapshot list, or -1 if not found.
+   */
+  @Override
+  public int indexOfSnapshot(String id) {
+    Integer index = snapshotIndex.get(id);
+    return index == null ? -1 : index;
+  }
+
   /**
    * Retrieves all snapshots.
    * @return List of snapshots.
@@ -175,22 +357,130 @@ public class PhotoAlbumModel implements IPhotoalbum {
 
   /**
    * Retrieves all shapes.
-   * @return List of shapes.
+   * @return List of shapes, as drawn when any are grouped.
    */
   @Override
   public List<IShape> getShapes() {
-    return shapes;
+    return groups.isEmpty() ? shapes : groups.resolveAll(shapes);
   }
 
   /**
    * Retrieves a shape by name.
    * @param name Shape name.
-   * @return Shape or null if not found.
+   * @return Shape or null if not found; a grouped shape is returned as
+   *     drawn.
    */
   @Override
   public IShape getShape(String name) {
-    return shapes.stream().filter(shape -> shape.getName()
-        .equals(name)).findFirst().orElse(null);
+    IShape shape = shapesByName.get(name);
+    return shape == null || groups.isEmpty() ? shape : groups.resolve(shape);
+  }
+
+  /**
+   * Computes the changes between two snapshots.
+   * @param fromId ID of the older snapshot.
+   * @param toId ID of the newer snapshot.
+   * @return Added, removed and changed shapes.
+   * @throws IllegalArgumentException If either snapshot does not exist.
+   */
+  @Override
+  public SnapshotDiff diffSnapshots(String fromId, String toId) {
+    return SnapshotDiff.between(findSnapshot(fromId), findSnapshot(toId));
+  }
+
+  /**
+   * Gets the recorded changes of a shape across the snapshots.
+   * @param name Shape name.
+   * @return Timeline, or null if no snapshot has contained the shape.
+   */
+  @Override
+  public ShapeTimeline getShapeHistory(String name) {
+    return history.get(name);
+  }
+
+  /**
+   * Finds shapes across the snapshots.
+   * @param query Region, color, type and snapshot range to match.
+   * @return Matches ordered by snapshot, then drawing order.
+   */
+  @Override
+  public List<QueryMatch> query(ShapeQuery query) {
+    return query.run(getSnapshots());
+  }
+
+  /**
+   * Passes a new snapshot to every listener.
+   * @param snapshot The new snapshot.
+   */
+  private void notifySnapshotTaken(ISnapshot snapshot) {
+    for (SnapshotListener listener : listeners) {
+      listener.snapshotTaken(snapshot);
+    }
+  }
+
+  /**
+   * Publishes a change to a shape if anyone is subscribed.
+   * @param kind What changed.
+   * @param shape Live shape.
+   */
+  private void shapeEvent(ModelEvent.Kind kind, IShape shape) {
+    if (events.isActive()) {
+      events.shapeChanged(kind, shape, groups);
+      events.publishReady();
+    }
+  }
+
+  /**
+   * Publishes a change to a group or the album if anyone is subscribed.
+   * @param kind What changed.
+   * @param name Group name, or null.
+   * @param snapshot New snapshot, or null.
+   */
+  private void albumEvent(ModelEvent.Kind kind, String name, ISnapshot snapshot) {
+    if (events.isActive()) {
+      events.emit(kind, name, null, snapshot);
+      events.publishReady();
+    }
+  }
+
+  /**
+   * Publishes a change to a group if anyone is subscribed.
+   * @param kind What changed.
+   * @param name Group name.
+   * @param members Direct members of a new group, or an empty list.
+   * @param dx Distance the group moved right.
+   * @param dy Distance the group moved down.
+   * @param color New color of the group, or null.
+   */
+  private void groupEvent(ModelEvent.Kind kind, String name, List<String> members,
+                          double dx, double dy, Color color) {
+    if (events.isActive()) {
+      events.groupChanged(kind, name, members, dx, dy, color);
+      events.publishReady();
+    }
+  }
+
+  /**
+   * Finds a snapshot by ID.
+   * @param id Snapshot ID.
+   * @return The matching snapshot.
+   * @throws IllegalArgumentException If no snapshot has the ID.
+   */
+  private ISnapshot findSnapshot(String id) {
+    ISnapshot snapshot = getSnapshotById(id);
+    if (snapshot == null) {
+      throw new IllegalArgumentException("Snapshot '" + id + "' does not exist.");
+    }
+    return snapshot;
+  }
+
+  /**
+   * Adds a shape at the end of the drawing order.
+   * @param shape Shape with a unique name.
+   */
+  private void addShape(IShape shape) {
+    shapes.add(shape);
+    shapesByName.put(shape.getName(), shape);
   }
 
   /**
@@ -199,8 +489,11 @@ public class PhotoAlbumModel implements IPhotoalbum {
    * @throws IllegalArgumentException If the name already exists.
    */
   private void validateShapeName(String name) {
-    if (shapeNames.contains(name)) {
+    if (shapesByName.containsKey(name)) {
       throw new IllegalArgumentException("Shape with name '" + name + "' already exists.");
     }
+    if (groups.contains(name)) {
+      throw new IllegalArgumentException("Group with name '" + name + "' already exists.");
+    }
   }
 }
@@ -0,0 +1,103 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only list for one writer and any number of readers. Every append
+ * publishes a new immutable view of the backing array, so reads never
+ * lock and always see a consistent prefix of the list. Writers must be
+ * serialized by the caller.
+ *
+ * @param <E> element type
+ */
+class PublishedList<E> extends AbstractList<E> {
+  private volatile View view = new View(new Object[16], 0);
+
+  /**
+   * A prefix of a backing array. Elements below size are never rewritten.
+   */
+  private static final class View {
+    private final Object[] elements;
+    private final int size;
+
+    private View(Object[] elements, int size) {
+      this.elements = elements;
+      this.size = size;
+    }
+  }
+
+  @Override
+  public boolean add(E element) {
+    View current = view;
+    Object[] elements = current.elements;
+    if (current.size == elements.length) {
+      elements = Arrays.copyOf(elements, elements.length * 2);
+    }
+    elements[current.size] = element;
+    view = new View(elements, current.size + 1);
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    View current = view;
+    if (index < 0 || index >= current.size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.size);
+    }
+    return (E) current.elements[index];
+  }
+
+  /**
+   * Gets an element if the list currently has that position. Unlike a
+   * size check followed by get, this reads one view, so a concurrent
+   * clear cannot make it throw.
+   * @param index Position.
+   * @return The element, or null if the list is shorter.
+   */
+  @SuppressWarnings("unchecked")
+  E getIfPresent(int index) {
+    View current = view;
+    return index < 0 || index >= current.size ? null : (E) current.elements[index];
+  }
+
+  /**
+   * Iterates over the list as it was when the iterator was created, so a
+   * concurrent clear cannot make iteration fail part way.
+   * @return Iterator over one view of the list.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<E> iterator() {
+    View current = view;
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < current.size;
+      }
+
+      @Override
+      public E next() {
+        if (next >= current.size) {
+          throw new NoSuchElementException();
+        }
+        return (E) current.elements[next++];
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return view.size;
+  }
+
+  @Override
+  public void clear() {
+    view = new View(new Object[16], 0);
+  }
+}
@@ -0,0 +1,51 @@
+package model;
+
+/**
+ * A shape found by a {@link ShapeQuery}, with the snapshot it is in.
+ */
+public final class QueryMatch {
+  private final int snapshotIndex;
+  private final ISnapshot snapshot;
+  private final IShape shape;
+
+  /**
+   * Constructs a match.
+   * @param snapshotIndex Position of the snapshot in the album.
+   * @param snapshot Snapshot containing the shape.
+   * @param shape Matching shape.
+   */
+  QueryMatch(int snapshotIndex, ISnapshot snapshot, IShape shape) {
+    this.snapshotIndex = snapshotIndex;
+    this.snapshot = snapshot;
+    this.shape = shape;
+  }
+
+  /**
+   * Gets the position of the snapshot in the album.
+   * @return Snapshot index.
+   */
+  public int getSnapshotIndex() {
+    return snapshotIndex;
+  }
+
+  /**
+   * Gets the snapshot containing the shape.
+   * @return Snapshot.
+   */
+  public ISnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets the matching shape as stored in the snapshot.
+   * @return Shape.
+   */
+  public IShape getShape() {
+    return shape;
+  }
+
+  @Override
+  public String toString() {
+    return snapshot.getSnapshotId() + ": " + shape.getName();
+  }
+}
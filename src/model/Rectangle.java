@@ -62,6 +62,15 @@ public class Rectangle extends Shape {
     this.height = newHeight;
   }
 
+  /**
+   * Computes the rectangle's bounding box.
+   * @return Box from the corner spanning width and height.
+   */
+  @Override
+  public Bounds getBounds() {
+    return new Bounds(x, y, x + width, y + height);
+  }
+
   /**
    * Returns a string representation of the rectangle.
    * @return Formatted rectangle details.
@@ -0,0 +1,111 @@
+package model;
+
+/**
+ * Describes how a single named shape differs between two snapshots.
+ */
+public class ShapeChange {
+  private final IShape before;
+  private final IShape after;
+  private final boolean moved;
+  private final boolean recolored;
+  private final boolean resized;
+  private final boolean restacked;
+
+  /**
+   * Constructs a change record for a shape present in both snapshots.
+   * @param before Shape in the older snapshot.
+   * @param after Shape in the newer snapshot.
+   * @param restacked True if the shape changed its drawing order.
+   */
+  public ShapeChange(IShape before, IShape after, boolean restacked) {
+    this.before = before;
+    this.after = after;
+    this.moved = Double.compare(before.getX(), after.getX()) != 0
+        || Double.compare(before.getY(), after.getY()) != 0;
+    this.recolored = !before.getColor().equals(after.getColor());
+    this.resized = !sameSize(before, after);
+    this.restacked = restacked;
+  }
+
+  /**
+   * Gets the shape as it was in the older snapshot.
+   * @return Shape before the change.
+   */
+  public IShape getBefore() {
+    return before;
+  }
+
+  /**
+   * Gets the shape as it is in the newer snapshot.
+   * @return Shape after the change.
+   */
+  public IShape getAfter() {
+    return after;
+  }
+
+  /**
+   * Gets the name of the changed shape.
+   * @return Shape name.
+   */
+  public String getName() {
+    return after.getName();
+  }
+
+  /**
+   * Checks whether the shape's position changed.
+   * @return True if moved.
+   */
+  public boolean isMoved() {
+    return moved;
+  }
+
+  /**
+   * Checks whether the shape's color changed.
+   * @return True if recolored.
+   */
+  public boolean isRecolored() {
+    return recolored;
+  }
+
+  /**
+   * Checks whether the shape's dimensions changed.
+   * @return True if resized.
+   */
+  public boolean isResized() {
+    return resized;
+  }
+
+  /**
+   * Checks whether the shape moved relative to others in the drawing order.
+   * @return True if restacked.
+   */
+  public boolean isRestacked() {
+    return restacked;
+  }
+
+  /**
+   * Checks whether anything about the shape changed.
+   * @return True if the shape differs between the snapshots.
+   */
+  public boolean isChanged() {
+    return moved || recolored || resized || restacked;
+  }
+
+  /**
+   * Compares the dimensions of two shapes of the same type.
+   * @param a First shape.
+   * @param b Second shape.
+   * @return True if both have the same size.
+   */
+  private static boolean sameSize(IShape a, IShape b) {
+    if (a instanceof Rectangle ra && b instanceof Rectangle rb) {
+      return Double.compare(ra.getWidth(), rb.getWidth()) == 0
+          && Double.compare(ra.getHeight(), rb.getHeight()) == 0;
+    }
+    if (a instanceof Oval oa && b instanceof Oval ob) {
+      return Double.compare(oa.getXRadius(), ob.getXRadius()) == 0
+          && Double.compare(oa.getYRadius(), ob.getYRadius()) == 0;
+    }
+    return true;
+  }
+}
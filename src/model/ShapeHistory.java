@@ -0,0 +1,72 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-shape timelines for an album, extended each time a snapshot is
+ * taken by diffing it against the previous one.
+ */
+class ShapeHistory {
+  private final Map<String, ShapeTimeline> timelines = new ConcurrentHashMap<>();
+
+  /**
+   * Records the changes a new snapshot makes.
+   * @param index Position of the new snapshot in the album.
+   * @param previous The snapshot before it, or null if it is the first.
+   * @param snapshot The new snapshot.
+   */
+  void record(int index, ISnapshot previous, ISnapshot snapshot) {
+    if (previous == null) {
+      for (IShape shape : snapshot.getShapes()) {
+        timeline(shape.getName()).append(index, ShapeTimeline.ADDED, shape);
+      }
+      return;
+    }
+    SnapshotDiff diff = SnapshotDiff.between(previous, snapshot);
+    for (IShape shape : diff.getRemoved()) {
+      // a shape replaced by one of another type is recorded with the addition
+      if (snapshot.getShape(shape.getName()) == null) {
+        timeline(shape.getName()).append(index, ShapeTimeline.REMOVED, null);
+      }
+    }
+    for (IShape shape : diff.getAdded()) {
+      int change = previous.getShape(shape.getName()) == null
+          ? ShapeTimeline.ADDED : ShapeTimeline.ADDED | ShapeTimeline.REMOVED;
+      timeline(shape.getName()).append(index, change, shape);
+    }
+    for (ShapeChange change : diff.getChanged()) {
+      int flags = (change.isMoved() ? ShapeTimeline.MOVED : 0)
+          | (change.isRecolored() ? ShapeTimeline.RECOLORED : 0)
+          | (change.isResized() ? ShapeTimeline.RESIZED : 0);
+      if (flags != 0) {
+        timeline(change.getName()).append(index, flags, change.getAfter());
+      }
+    }
+  }
+
+  /**
+   * Gets a shape's timeline.
+   * @param name Shape name.
+   * @return Timeline, or null if the shape never appeared in a snapshot.
+   */
+  ShapeTimeline get(String name) {
+    return timelines.get(name);
+  }
+
+  /**
+   * Forgets every timeline.
+   */
+  void clear() {
+    timelines.clear();
+  }
+
+  /**
+   * Gets or creates a shape's timeline.
+   * @param name Shape name.
+   * @return Timeline.
+   */
+  private ShapeTimeline timeline(String name) {
+    return timelines.computeIfAbsent(name, ShapeTimeline::new);
+  }
+}
@@ -0,0 +1,230 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds shapes across a range of snapshots by region, color and type.
+ * Every criterion that is set must hold. Each snapshot's
+ * {@link SnapshotSummary} is checked first, so snapshots that cannot match
+ * are skipped without looking at their shapes; large ranges are split
+ * across the common fork/join pool.
+ */
+public final class ShapeQuery {
+  // snapshots scanned by one task before splitting
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+
+  private int from;
+  private int to = Integer.MAX_VALUE;
+  private Bounds intersecting;
+  private Bounds outside;
+  private ShapeType type;
+  private int[] minColor;
+  private int[] maxColor;
+
+  /**
+   * Limits the query to a range of snapshots.
+   * @param from Index of the first snapshot.
+   * @param to Index after the last snapshot.
+   * @return This query.
+   * @throws IllegalArgumentException If the range is invalid.
+   */
+  public ShapeQuery snapshots(int from, int to) {
+    if (from < 0 || to < from) {
+      throw new IllegalArgumentException("Invalid snapshot range.");
+    }
+    this.from = from;
+    this.to = to;
+    return this;
+  }
+
+  /**
+   * Matches shapes whose bounds overlap a region.
+   * @param region Region to test.
+   * @return This query.
+   */
+  public ShapeQuery intersecting(Bounds region) {
+    this.intersecting = region;
+    return this;
+  }
+
+  /**
+   * Matches shapes that are not entirely inside an area, such as the
+   * canvas.
+   * @param area Area shapes should stay in.
+   * @return This query.
+   */
+  public ShapeQuery outside(Bounds area) {
+    this.outside = area;
+    return this;
+  }
+
+  /**
+   * Matches shapes of one type.
+   * @param type Shape type.
+   * @return This query.
+   */
+  public ShapeQuery ofType(ShapeType type) {
+    this.type = type;
+    return this;
+  }
+
+  /**
+   * Matches shapes whose color channels all lie between two colors.
+   * @param min Lowest value of each channel.
+   * @param max Highest value of each channel.
+   * @return This query.
+   */
+  public ShapeQuery colorBetween(Color min, Color max) {
+    this.minColor = new int[] {(int) min.getR(), (int) min.getG(), (int) min.getB()};
+    this.maxColor = new int[] {(int) max.getR(), (int) max.getG(), (int) max.getB()};
+    return this;
+  }
+
+  /**
+   * Runs the query.
+   * @param snapshots Snapshots of the album.
+   * @return Matches ordered by snapshot, then drawing order.
+   */
+  List<QueryMatch> run(List<ISnapshot> snapshots) {
+    int end = Math.min(to, snapshots.size());
+    if (from >= end) {
+      return new ArrayList<>();
+    }
+    boolean[] colorBins = minColor == null ? null : colorBins();
+    return ForkJoinPool.commonPool().invoke(new Scan(snapshots, from, end, colorBins));
+  }
+
+  /**
+   * Marks the histogram bins that overlap the color range.
+   * @return Flag per bin.
+   */
+  private boolean[] colorBins() {
+    boolean[] bins = new boolean[SnapshotSummary.BINS];
+    int scale = 256 / SnapshotSummary.LEVELS;
+    for (int r = minColor[0] / scale; r <= maxColor[0] / scale; r++) {
+      for (int g = minColor[1] / scale; g <= maxColor[1] / scale; g++) {
+        for (int b = minColor[2] / scale; b <= maxColor[2] / scale; b++) {
+          bins[SnapshotSummary.binOf(r * scale, g * scale, b * scale)] = true;
+        }
+      }
+    }
+    return bins;
+  }
+
+  /**
+   * Checks whether a snapshot might contain matches.
+   * @param summary Snapshot summary.
+   * @param colorBins Bins overlapping the color range, or null.
+   * @return False if no shape in the snapshot can match.
+   */
+  private boolean mayMatch(SnapshotSummary summary, boolean[] colorBins) {
+    Bounds bounds = summary.getBounds();
+    if (bounds == null
+        || intersecting != null && !bounds.intersects(intersecting)
+        || outside != null && outside.contains(bounds)
+        || type != null && summary.getTypeCount(type) == 0) {
+      return false;
+    }
+    if (colorBins != null) {
+      for (int bin = 0; bin < colorBins.length; bin++) {
+        if (colorBins[bin] && summary.getColorCount(bin) > 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks one shape using the summary's packed arrays.
+   * @param summary Snapshot summary.
+   * @param i Shape position in drawing order.
+   * @return True if the shape matches every criterion.
+   */
+  private boolean matches(SnapshotSummary summary, int i) {
+    double minX = summary.minX[i];
+    double minY = summary.minY[i];
+    double maxX = summary.maxX[i];
+    double maxY = summary.maxY[i];
+    if (type != null && summary.types[i] != type.ordinal()) {
+      return false;
+    }
+    if (intersecting != null && !(minX < intersecting.getMaxX()
+        && intersecting.getMinX() < maxX && minY < intersecting.getMaxY()
+        && intersecting.getMinY() < maxY)) {
+      return false;
+    }
+    if (outside != null && minX >= outside.getMinX() && maxX <= outside.getMaxX()
+        && minY >= outside.getMinY() && maxY <= outside.getMaxY()) {
+      return false;
+    }
+    if (minColor != null) {
+      int rgb = summary.colors[i];
+      int[] channels = {rgb >> 16, (rgb >> 8) & 0xff, rgb & 0xff};
+      for (int c = 0; c < 3; c++) {
+        if (channels[c] < minColor[c] || channels[c] > maxColor[c]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Scans a range of snapshots, splitting it while it is large.
+   */
+  @SuppressWarnings("serial")
+  private final class Scan extends RecursiveTask<List<QueryMatch>> {
+    private final List<ISnapshot> snapshots;
+    private final int start;
+    private final int end;
+    private final boolean[] colorBins;
+
+    private Scan(List<ISnapshot> snapshots, int start, int end, boolean[] colorBins) {
+      this.snapshots = snapshots;
+      this.start = start;
+      this.end = end;
+      this.colorBins = colorBins;
+    }
+
+    @Override
+    protected List<QueryMatch> compute() {
+      if (end - start > SEQUENTIAL_THRESHOLD) {
+        int middle = (start + end) >>> 1;
+        Scan left = new Scan(snapshots, start, middle, colorBins);
+        left.fork();
+        List<QueryMatch> right = new Scan(snapshots, middle, end, colorBins).compute();
+        List<QueryMatch> result = left.join();
+        result.addAll(right);
+        return result;
+      }
+      List<QueryMatch> result = new ArrayList<>();
+      for (int index = start; index < end; index++) {
+        ISnapshot snapshot = snapshots.get(index);
+        SnapshotSummary summary = snapshot.getSummary();
+        if (!mayMatch(summary, colorBins)) {
+          continue;
+        }
+        if (intersecting != null) {
+          // cull in bulk first, then check the rest on the survivors only
+          for (int i : summary.shapesIntersecting(intersecting)) {
+            if (matches(summary, i)) {
+              result.add(new QueryMatch(index, snapshot, snapshot.getShapes().get(i)));
+            }
+          }
+          continue;
+        }
+        for (int i = 0; i < summary.getShapeCount(); i++) {
+          if (matches(summary, i)) {
+            result.add(new QueryMatch(index, snapshot, snapshot.getShapes().get(i)));
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
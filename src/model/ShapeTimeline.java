@@ -0,0 +1,151 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The states of one shape across an album's snapshots. An entry is kept
+ * only for snapshots where the shape appeared, changed or disappeared, so
+ * looking up its state at any snapshot is a binary search. Entries are
+ * appended by one writer while any number of threads read.
+ */
+public final class ShapeTimeline {
+  /** The shape appeared in the snapshot. */
+  public static final int ADDED = 1;
+  /** The shape is absent from the snapshot. */
+  public static final int REMOVED = 2;
+  /** The shape moved since the previous snapshot. */
+  public static final int MOVED = 4;
+  /** The shape changed color since the previous snapshot. */
+  public static final int RECOLORED = 8;
+  /** The shape changed size since the previous snapshot. */
+  public static final int RESIZED = 16;
+
+  private final String name;
+  private int[] snapshotIndexes = new int[4];
+  private byte[] flags = new byte[4];
+  private IShape[] states = new IShape[4];
+  // written last on append, so readers see complete entries
+  private volatile int size;
+
+  /**
+   * Creates an empty timeline.
+   * @param name Shape name.
+   */
+  ShapeTimeline(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the shape name.
+   * @return Shape name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of recorded changes.
+   * @return Entry count.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the snapshot index of an entry.
+   * @param entry Entry position, from 0 to size() - 1.
+   * @return Position of the snapshot in the album.
+   */
+  public int getSnapshotIndex(int entry) {
+    checkEntry(entry);
+    return snapshotIndexes[entry];
+  }
+
+  /**
+   * Gets what happened to the shape at an entry.
+   * @param entry Entry position, from 0 to size() - 1.
+   * @return Combination of ADDED, REMOVED, MOVED, RECOLORED and RESIZED.
+   */
+  public int getFlags(int entry) {
+    checkEntry(entry);
+    return flags[entry];
+  }
+
+  /**
+   * Gets the shape's state from an entry on.
+   * @param entry Entry position, from 0 to size() - 1.
+   * @return The shape as stored in the snapshot, or null if it was removed.
+   */
+  public IShape getState(int entry) {
+    checkEntry(entry);
+    return states[entry];
+  }
+
+  /**
+   * Finds the shape's state in a snapshot.
+   * @param snapshotIndex Position of the snapshot in the album.
+   * @return The shape as stored in that snapshot, or null if absent.
+   */
+  public IShape stateAt(int snapshotIndex) {
+    int entry = entryAt(snapshotIndex);
+    return entry < 0 ? null : states[entry];
+  }
+
+  /**
+   * Finds the last entry at or before a snapshot.
+   * @param snapshotIndex Position of the snapshot in the album.
+   * @return Entry position, or -1 if the shape had not appeared yet.
+   */
+  public int entryAt(int snapshotIndex) {
+    int count = size;
+    int found = Arrays.binarySearch(snapshotIndexes, 0, count, snapshotIndex);
+    return found >= 0 ? found : -found - 2;
+  }
+
+  /**
+   * Lists the snapshots where any of the given changes happened.
+   * @param mask Combination of ADDED, REMOVED, MOVED, RECOLORED and RESIZED.
+   * @return Snapshot indexes in increasing order.
+   */
+  public int[] snapshotsWith(int mask) {
+    int count = size;
+    int[] result = new int[count];
+    int matches = 0;
+    for (int i = 0; i < count; i++) {
+      if ((flags[i] & mask) != 0) {
+        result[matches++] = snapshotIndexes[i];
+      }
+    }
+    return Arrays.copyOf(result, matches);
+  }
+
+  /**
+   * Records a change. Only one thread may append.
+   * @param snapshotIndex Position of the snapshot, greater than any before.
+   * @param change Flags describing the change.
+   * @param state The shape in the snapshot, or null if removed.
+   */
+  void append(int snapshotIndex, int change, IShape state) {
+    int count = size;
+    if (count == snapshotIndexes.length) {
+      snapshotIndexes = Arrays.copyOf(snapshotIndexes, count * 2);
+      flags = Arrays.copyOf(flags, count * 2);
+      states = Arrays.copyOf(states, count * 2);
+    }
+    snapshotIndexes[count] = snapshotIndex;
+    flags[count] = (byte) change;
+    states[count] = state;
+    size = count + 1;
+  }
+
+  /**
+   * Checks an entry position.
+   * @param entry Entry position.
+   * @throws IndexOutOfBoundsException If there is no such entry.
+   */
+  private void checkEntry(int entry) {
+    if (entry < 0 || entry >= size) {
+      throw new IndexOutOfBoundsException("Entry " + entry + " of " + size);
+    }
+  }
+}
@@ -1,16 +1,29 @@
 package model;
 
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a snapshot of shapes in the album.
  */
 public class Snapshot implements ISnapshot {
+  /**
+   * Format of the timestamp recorded with each snapshot.
+   */
+  public static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+
   private final String snapshotId;
   private final String timestamp;
   private final String description;
   private final List<IShape> shapes;
+  // built on first lookup, snapshots do not change after construction
+  private volatile Map<String, IShape> shapesByName;
+  private volatile Long fingerprint;
+  private volatile SnapshotSummary summary;
 
   /**
    * Constructs a snapshot with given attributes.
@@ -36,6 +49,15 @@ public class Snapshot implements ISnapshot {
     return snapshotId;
   }
 
+  /**
+   * Gets the time the snapshot was taken.
+   * @return Snapshot timestamp.
+   */
+  @Override
+  public String getTimestamp() {
+    return timestamp;
+  }
+
   /**
    * Gets the description.
    * @return Snapshot description.
@@ -54,6 +76,91 @@ public class Snapshot implements ISnapshot {
     return shapes;
   }
 
+  /**
+   * Finds a shape in the snapshot by name.
+   * @param name Shape name.
+   * @return Shape or null if not found.
+   */
+  @Override
+  public IShape getShape(String name) {
+    Map<String, IShape> index = shapesByName;
+    if (index == null) {
+      index = new HashMap<>(shapes.size() * 2);
+      for (IShape shape : shapes) {
+        index.put(shape.getName(), shape);
+      }
+      shapesByName = index;
+    }
+    return index.get(name);
+  }
+
+  /**
+   * Builds the query summary on first use.
+   * @return Snapshot summary.
+   */
+  @Override
+  public SnapshotSummary getSummary() {
+    SnapshotSummary result = summary;
+    if (result == null) {
+      result = new SnapshotSummary(shapes);
+      summary = result;
+    }
+    return result;
+  }
+
+  /**
+   * Computes a hash over the name, geometry and color of every shape.
+   * @return Content fingerprint.
+   */
+  @Override
+  public long getFingerprint() {
+    if (fingerprint == null) {
+      long hash = 1125899906842597L;
+      for (IShape shape : shapes) {
+        Bounds bounds = shape.getBounds();
+        Color color = shape.getColor();
+        hash = 31 * hash + shape.getName().hashCode();
+        hash = 31 * hash + shape.getShapeType().ordinal();
+        hash = 31 * hash + Double.hashCode(bounds.getMinX());
+        hash = 31 * hash + Double.hashCode(bounds.getMinY());
+        hash = 31 * hash + Double.hashCode(bounds.getMaxX());
+        hash = 31 * hash + Double.hashCode(bounds.getMaxY());
+        hash = 31 * hash + color.hashCode();
+      }
+      fingerprint = hash;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Builds the ID of the n-th snapshot taken in an album.
+   * @param number Sequence number of the snapshot, starting at 1.
+   * @return Snapshot ID.
+   */
+  public static String idFor(long number) {
+    return "snapshot-" + number;
+  }
+
+  /**
+   * Gets the sequence number of an ID built by {@link #idFor}.
+   * @param id Snapshot ID.
+   * @return The number, or 0 if the ID has another form.
+   */
+  public static long numberOf(String id) {
+    if (!id.startsWith("snapshot-") || id.length() == 9 || id.length() > 27) {
+      return 0;
+    }
+    long number = 0;
+    for (int i = 9; i < id.length(); i++) {
+      char c = id.charAt(i);
+      if (c < '0' || c > '9') {
+        return 0;
+      }
+      number = number * 10 + (c - '0');
+    }
+    return number;
+  }
+
   /**
    * Creates a deep copy of the shape list.
    * @param root Source list of shapes.
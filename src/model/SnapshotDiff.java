@@ -0,0 +1,139 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of per-shape changes between two snapshots, matched by shape name.
+ */
+public class SnapshotDiff {
+  private final List<IShape> added;
+  private final List<IShape> removed;
+  private final List<ShapeChange> changed;
+
+  /**
+   * Constructs a diff from already computed change lists.
+   * @param added Shapes present only in the newer snapshot.
+   * @param removed Shapes present only in the older snapshot.
+   * @param changed Shapes present in both that differ.
+   */
+  public SnapshotDiff(List<IShape> added, List<IShape> removed, List<ShapeChange> changed) {
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+    this.changed = Collections.unmodifiableList(changed);
+  }
+
+  /**
+   * Computes the changes needed to go from one snapshot to another.
+   * Shapes are joined by name through a hash index of the older snapshot,
+   * so the cost is linear in the number of shapes.
+   * @param from Older snapshot, or null to treat every shape as added.
+   * @param to Newer snapshot.
+   * @return The diff between the two snapshots.
+   */
+  public static SnapshotDiff between(ISnapshot from, ISnapshot to) {
+    List<IShape> fromShapes = from == null ? List.of() : from.getShapes();
+    List<IShape> toShapes = to.getShapes();
+    Map<String, Integer> fromIndex = new HashMap<>(fromShapes.size() * 2);
+    for (int i = 0; i < fromShapes.size(); i++) {
+      fromIndex.put(fromShapes.get(i).getName(), i);
+    }
+
+    List<IShape> added = new ArrayList<>();
+    List<ShapeChange> changed = new ArrayList<>();
+    boolean[] matched = new boolean[fromShapes.size()];
+    int lastMatched = -1;
+    for (IShape after : toShapes) {
+      Integer index = fromIndex.get(after.getName());
+      IShape before = index == null ? null : fromShapes.get(index);
+      if (before == null || before.getShapeType() != after.getShapeType()) {
+        added.add(after);
+        continue;
+      }
+      matched[index] = true;
+      boolean restacked = index < lastMatched;
+      lastMatched = Math.max(lastMatched, index);
+      ShapeChange change = new ShapeChange(before, after, restacked);
+      if (change.isChanged()) {
+        changed.add(change);
+      }
+    }
+
+    List<IShape> removed = new ArrayList<>();
+    for (int i = 0; i < fromShapes.size(); i++) {
+      if (!matched[i]) {
+        removed.add(fromShapes.get(i));
+      }
+    }
+    return new SnapshotDiff(added, removed, changed);
+  }
+
+  /**
+   * Gets shapes that only exist in the newer snapshot.
+   * @return Added shapes in drawing order.
+   */
+  public List<IShape> getAdded() {
+    return added;
+  }
+
+  /**
+   * Gets shapes that only exist in the older snapshot.
+   * @return Removed shapes in drawing order.
+   */
+  public List<IShape> getRemoved() {
+    return removed;
+  }
+
+  /**
+   * Gets every shape present in both snapshots that differs in some way.
+   * @return Changed shapes.
+   */
+  public List<ShapeChange> getChanged() {
+    return changed;
+  }
+
+  /**
+   * Gets the shapes whose position changed.
+   * @return Moved shapes.
+   */
+  public List<ShapeChange> getMoved() {
+    return changed.stream().filter(ShapeChange::isMoved).toList();
+  }
+
+  /**
+   * Gets the shapes whose color changed.
+   * @return Recolored shapes.
+   */
+  public List<ShapeChange> getRecolored() {
+    return changed.stream().filter(ShapeChange::isRecolored).toList();
+  }
+
+  /**
+   * Gets the shapes whose dimensions changed.
+   * @return Resized shapes.
+   */
+  public List<ShapeChange> getResized() {
+    return changed.stream().filter(ShapeChange::isResized).toList();
+  }
+
+  /**
+   * Checks whether the two snapshots contain identical shapes.
+   * @return True if nothing was added, removed or changed.
+   */
+  public boolean isEmpty() {
+    return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+  }
+
+  /**
+   * Returns a summary of the diff.
+   * @return Change counts as a string.
+   */
+  @Override
+  public String toString() {
+    return String.format("Added: %d, Removed: %d, Changed: %d",
+        added.size(), removed.size(), changed.size());
+  }
+}
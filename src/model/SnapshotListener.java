@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Callback for code that needs each snapshot as soon as it is taken.
+ */
+public interface SnapshotListener {
+
+  /**
+   * Called after a snapshot has been added to the album, on the thread
+   * that took it. A thread-safe album calls it while holding its lock, so
+   * other updates and reads wait until it returns; implementations should
+   * return quickly and must not wait indefinitely on other threads.
+   *
+   * @param snapshot the new snapshot
+   */
+  void snapshotTaken(ISnapshot snapshot);
+}
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Precomputed index of one snapshot used to answer queries without
+ * touching its shapes: the union of all bounding boxes, a coarse color
+ * histogram, per-type counts, and each shape's box and color packed into
+ * primitive arrays in drawing order. Box edges are kept one array per edge
+ * so {@link GeometryKernels} can sweep them.
+ */
+public final class SnapshotSummary {
+  /** Histogram levels per color channel. */
+  public static final int LEVELS = 4;
+  /** Number of histogram bins. */
+  public static final int BINS = LEVELS * LEVELS * LEVELS;
+
+  private final Bounds bounds;
+  private final int[] histogram = new int[BINS];
+  private final int[] typeCounts = new int[ShapeType.values().length];
+  // box edges per shape
+  final double[] minX;
+  final double[] minY;
+  final double[] maxX;
+  final double[] maxY;
+  // 0xRRGGBB per shape
+  final int[] colors;
+  final byte[] types;
+
+  /**
+   * Summarizes a snapshot's shapes.
+   * @param shapes Shapes in drawing order.
+   */
+  SnapshotSummary(List<IShape> shapes) {
+    int count = shapes.size();
+    minX = new double[count];
+    minY = new double[count];
+    maxX = new double[count];
+    maxY = new double[count];
+    colors = new int[count];
+    types = new byte[count];
+    // gather positions and extents; the far edges are added in bulk below
+    for (int i = 0; i < count; i++) {
+      IShape shape = shapes.get(i);
+      Color color = shape.getColor();
+      if (shape instanceof Rectangle rectangle) {
+        minX[i] = rectangle.getX();
+        minY[i] = rectangle.getY();
+        maxX[i] = rectangle.getWidth();
+        maxY[i] = rectangle.getHeight();
+      } else if (shape instanceof Oval oval) {
+        minX[i] = oval.getX();
+        minY[i] = oval.getY();
+        maxX[i] = 2 * oval.getXRadius();
+        maxY[i] = 2 * oval.getYRadius();
+      } else {
+        Bounds box = shape.getBounds();
+        minX[i] = box.getMinX();
+        minY[i] = box.getMinY();
+        maxX[i] = box.getWidth();
+        maxY[i] = box.getHeight();
+      }
+      colors[i] = ((int) color.getR() << 16) | ((int) color.getG() << 8) | (int) color.getB();
+      types[i] = (byte) shape.getShapeType().ordinal();
+      histogram[binOf(colors[i])]++;
+      typeCounts[types[i]]++;
+    }
+    GeometryKernels.add(minX, maxX, maxX, count);
+    GeometryKernels.add(minY, maxY, maxY, count);
+    bounds = GeometryKernels.union(minX, minY, maxX, maxY, count);
+  }
+
+  /**
+   * Gets the area covered by all shapes.
+   * @return Union of the shapes' bounds, or null if there are no shapes.
+   */
+  public Bounds getBounds() {
+    return bounds;
+  }
+
+  /**
+   * Gets the number of shapes.
+   * @return Shape count.
+   */
+  public int getShapeCount() {
+    return colors.length;
+  }
+
+  /**
+   * Gets how many shapes fall in a color bin.
+   * @param bin Bin from {@link #binOf(int, int, int)}.
+   * @return Shape count.
+   */
+  public int getColorCount(int bin) {
+    return histogram[bin];
+  }
+
+  /**
+   * Gets how many shapes have a type.
+   * @param type Shape type.
+   * @return Shape count.
+   */
+  public int getTypeCount(ShapeType type) {
+    return typeCounts[type.ordinal()];
+  }
+
+  /**
+   * Finds the shapes whose boxes overlap an area, e.g. the visible part of
+   * the canvas.
+   * @param area Area to test against.
+   * @return Positions in drawing order, ascending.
+   */
+  public int[] shapesIntersecting(Bounds area) {
+    int count = colors.length;
+    if (bounds == null || !bounds.intersects(area)) {
+      return new int[0];
+    }
+    byte[] mask = new byte[count];
+    int hits = GeometryKernels.intersects(minX, minY, maxX, maxY, count, area, mask);
+    return GeometryKernels.compact(mask, count, hits);
+  }
+
+  /**
+   * Maps every shape's box to the cells of a grid.
+   * @param extent Area the grid covers; boxes outside are clamped to it.
+   * @param columns Number of grid columns.
+   * @param rows Number of grid rows.
+   * @return First column, last column, first row and last row of each
+   *     shape, one array each.
+   */
+  public int[][] gridSpans(Bounds extent, int columns, int rows) {
+    int count = colors.length;
+    double cellWidth = Math.max(extent.getWidth() / columns, Double.MIN_NORMAL);
+    double cellHeight = Math.max(extent.getHeight() / rows, Double.MIN_NORMAL);
+    int[][] spans = new int[4][count];
+    GeometryKernels.cells(minX, spans[0], count, extent.getMinX(), cellWidth, columns);
+    GeometryKernels.cells(maxX, spans[1], count, extent.getMinX(), cellWidth, columns);
+    GeometryKernels.cells(minY, spans[2], count, extent.getMinY(), cellHeight, rows);
+    GeometryKernels.cells(maxY, spans[3], count, extent.getMinY(), cellHeight, rows);
+    return spans;
+  }
+
+  /**
+   * Finds the histogram bin of a color.
+   * @param r Red value, 0 to 255.
+   * @param g Green value, 0 to 255.
+   * @param b Blue value, 0 to 255.
+   * @return Bin index.
+   */
+  public static int binOf(int r, int g, int b) {
+    int scale = 256 / LEVELS;
+    return (r / scale * LEVELS + g / scale) * LEVELS + b / scale;
+  }
+
+  /**
+   * Finds the histogram bin of a packed color.
+   * @param rgb Color as 0xRRGGBB.
+   * @return Bin index.
+   */
+  static int binOf(int rgb) {
+    return binOf(rgb >> 16, (rgb >> 8) & 0xff, rgb & 0xff);
+  }
+}
@@ -0,0 +1,185 @@
+package views;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip stream that compresses on its own thread. Written bytes are
+ * collected into chunks and handed to the compressor through a bounded
+ * queue, so building the output overlaps with deflating it.
+ */
+class AsyncGzipOutputStream extends OutputStream {
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int QUEUE_CAPACITY = 8;
+  private static final byte[] END = new byte[0];
+
+  private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final Thread compressor;
+  private volatile IOException failure;
+  private byte[] buffer = new byte[CHUNK_SIZE];
+  private int count;
+  private boolean closed;
+
+  /**
+   * Starts a compressor writing to the given stream.
+   * @param out Stream that receives the gzip data; closed with this stream.
+   * @param level Deflater compression level, 1 to 9.
+   * @throws IOException If the gzip header cannot be written.
+   */
+  AsyncGzipOutputStream(OutputStream out, int level) throws IOException {
+    GZIPOutputStream gzip = new GZIPOutputStream(out, CHUNK_SIZE) {
+      {
+        def.setLevel(level);
+      }
+    };
+    compressor = new Thread(() -> compress(gzip, out), "gzip-writer");
+    compressor.setDaemon(true);
+    compressor.start();
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    buffer[count++] = (byte) b;
+    if (count == buffer.length) {
+      handOff();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      int n = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (count == buffer.length) {
+        handOff();
+      }
+    }
+  }
+
+  /**
+   * Passes any buffered bytes on to the compressor.
+   * @throws IOException If compression has failed.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if (count > 0) {
+      handOff();
+    }
+  }
+
+  /**
+   * Compresses the remaining bytes, writes the gzip trailer and waits for
+   * the compressor to finish. The compressor is stopped and the underlying
+   * stream closed even when compression has already failed.
+   * @throws IOException If compression or writing failed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (count > 0 && failure == null) {
+        handOff();
+      }
+    } finally {
+      try {
+        chunks.put(END);
+        compressor.join();
+      } catch (InterruptedException e) {
+        // the compressor closes its streams when interrupted
+        compressor.interrupt();
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while compressing");
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Queues the current chunk and starts a new one.
+   * @throws IOException If interrupted while the queue is full.
+   */
+  private void handOff() throws IOException {
+    byte[] chunk = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    try {
+      chunks.put(chunk);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing");
+    }
+    if (chunk == buffer) {
+      buffer = new byte[CHUNK_SIZE];
+    }
+    count = 0;
+  }
+
+  /**
+   * Checks that the stream is open and the compressor has not failed.
+   * @throws IOException If the stream cannot be written.
+   */
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Compressor loop. After a failure it keeps draining the queue so the
+   * writer never blocks; the error is reported on the next write or close.
+   * @param gzip Stream to compress into.
+   * @param out Stream under the gzip stream, closed even if gzip fails.
+   */
+  private void compress(GZIPOutputStream gzip, OutputStream out) {
+    try {
+      while (true) {
+        byte[] chunk = chunks.take();
+        if (chunk == END) {
+          break;
+        }
+        if (failure == null) {
+          try {
+            gzip.write(chunk);
+          } catch (IOException e) {
+            failure = e;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      failure = new InterruptedIOException("Compressor interrupted");
+    } finally {
+      try {
+        gzip.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+      // gzip does not close its stream when writing the trailer fails
+      try {
+        out.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+  }
+}
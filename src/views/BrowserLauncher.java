@@ -0,0 +1,34 @@
+package views;
+
+import java.awt.Desktop;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opens exported files in the desktop browser. Kept apart from the views
+ * that write files so AWT is only loaded when a browser is actually
+ * opened, never on headless export runs.
+ */
+final class BrowserLauncher {
+
+  private BrowserLauncher() {
+  }
+
+  /**
+   * Opens a file in the default browser, or reports why it cannot.
+   * @param file File to open.
+   */
+  static void open(File file) {
+    try {
+      if (!Desktop.isDesktopSupported()
+          || !Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
+        System.err.println("No browser available; output written to " + file);
+        return;
+      }
+      Desktop.getDesktop().browse(file.toURI());
+    } catch (UnsupportedOperationException | IOException e) {
+      // HeadlessException is an UnsupportedOperationException
+      System.err.println("Unable to open " + file + " in a browser: " + e.getMessage());
+    }
+  }
+}
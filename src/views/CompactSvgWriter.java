@@ -0,0 +1,185 @@
+package views;
+
+import model.Color;
+import model.IShape;
+import model.ISnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits size-optimized SVG for a group of snapshots. Each distinct color
+ * becomes one CSS class instead of an inline style, shape geometry that
+ * appears more than once is defined once in a shared defs block and
+ * referenced with use, and numbers are written without a trailing ".0".
+ */
+public class CompactSvgWriter {
+  private final Map<Integer, String> colorClasses = new LinkedHashMap<>();
+  private final Map<String, Integer> geometryCounts = new LinkedHashMap<>();
+  private final Map<String, String> sharedIds = new LinkedHashMap<>();
+
+  /**
+   * Collects colors and repeated geometry from the snapshots that will be
+   * written, so they can be emitted once up front.
+   * @param snapshots Snapshots that will share the style and defs blocks.
+   */
+  public CompactSvgWriter(List<ISnapshot> snapshots) {
+    for (ISnapshot snapshot : snapshots) {
+      for (IShape shape : snapshot.getShapes()) {
+        colorClass(shape.getColor());
+        geometryCounts.merge(geometry(shape), 1, Integer::sum);
+      }
+    }
+    for (Map.Entry<String, Integer> entry : geometryCounts.entrySet()) {
+      if (entry.getValue() > 1) {
+        sharedIds.put(entry.getKey(), "d" + sharedIds.size());
+      }
+    }
+  }
+
+  /**
+   * Builds a complete HTML page showing every snapshot.
+   * @param snapshots Snapshots passed to the constructor.
+   * @return HTML document.
+   */
+  public String htmlDocument(List<ISnapshot> snapshots) {
+    StringBuilder html = new StringBuilder();
+    html.append("<!DOCTYPE html><html><head><title>Shapes Photo Album</title>");
+    appendStyle(html);
+    html.append("</head><body>");
+    if (!sharedIds.isEmpty()) {
+      html.append("<svg width=\"0\" height=\"0\" style=\"position:absolute\">");
+      appendDefs(html);
+      html.append("</svg>");
+    }
+    for (ISnapshot snapshot : snapshots) {
+      html.append("<div style=\"background-color:lightgrey;\">")
+          .append("<h2>").append(snapshot.getSnapshotId()).append("</h2>")
+          .append("<p>Description: ").append(snapshot.getDescription()).append("</p>")
+          .append("<svg width=\"800\" height=\"800\">");
+      appendShapes(html, snapshot);
+      html.append("</svg></div>");
+    }
+    return html.append(WebView.HTML_FOOTER).toString();
+  }
+
+  /**
+   * Builds a standalone SVG document for one snapshot.
+   * @param snapshot Snapshot passed to the constructor.
+   * @param width Document width.
+   * @param height Document height.
+   * @return SVG document.
+   */
+  public String svgDocument(ISnapshot snapshot, int width, int height) {
+    StringBuilder svg = new StringBuilder();
+    svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+        .append("\" height=\"").append(height).append("\">");
+    appendStyle(svg);
+    if (!sharedIds.isEmpty()) {
+      appendDefs(svg);
+    }
+    appendShapes(svg, snapshot);
+    return svg.append("</svg>").toString();
+  }
+
+  /**
+   * Formats a coordinate or length with at most one decimal place.
+   * @param value Number to format.
+   * @return Shortest text for the rounded value.
+   */
+  public static String formatNumber(double value) {
+    double rounded = Math.round(value * 10) / 10.0;
+    if (rounded == Math.rint(rounded) && Math.abs(rounded) < 1e15) {
+      return Long.toString((long) rounded);
+    }
+    return Double.toString(rounded);
+  }
+
+  /**
+   * Appends one CSS rule per distinct color.
+   * @param out Builder to append to.
+   */
+  private void appendStyle(StringBuilder out) {
+    out.append("<style>");
+    for (Map.Entry<Integer, String> entry : colorClasses.entrySet()) {
+      int rgb = entry.getKey();
+      out.append('.').append(entry.getValue()).append("{fill:rgb(")
+          .append(rgb >> 16).append(',').append((rgb >> 8) & 0xff).append(',')
+          .append(rgb & 0xff).append(")}");
+    }
+    out.append("</style>");
+  }
+
+  /**
+   * Appends the shared geometry definitions.
+   * @param out Builder to append to.
+   */
+  private void appendDefs(StringBuilder out) {
+    out.append("<defs>");
+    for (Map.Entry<String, String> entry : sharedIds.entrySet()) {
+      String element = entry.getKey();
+      // the id goes right after the tag name, e.g. <rect id="d0" x=...
+      int space = element.indexOf(' ');
+      out.append(element, 0, space).append(" id=\"").append(entry.getValue()).append('"')
+          .append(element, space, element.length());
+    }
+    out.append("</defs>");
+  }
+
+  /**
+   * Appends a snapshot's shapes in drawing order.
+   * @param out Builder to append to.
+   * @param snapshot Snapshot to write.
+   */
+  private void appendShapes(StringBuilder out, ISnapshot snapshot) {
+    for (IShape shape : snapshot.getShapes()) {
+      String element = geometry(shape);
+      String colorClass = colorClass(shape.getColor());
+      String id = sharedIds.get(element);
+      if (id != null) {
+        out.append("<use href=\"#").append(id).append("\" class=\"")
+            .append(colorClass).append("\"/>");
+      } else {
+        // insert the class before the closing "/>"
+        out.append(element, 0, element.length() - 2)
+            .append(" class=\"").append(colorClass).append("\"/>");
+      }
+    }
+  }
+
+  /**
+   * Builds a shape's element without any fill, so it can be shared
+   * between shapes of different colors.
+   * @param shape Shape to describe.
+   * @return SVG element text.
+   */
+  private static String geometry(IShape shape) {
+    return switch (shape.getShapeType()) {
+      case RECTANGLE -> {
+        model.Rectangle rectangle = (model.Rectangle) shape;
+        yield "<rect x=\"" + formatNumber(rectangle.getX())
+            + "\" y=\"" + formatNumber(rectangle.getY())
+            + "\" width=\"" + formatNumber(rectangle.getWidth())
+            + "\" height=\"" + formatNumber(rectangle.getHeight()) + "\"/>";
+      }
+      case OVAL -> {
+        model.Oval oval = (model.Oval) shape;
+        yield "<ellipse cx=\"" + formatNumber(oval.getX() + oval.getXRadius())
+            + "\" cy=\"" + formatNumber(oval.getY() + oval.getYRadius())
+            + "\" rx=\"" + formatNumber(oval.getXRadius())
+            + "\" ry=\"" + formatNumber(oval.getYRadius()) + "\"/>";
+      }
+    };
+  }
+
+  /**
+   * Gets the CSS class for a color, assigning a new one if needed.
+   * @param color Shape color.
+   * @return Class name.
+   */
+  private String colorClass(Color color) {
+    int rgb = ((int) color.getR() << 16) | ((int) color.getG() << 8) | (int) color.getB();
+    return colorClasses.computeIfAbsent(rgb, key -> "c" + colorClasses.size());
+  }
+}
@@ -0,0 +1,288 @@
+package views;
+
+import model.ISnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes an album to several formats in one pass. The snapshot list is
+ * walked once; each snapshot is handed to every exporter through its own
+ * bounded queue, and each exporter runs on its own thread. A full queue
+ * pauses the walk, so memory stays bounded however far the slowest
+ * exporter falls behind. An exporter that fails is reported and skipped
+ * without stopping the others.
+ */
+public class ExportPipeline {
+  /** Snapshots queued per exporter when no capacity is given. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 32;
+  // marks the end of the album in each queue
+  private static final Item END = new Item(-1, null);
+
+  private final List<SnapshotExporter> exporters;
+  private final int queueCapacity;
+
+  /**
+   * A snapshot with its position in the album.
+   */
+  private static final class Item {
+    private final int index;
+    private final ISnapshot snapshot;
+
+    private Item(int index, ISnapshot snapshot) {
+      this.index = index;
+      this.snapshot = snapshot;
+    }
+  }
+
+  /**
+   * The outcome of one exporter.
+   */
+  public static class Result {
+    private final String name;
+    private final int exported;
+    private final long nanos;
+    private final String error;
+
+    /**
+     * Constructs a result.
+     * @param name Exporter name.
+     * @param exported Number of snapshots written.
+     * @param nanos Time the exporter spent working.
+     * @param error Failure message, or null on success.
+     */
+    public Result(String name, int exported, long nanos, String error) {
+      this.name = name;
+      this.exported = exported;
+      this.nanos = nanos;
+      this.error = error;
+    }
+
+    /**
+     * Gets the exporter name.
+     * @return Exporter name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Gets the number of snapshots written.
+     * @return Snapshot count.
+     */
+    public int getExported() {
+      return exported;
+    }
+
+    /**
+     * Gets the time the exporter spent working, not counting waits for
+     * snapshots.
+     * @return Time in milliseconds.
+     */
+    public double getMillis() {
+      return nanos / 1e6;
+    }
+
+    /**
+     * Gets the failure message.
+     * @return Message, or null if the export completed.
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * Checks whether the export completed.
+     * @return True on success.
+     */
+    public boolean isSuccess() {
+      return error == null;
+    }
+  }
+
+  /**
+   * Constructs a pipeline with the default queue capacity.
+   * @param exporters Exporters to feed.
+   */
+  public ExportPipeline(List<SnapshotExporter> exporters) {
+    this(exporters, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Constructs a pipeline.
+   * @param exporters Exporters to feed.
+   * @param queueCapacity Snapshots queued per exporter.
+   * @throws IllegalArgumentException If there are no exporters or the
+   *     capacity is not positive.
+   */
+  public ExportPipeline(List<SnapshotExporter> exporters, int queueCapacity) {
+    if (exporters.isEmpty()) {
+      throw new IllegalArgumentException("At least one exporter is required.");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive.");
+    }
+    this.exporters = List.copyOf(exporters);
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Creates a built-in exporter.
+   * @param format One of "html", "svg", "png" or "ndjson".
+   * @param output Output path; its extension is replaced per format.
+   * @param options Compression and compact SVG settings.
+   * @return The exporter.
+   * @throws IllegalArgumentException If the format is unknown.
+   */
+  public static SnapshotExporter exporterFor(String format, String output,
+                                             ViewOptions options) {
+    String base = output.replaceFirst("\\.[^./\\\\]*$", "");
+    return switch (format.toLowerCase()) {
+      case "html" -> new HtmlExporter(new File(base + ".html"), options);
+      case "svg" -> new SvgFilesExporter(new File(base + "_svg"), options);
+      case "png" -> new PngFramesExporter(new File(base + "_png"));
+      case "ndjson" -> new NdjsonExporter(new File(base + ".ndjson"), options);
+      default -> throw new IllegalArgumentException("Unknown export format: " + format);
+    };
+  }
+
+  /**
+   * Exports every snapshot to every exporter, walking the list once.
+   * @param snapshots Snapshots in album order.
+   * @param width Canvas width.
+   * @param height Canvas height.
+   * @return One result per exporter, in registration order.
+   */
+  public List<Result> run(List<ISnapshot> snapshots, int width, int height) {
+    List<BlockingQueue<Item>> queues = new ArrayList<>();
+    List<Worker> workers = new ArrayList<>();
+    for (SnapshotExporter exporter : exporters) {
+      BlockingQueue<Item> queue = new ArrayBlockingQueue<>(queueCapacity);
+      Worker worker = new Worker(exporter, queue, width, height);
+      queues.add(queue);
+      workers.add(worker);
+      worker.start();
+    }
+    try {
+      int index = 0;
+      for (ISnapshot snapshot : snapshots) {
+        Item item = new Item(index++, snapshot);
+        for (BlockingQueue<Item> queue : queues) {
+          queue.put(item);
+        }
+      }
+      for (BlockingQueue<Item> queue : queues) {
+        queue.put(END);
+      }
+      List<Result> results = new ArrayList<>();
+      for (Worker worker : workers) {
+        worker.join();
+        results.add(worker.result);
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      workers.forEach(Thread::interrupt);
+      throw new IllegalStateException("Export interrupted", e);
+    }
+  }
+
+  /**
+   * Prints one line per exporter and a total.
+   * @param results Results from {@link #run}.
+   * @param totalNanos Wall time of the whole export.
+   */
+  public static void printReport(List<Result> results, long totalNanos) {
+    int failures = 0;
+    for (Result result : results) {
+      if (result.isSuccess()) {
+        System.out.printf("OK     %9.1f ms  %-6s %d snapshots%n", result.getMillis(),
+            result.getName(), result.getExported());
+      } else {
+        failures++;
+        System.out.printf("FAILED %9.1f ms  %-6s %s%n", result.getMillis(),
+            result.getName(), result.getError());
+      }
+    }
+    System.out.printf("%d formats, %d failed, %.1f ms total%n",
+        results.size(), failures, totalNanos / 1e6);
+  }
+
+  /**
+   * Drains one exporter's queue on its own thread.
+   */
+  private static final class Worker extends Thread {
+    private final SnapshotExporter exporter;
+    private final BlockingQueue<Item> queue;
+    private final int width;
+    private final int height;
+    private Result result;
+
+    private Worker(SnapshotExporter exporter, BlockingQueue<Item> queue, int width,
+                   int height) {
+      super("export-" + exporter.getName());
+      setDaemon(true);
+      this.exporter = exporter;
+      this.queue = queue;
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override
+    public void run() {
+      long start = System.nanoTime();
+      long nanos = 0;
+      int exported = 0;
+      String error = null;
+      try {
+        try {
+          exporter.begin(width, height);
+        } catch (Throwable e) {
+          error = describe(e);
+        }
+        nanos += System.nanoTime() - start;
+        try {
+          for (Item item = queue.take(); item != END; item = queue.take()) {
+            // after a failure keep draining so the producer never blocks
+            if (error == null) {
+              start = System.nanoTime();
+              try {
+                exporter.export(item.index, item.snapshot);
+                exported++;
+              } catch (Throwable e) {
+                error = describe(e);
+              }
+              nanos += System.nanoTime() - start;
+            }
+          }
+        } catch (InterruptedException e) {
+          error = "Interrupted";
+        }
+        if (error == null) {
+          start = System.nanoTime();
+          try {
+            exporter.finish();
+          } catch (Throwable e) {
+            error = describe(e);
+          }
+          nanos += System.nanoTime() - start;
+        }
+      } finally {
+        // releases the output on every failure, so no writer or compressor
+        // thread outlives the export
+        if (error != null) {
+          exporter.abort();
+        }
+        result = new Result(exporter.getName(), exported, nanos, error);
+      }
+    }
+
+    private static String describe(Throwable e) {
+      return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+  }
+}
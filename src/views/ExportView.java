@@ -0,0 +1,43 @@
+package views;
+
+import model.IPhotoalbum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the album to every format chosen with -formats in a single pass
+ * over its snapshots, and prints how long each format took.
+ */
+public class ExportView implements IView {
+  private final IPhotoalbum model;
+  private final ViewOptions options;
+
+  /**
+   * Constructs an export view.
+   * @param model Photo album model.
+   * @param options Formats and export settings.
+   */
+  public ExportView(IPhotoalbum model, ViewOptions options) {
+    this.model = model;
+    this.options = options;
+  }
+
+  /**
+   * Exports the album to each format, named after the output file.
+   * @param xMax Canvas width.
+   * @param yMax Canvas height.
+   * @param outputfile Base output path; each format replaces its extension.
+   */
+  @Override
+  public void showView(int xMax, int yMax, String outputfile) {
+    List<SnapshotExporter> exporters = new ArrayList<>();
+    for (String format : options.getExportFormats()) {
+      exporters.add(ExportPipeline.exporterFor(format, outputfile, options));
+    }
+    long start = System.nanoTime();
+    List<ExportPipeline.Result> results = new ExportPipeline(exporters)
+        .run(model.getSnapshots(), xMax, yMax);
+    ExportPipeline.printReport(results, System.nanoTime() - start);
+  }
+}
@@ -1,19 +1,34 @@
 package views;
 
 import model.IPhotoalbum;
+import model.ISnapshot;
+
+import javax.swing.SwingUtilities;
 
 /**
  * Represents the graphical view for the photo album.
  */
-public class GraphicalView implements IView {
+public class GraphicalView implements ProgressiveView {
   private IPhotoalbum model;
+  private ViewOptions options;
+  private GraphicalViewFrame frame;
 
   /**
    * Initializes the graphical view.
    * @param model Photo album model instance.
    */
   public GraphicalView(IPhotoalbum model) {
+    this(model, new ViewOptions());
+  }
+
+  /**
+   * Initializes the graphical view with options.
+   * @param model Photo album model instance.
+   * @param options Repaint and thumbnail settings.
+   */
+  public GraphicalView(IPhotoalbum model, ViewOptions options) {
     this.model = model;
+    this.options = options;
   }
 
   /**
@@ -25,9 +40,37 @@ public class GraphicalView implements IView {
    */
   @Override
   public void showView(int xMax, int yMax, String outputfile) {
-    javax.swing.SwingUtilities.invokeLater(() -> {
-      GraphicalViewFrame frame = new GraphicalViewFrame(this.model, xMax, yMax);
+    SwingUtilities.invokeLater(() -> {
+      frame = new GraphicalViewFrame(this.model, xMax, yMax, options);
       frame.setVisible(true);
     });
   }
+
+  /**
+   * Opens the viewer window before any snapshot is available.
+   * @param xMax Maximum X dimension of the window.
+   * @param yMax Maximum Y dimension of the window.
+   * @param outputfile Output file for saving view state (unused here).
+   */
+  @Override
+  public void beginView(int xMax, int yMax, String outputfile) {
+    showView(xMax, yMax, outputfile);
+  }
+
+  /**
+   * Makes a newly taken snapshot navigable in the viewer.
+   * @param snapshot The snapshot that was taken.
+   */
+  @Override
+  public void snapshotPublished(ISnapshot snapshot) {
+    // queued after the frame is created, since both run on the EDT in order
+    SwingUtilities.invokeLater(() -> frame.snapshotsAdded());
+  }
+
+  /**
+   * Nothing to do; the viewer stays open after the script is read.
+   */
+  @Override
+  public void finishView() {
+  }
 }
@@ -7,6 +7,7 @@ import model.ISnapshot;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.image.BufferedImage;
 
 /**
  * Frame for displaying graphical photo album snapshots.
@@ -17,18 +18,45 @@ public class GraphicalViewFrame extends JFrame {
   private final JPanel buttonsPanel;
   private final int xMax;
   private final int yMax;
+  private final boolean incrementalRepaint;
+  private final SnapshotPlayer player;
+  private final JSpinner fpsSpinner;
+  private final JButton play;
+  // frames shown and dropped by the last playback; details in the tooltip
+  private final JLabel playbackStatus;
+  private final ThumbnailStrip thumbnails;
+  private GraphicalViewPanel viewPanel;
 
   /**
-   * Constructs the graphical view frame.
+   * Constructs the graphical view frame with default options.
    * @param model Photo album model.
    * @param xMax Maximum width of the frame.
    * @param yMax Maximum height of the frame.
    */
   public GraphicalViewFrame(IPhotoalbum model, int xMax, int yMax) {
+    this(model, xMax, yMax, new ViewOptions());
+  }
+
+  /**
+   * Constructs the graphical view frame.
+   * @param model Photo album model.
+   * @param xMax Maximum width of the frame.
+   * @param yMax Maximum height of the frame.
+   * @param options Repaint and thumbnail settings.
+   */
+  public GraphicalViewFrame(IPhotoalbum model, int xMax, int yMax, ViewOptions options) {
     super("CS5004 Shapes Photo Album Viewer");
     this.controller = new GraphicalViewController(model);
     this.xMax = xMax;
     this.yMax = yMax;
+    this.incrementalRepaint = options.isIncrementalRepaint();
+    this.player = new SnapshotPlayer(controller, xMax, yMax,
+        GraphicalViewPanel.BACKGROUND, new PlayerSink());
+    this.fpsSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 120, 1));
+    this.play = new JButton(" Play ");
+    this.playbackStatus = new JLabel();
+    this.thumbnails = new ThumbnailStrip(controller, xMax, yMax,
+        options.getThumbnailDir(), this::goToSnapshot);
 
     // Initialize frame settings
     setSize(xMax, yMax);
@@ -38,8 +66,12 @@ public class GraphicalViewFrame extends JFrame {
     snapshotPanel = new JPanel(new BorderLayout());
     buttonsPanel = new JPanel(new FlowLayout());
 
+    JPanel southPanel = new JPanel(new BorderLayout());
+    southPanel.add(thumbnails, BorderLayout.CENTER);
+    southPanel.add(buttonsPanel, BorderLayout.SOUTH);
+
     add(snapshotPanel, BorderLayout.CENTER);
-    add(buttonsPanel, BorderLayout.SOUTH);
+    add(southPanel, BorderLayout.SOUTH);
 
     createButtonsPanel(); // Create and add navigation buttons
     displaySnapshot(controller.getCurrentSnapshot());
@@ -59,11 +91,16 @@ public class GraphicalViewFrame extends JFrame {
     next.addActionListener(e -> startSnapshot(1));  // Navigate to next snapshot
     select.addActionListener(this::selectSnapshot);    // Select a specific snapshot
     quit.addActionListener(e -> System.exit(0));       // Exit the application
+    play.addActionListener(e -> togglePlayback());     // Play snapshots as an animation
 
     buttonsPanel.add(prev);
     buttonsPanel.add(next);
     buttonsPanel.add(select);
+    buttonsPanel.add(play);
+    buttonsPanel.add(new JLabel("FPS:"));
+    buttonsPanel.add(fpsSpinner);
     buttonsPanel.add(quit);
+    buttonsPanel.add(playbackStatus);
   }
 
   /**
@@ -71,6 +108,7 @@ public class GraphicalViewFrame extends JFrame {
    * @param direction Navigation direction (-1 for previous, 1 for next).
    */
   private void startSnapshot(int direction) {
+    player.stop();
     if (controller.start(direction)) {
       displaySnapshot(controller.getCurrentSnapshot());
     } else {
@@ -79,20 +117,52 @@ public class GraphicalViewFrame extends JFrame {
     }
   }
 
+  /**
+   * Picks up snapshots appended to the model after the frame was opened.
+   * Must be called on the event dispatch thread.
+   */
+  public void snapshotsAdded() {
+    thumbnails.snapshotsAdded();
+    if (viewPanel == null && controller.getSnapshotCount() > 0) {
+      displaySnapshot(controller.getCurrentSnapshot());
+    }
+  }
+
+  /**
+   * Displays the snapshot picked in the thumbnail strip.
+   * @param index Index of the snapshot.
+   */
+  private void goToSnapshot(int index) {
+    player.stop();
+    if (controller.goTo(index)) {
+      displaySnapshot(controller.getCurrentSnapshot());
+    }
+  }
+
+  /**
+   * Starts or stops animated playback from the current snapshot.
+   */
+  private void togglePlayback() {
+    if (player.isPlaying()) {
+      player.stop();
+    } else if (viewPanel != null) {
+      play.setText(" Pause ");
+      player.start((Integer) fpsSpinner.getValue());
+    }
+  }
+
   /**
    * Opens a dialog to select a snapshot by ID.
    * @param e The triggered action event.
    */
   private void selectSnapshot(ActionEvent e) {
+    player.stop();
     String[] ids = controller.getSnapshotIDs().toArray(new String[0]);
     String selectedId = (String) JOptionPane.showInputDialog(
         this, "Select a Snapshot ID:", "Select Snapshot",
         JOptionPane.QUESTION_MESSAGE, null, ids, ids[0]);
     if (selectedId != null) {
-      ISnapshot snapshot = controller.getSnapshotById(selectedId);
-      if (snapshot != null) {
-        displaySnapshot(snapshot);
-      }
+      goToSnapshot(controller.indexOfSnapshot(selectedId));
     }
   }
 
@@ -101,14 +171,41 @@ public class GraphicalViewFrame extends JFrame {
    * @param snapshot The snapshot to display.
    */
   private void displaySnapshot(ISnapshot snapshot) {
+    if (snapshot != null) {
+      thumbnails.setCurrent(controller.getCurrentIndex());
+    }
+    if (snapshot != null && viewPanel != null) {
+      viewPanel.showSnapshot(snapshot); // Reuses the rendered canvas
+      return;
+    }
     snapshotPanel.removeAll(); // Clear existing content
     if (snapshot == null) {
       snapshotPanel.add(new JLabel("No snapshots available.", SwingConstants.CENTER),
           BorderLayout.CENTER);
     } else {
-      snapshotPanel.add(new GraphicalViewPanel(snapshot, xMax, yMax), BorderLayout.CENTER);
+      viewPanel = new GraphicalViewPanel(snapshot, xMax, yMax, incrementalRepaint);
+      snapshotPanel.add(viewPanel, BorderLayout.CENTER);
     }
     snapshotPanel.revalidate();
     snapshotPanel.repaint();
   }
+
+  /**
+   * Routes playback frames into the snapshot panel.
+   */
+  private class PlayerSink implements SnapshotPlayer.FrameSink {
+    @Override
+    public void showFrame(ISnapshot snapshot, BufferedImage frame) {
+      viewPanel.showFrame(snapshot, frame);
+      thumbnails.setCurrent(controller.getCurrentIndex());
+    }
+
+    @Override
+    public void playbackStopped(PlaybackStats stats) {
+      play.setText(" Play ");
+      playbackStatus.setText(String.format("Shown %d, dropped %d",
+          stats.getFramesShown(), stats.getFramesDropped()));
+      playbackStatus.setToolTipText(stats.toString());
+    }
+  }
 }
@@ -1,19 +1,46 @@
 package views;
 
+import model.Bounds;
 import model.IShape;
 import model.ISnapshot;
-import model.ShapeType;
+import model.ShapeChange;
+import model.SnapshotDiff;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Displays shapes from a snapshot in a graphical panel.
+ * Shapes are rendered into an off-screen canvas that is kept between
+ * snapshots, so stepping to a neighbouring snapshot only redraws the
+ * regions whose shapes changed. Scrolling zooms around the pointer and
+ * dragging pans; zoomed views are drawn from a {@link TilePyramid} whose
+ * tiles render in the background.
  */
 public class GraphicalViewPanel extends JPanel {
-  private final ISnapshot snapshot;
+  static final Color BACKGROUND = Color.LIGHT_GRAY;
+  // above this share of the canvas a full redraw is cheaper than clipping
+  private static final double MAX_DIRTY_FRACTION = 0.5;
+
   private final int xMax;
   private final int yMax;
+  private final boolean incremental;
+  private final JLabel label;
+  private final JPanel drawingPanel;
+  private BufferedImage canvas;
+  private ISnapshot snapshot;
+  // created on first zoom or pan
+  private TilePyramid pyramid;
+  private int zoomLevel;
+  // canvas coordinates shown at the top-left corner of the drawing panel
+  private double viewX;
+  private double viewY;
 
   /**
    * Constructs a graphical view panel.
@@ -22,13 +49,99 @@ public class GraphicalViewPanel extends JPanel {
    * @param yMax Maximum height of the panel.
    */
   public GraphicalViewPanel(ISnapshot snapshot, int xMax, int yMax) {
-    this.snapshot = snapshot;
+    this(snapshot, xMax, yMax, false);
+  }
+
+  /**
+   * Constructs a graphical view panel.
+   * @param snapshot Snapshot to display.
+   * @param xMax Maximum width of the panel.
+   * @param yMax Maximum height of the panel.
+   * @param incremental True to repaint only changed regions between snapshots.
+   */
+  public GraphicalViewPanel(ISnapshot snapshot, int xMax, int yMax, boolean incremental) {
     this.xMax = xMax;
     this.yMax = yMax;
+    this.incremental = incremental;
+    this.label = new JLabel();
+    this.canvas = new BufferedImage(xMax, yMax, BufferedImage.TYPE_INT_RGB);
 
     setLayout(new BorderLayout());
     add(createSnapshotLabelPanel(), BorderLayout.NORTH); // Adds label panel at the top
-    add(createDrawingPanel(), BorderLayout.CENTER); // Adds drawing area at the center
+    drawingPanel = createDrawingPanel();
+    add(drawingPanel, BorderLayout.CENTER); // Adds drawing area at the center
+    showSnapshot(snapshot);
+  }
+
+  /**
+   * Stops the tile workers when the panel leaves its window; the pyramid
+   * is created again if the panel is shown and zoomed once more.
+   */
+  @Override
+  public void removeNotify() {
+    super.removeNotify();
+    if (pyramid != null) {
+      pyramid.shutdown();
+      pyramid = null;
+    }
+  }
+
+  /**
+   * Switches the panel to another snapshot. In incremental mode only the
+   * bounding boxes of shapes that differ from the current snapshot are
+   * redrawn; otherwise the whole canvas is rendered again.
+   * @param next Snapshot to display.
+   */
+  public void showSnapshot(ISnapshot next) {
+    ISnapshot previous = snapshot;
+    snapshot = next;
+    label.setText(formatLabel());
+    if (pyramid != null) {
+      pyramid.setSnapshot(next);
+    }
+    if (!incremental || previous == null) {
+      redrawAll();
+      drawingPanel.repaint();
+      return;
+    }
+    List<Rectangle> dirty = dirtyRegions(SnapshotDiff.between(previous, next));
+    if (dirty == null) {
+      redrawAll();
+      drawingPanel.repaint();
+      return;
+    }
+    redrawRegions(dirty);
+    if (isZoomed()) {
+      drawingPanel.repaint();
+      return;
+    }
+    for (Rectangle region : dirty) {
+      drawingPanel.repaint(region);
+    }
+  }
+
+  /**
+   * Shows a snapshot that was already rendered elsewhere, such as a
+   * prefetched playback frame. The frame becomes the panel's canvas.
+   * @param next Snapshot the frame was rendered from.
+   * @param frame Rendered image of the snapshot, sized xMax by yMax.
+   */
+  public void showFrame(ISnapshot next, BufferedImage frame) {
+    snapshot = next;
+    canvas = frame;
+    label.setText(formatLabel());
+    if (pyramid != null) {
+      pyramid.setSnapshot(next);
+    }
+    drawingPanel.repaint();
+  }
+
+  /**
+   * Gets the snapshot currently displayed.
+   * @return Current snapshot.
+   */
+  public ISnapshot getSnapshot() {
+    return snapshot;
   }
 
   /**
@@ -37,7 +150,6 @@ public class GraphicalViewPanel extends JPanel {
    */
   private JPanel createSnapshotLabelPanel() {
     JPanel labelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-    JLabel label = new JLabel(formatLabel());
     label.setForeground(Color.BLACK);
     labelPanel.add(label);
     return labelPanel;
@@ -57,44 +169,241 @@ public class GraphicalViewPanel extends JPanel {
    * @return Panel for shapes.
    */
   private JPanel createDrawingPanel() {
-    JPanel drawingPanel = new JPanel() {
+    JPanel panel = new JPanel() {
       @Override
       protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        drawShapes(g); // Draws shapes on the panel
+        if (isZoomed()) {
+          paintTiles(g, getWidth(), getHeight());
+        } else {
+          g.drawImage(canvas, 0, 0, null); // Copies the rendered snapshot
+        }
       }
     };
-    drawingPanel.setPreferredSize(new Dimension(xMax, yMax));
-    drawingPanel.setBackground(Color.LIGHT_GRAY);
-    return drawingPanel;
-  }
-
-  /**
-   * Renders shapes from the snapshot.
-   * @param g Graphics context for drawing.
-   */
-  private void drawShapes(Graphics g) {
-    for (IShape shape : snapshot.getShapes()) {
-      // Set the color for the current shape
-      g.setColor(new Color(
-          (int) shape.getColor().getR(),
-          (int) shape.getColor().getG(),
-          (int) shape.getColor().getB()
-      ));
-      int x = (int) shape.getX();
-      int y = (int) shape.getY();
-
-      if (shape.getShapeType() == ShapeType.RECTANGLE) {
-        // Cast to Rectangle and draw
-        int width = (int) ((model.Rectangle) shape).getWidth();
-        int height = (int) ((model.Rectangle) shape).getHeight();
-        g.fillRect(x, y, width, height);
-      } else if (shape.getShapeType() == ShapeType.OVAL) {
-        // Cast to Oval and draw
-        int xRadius = (int) ((model.Oval) shape).getXRadius();
-        int yRadius = (int) ((model.Oval) shape).getYRadius();
-        g.fillOval(x, y, xRadius, yRadius);
+    panel.setPreferredSize(new Dimension(xMax, yMax));
+    panel.setBackground(BACKGROUND);
+    panel.setToolTipText("Scroll to zoom, drag to pan, double-click to reset");
+    MouseAdapter navigation = new MouseAdapter() {
+      private Point last;
+
+      @Override
+      public void mousePressed(MouseEvent e) {
+        last = e.getPoint();
+      }
+
+      @Override
+      public void mouseDragged(MouseEvent e) {
+        double scale = TilePyramid.scaleOf(zoomLevel);
+        panBy((last.x - e.getX()) / scale, (last.y - e.getY()) / scale);
+        last = e.getPoint();
+      }
+
+      @Override
+      public void mouseClicked(MouseEvent e) {
+        if (e.getClickCount() == 2) {
+          zoomLevel = 0;
+          panBy(-viewX, -viewY);
+        }
+      }
+
+      @Override
+      public void mouseWheelMoved(MouseWheelEvent e) {
+        zoomAt(-e.getWheelRotation(), e.getPoint());
+      }
+    };
+    panel.addMouseListener(navigation);
+    panel.addMouseMotionListener(navigation);
+    panel.addMouseWheelListener(navigation);
+    return panel;
+  }
+
+  /**
+   * Checks whether the view differs from the plain 1:1 canvas.
+   * @return True if zoomed or panned.
+   */
+  private boolean isZoomed() {
+    return zoomLevel != 0 || viewX != 0 || viewY != 0;
+  }
+
+  /**
+   * Changes the zoom level, keeping the canvas point under the pointer
+   * in place.
+   * @param steps Levels to zoom in, or out if negative.
+   * @param anchor Pointer position in the drawing panel.
+   */
+  private void zoomAt(int steps, Point anchor) {
+    int level = Math.max(TilePyramid.MIN_LEVEL,
+        Math.min(TilePyramid.MAX_LEVEL, zoomLevel + steps));
+    if (level == zoomLevel) {
+      return;
+    }
+    double oldScale = TilePyramid.scaleOf(zoomLevel);
+    double newScale = TilePyramid.scaleOf(level);
+    viewX += anchor.x / oldScale - anchor.x / newScale;
+    viewY += anchor.y / oldScale - anchor.y / newScale;
+    zoomLevel = level;
+    ensurePyramid();
+    drawingPanel.repaint();
+  }
+
+  /**
+   * Moves the view.
+   * @param dx Canvas units to move right.
+   * @param dy Canvas units to move down.
+   */
+  private void panBy(double dx, double dy) {
+    viewX += dx;
+    viewY += dy;
+    ensurePyramid();
+    drawingPanel.repaint();
+  }
+
+  /**
+   * Creates the tile pyramid the first time the view leaves 1:1.
+   */
+  private void ensurePyramid() {
+    if (pyramid == null) {
+      pyramid = new TilePyramid(BACKGROUND,
+          () -> SwingUtilities.invokeLater(drawingPanel::repaint));
+      pyramid.setSnapshot(snapshot);
+    }
+  }
+
+  /**
+   * Draws the visible tiles of the current zoom level. Tiles that are not
+   * rendered yet are stood in for by their enlarged parent tile. Once the
+   * view is complete the next level's tiles are queued so zooming in is
+   * quick.
+   * @param g Graphics context of the drawing panel.
+   * @param width Panel width.
+   * @param height Panel height.
+   */
+  private void paintTiles(Graphics g, int width, int height) {
+    ensurePyramid();
+    int size = TilePyramid.TILE_SIZE;
+    double scale = TilePyramid.scaleOf(zoomLevel);
+    int originX = (int) Math.floor(viewX * scale);
+    int originY = (int) Math.floor(viewY * scale);
+    int lastColumn = Math.floorDiv(originX + width, size);
+    int lastRow = Math.floorDiv(originY + height, size);
+    boolean complete = true;
+    for (int row = Math.floorDiv(originY, size); row <= lastRow; row++) {
+      for (int column = Math.floorDiv(originX, size); column <= lastColumn; column++) {
+        int x = column * size - originX;
+        int y = row * size - originY;
+        BufferedImage tile = pyramid.getTile(zoomLevel, column, row);
+        BufferedImage parent = tile != null || zoomLevel == TilePyramid.MIN_LEVEL ? null
+            : pyramid.peekTile(zoomLevel - 1, Math.floorDiv(column, 2), Math.floorDiv(row, 2));
+        if (tile != null) {
+          g.drawImage(tile, x, y, null);
+        } else if (parent != null) {
+          int half = size / 2;
+          int sx = Math.floorMod(column, 2) * half;
+          int sy = Math.floorMod(row, 2) * half;
+          g.drawImage(parent, x, y, x + size, y + size, sx, sy, sx + half, sy + half, null);
+        }
+        complete &= tile != null;
+      }
+    }
+    // prefetched tiles must leave room for the visible ones in the cache,
+    // or each would evict the other and the view would never settle
+    int visible = (lastRow - Math.floorDiv(originY, size) + 1)
+        * (lastColumn - Math.floorDiv(originX, size) + 1);
+    int budget = TilePyramid.MAX_TILES - visible;
+    if (complete && zoomLevel < TilePyramid.MAX_LEVEL) {
+      for (int row = Math.floorDiv(originY, size) * 2; row <= lastRow * 2 + 1 && budget > 0;
+           row++) {
+        for (int column = Math.floorDiv(originX, size) * 2;
+             column <= lastColumn * 2 + 1 && budget > 0; column++) {
+          pyramid.prefetch(zoomLevel + 1, column, row);
+          budget--;
+        }
       }
     }
   }
+
+  /**
+   * Renders every shape of the snapshot onto a cleared canvas, in
+   * parallel tiles when the canvas is large.
+   */
+  private void redrawAll() {
+    TiledRenderer.renderInto(canvas, snapshot.getShapes(), BACKGROUND);
+  }
+
+  /**
+   * Clears the given regions and redraws, in z-order, the shapes that
+   * overlap them.
+   * @param regions Canvas regions to refresh.
+   */
+  private void redrawRegions(List<Rectangle> regions) {
+    List<IShape> shapes = snapshot.getShapes();
+    Rectangle[] boxes = new Rectangle[shapes.size()];
+    for (int i = 0; i < boxes.length; i++) {
+      boxes[i] = toPixels(shapes.get(i).getBounds());
+    }
+    Graphics2D g = canvas.createGraphics();
+    try {
+      // rectangular clips keep rasterization identical to a full redraw
+      for (Rectangle region : regions) {
+        g.setClip(region);
+        g.setColor(BACKGROUND);
+        g.fillRect(region.x, region.y, region.width, region.height);
+        for (int i = 0; i < boxes.length; i++) {
+          if (region.intersects(boxes[i])) {
+            ShapePainter.paint(g, shapes.get(i));
+          }
+        }
+      }
+    } finally {
+      g.dispose();
+    }
+  }
+
+  /**
+   * Collects the canvas regions touched by a diff.
+   * @param diff Changes between the displayed and the next snapshot.
+   * @return Regions to redraw, or null if a full redraw is cheaper.
+   */
+  private List<Rectangle> dirtyRegions(SnapshotDiff diff) {
+    List<Rectangle> regions = new ArrayList<>();
+    for (IShape shape : diff.getRemoved()) {
+      regions.add(toPixels(shape.getBounds()));
+    }
+    for (IShape shape : diff.getAdded()) {
+      regions.add(toPixels(shape.getBounds()));
+    }
+    for (ShapeChange change : diff.getChanged()) {
+      if (change.isRestacked()) {
+        return null;
+      }
+      regions.add(toPixels(change.getBefore().getBounds()));
+      regions.add(toPixels(change.getAfter().getBounds()));
+    }
+
+    Rectangle canvasArea = new Rectangle(0, 0, xMax, yMax);
+    List<Rectangle> visible = new ArrayList<>();
+    long area = 0;
+    for (Rectangle region : regions) {
+      Rectangle clipped = region.intersection(canvasArea);
+      if (!clipped.isEmpty()) {
+        visible.add(clipped);
+        area += (long) clipped.width * clipped.height;
+      }
+    }
+    return area > MAX_DIRTY_FRACTION * xMax * yMax ? null : visible;
+  }
+
+  /**
+   * Converts a bounding box to the pixels it covers, with a one pixel
+   * margin for rounding in the painter.
+   * @param bounds Bounding box in canvas coordinates.
+   * @return Covered pixel rectangle.
+   */
+  private static Rectangle toPixels(Bounds bounds) {
+    int x = (int) Math.floor(bounds.getMinX()) - 1;
+    int y = (int) Math.floor(bounds.getMinY()) - 1;
+    int right = (int) Math.ceil(bounds.getMaxX()) + 1;
+    int bottom = (int) Math.ceil(bounds.getMaxY()) + 1;
+    return new Rectangle(x, y, right - x, bottom - y);
+  }
 }
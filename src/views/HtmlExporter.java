@@ -0,0 +1,63 @@
+package views;
+
+import model.ISnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams the web view's single-page HTML, one section per snapshot.
+ */
+class HtmlExporter implements SnapshotExporter {
+  private final File file;
+  private final ViewOptions options;
+  private final StringBuilder section = new StringBuilder();
+  private Writer writer;
+
+  /**
+   * Constructs an HTML exporter.
+   * @param file HTML file to write.
+   * @param options Compression settings.
+   */
+  HtmlExporter(File file, ViewOptions options) {
+    this.file = file;
+    this.options = options;
+  }
+
+  @Override
+  public String getName() {
+    return "html";
+  }
+
+  @Override
+  public void begin(int width, int height) throws IOException {
+    writer = OutputFiles.open(file, options);
+    writer.write(WebView.HTML_HEADER);
+  }
+
+  @Override
+  public void export(int index, ISnapshot snapshot) throws IOException {
+    section.setLength(0);
+    WebView.appendSnapshotHtml(section, snapshot);
+    writer.append(section);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    try (Writer out = writer) {
+      out.write(WebView.HTML_FOOTER);
+    }
+  }
+
+  @Override
+  public void abort() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        // already failing; the original error is the one reported
+      }
+    }
+  }
+}
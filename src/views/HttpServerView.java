@@ -0,0 +1,310 @@
+package views;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.IPhotoalbum;
+import model.ISnapshot;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the photo album from an embedded HTTP server. The index is paged
+ * and each snapshot is rendered to SVG or PNG only when it is requested,
+ * so the browser never has to load the whole album at once.
+ * Routes: "/?page=N" for the index, "/snapshot/I.svg" and
+ * "/snapshot/I.png" for snapshot I (0-based).
+ */
+public class HttpServerView implements IView {
+  private static final int PAGE_SIZE = 50;
+  private static final int CACHE_ENTRIES = 256;
+
+  private final IPhotoalbum model;
+  private final int port;
+  private final Map<String, byte[]> renderCache;
+  private HttpServer server;
+  private ExecutorService executor;
+  private int width;
+  private int height;
+
+  /**
+   * Constructs a server view.
+   * @param model Photo album model.
+   * @param port Port to listen on; 0 picks a free port.
+   */
+  public HttpServerView(IPhotoalbum model, int port) {
+    this.model = model;
+    this.port = port;
+    this.renderCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+        return size() > CACHE_ENTRIES;
+      }
+    };
+  }
+
+  /**
+   * Starts the server and returns; requests are handled on a thread pool.
+   * @param xMax Width of rendered snapshots.
+   * @param yMax Height of rendered snapshots.
+   * @param outputfile Unused.
+   */
+  @Override
+  public void showView(int xMax, int yMax, String outputfile) {
+    this.width = xMax;
+    this.height = yMax;
+    try {
+      // loopback only, so the album is not served to the network
+      server = HttpServer.create(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    } catch (IOException e) {
+      System.err.println("Error starting server: " + e.getMessage());
+      return;
+    }
+    server.createContext("/", this::handle);
+    executor = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()));
+    server.setExecutor(executor);
+    server.start();
+    System.out.println("Serving photo album at http://localhost:" + getPort() + "/");
+  }
+
+  /**
+   * Gets the port the server listens on.
+   * @return Bound port, or -1 if the server is not running.
+   */
+  public int getPort() {
+    return server == null ? -1 : server.getAddress().getPort();
+  }
+
+  /**
+   * Stops the server and its request threads.
+   */
+  public void stop() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  /**
+   * Dispatches a request to the index or snapshot handler.
+   * @param exchange The HTTP exchange.
+   * @throws IOException If the response cannot be written.
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendError(exchange, 405, "Method not allowed");
+        return;
+      }
+      String path = exchange.getRequestURI().getPath();
+      if ("/".equals(path)) {
+        serveIndex(exchange);
+      } else if (path.startsWith("/snapshot/")) {
+        serveSnapshot(exchange, path.substring("/snapshot/".length()));
+      } else {
+        sendError(exchange, 404, "Not found");
+      }
+    }
+  }
+
+  /**
+   * Serves one page of the snapshot index.
+   * @param exchange The HTTP exchange.
+   * @throws IOException If the response cannot be written.
+   */
+  private void serveIndex(HttpExchange exchange) throws IOException {
+    List<ISnapshot> snapshots = model.getSnapshots();
+    int pages = Math.max(1, (snapshots.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    int page = Math.min(pages - 1, Math.max(0, parsePage(exchange.getRequestURI())));
+    int from = page * PAGE_SIZE;
+    int to = Math.min(snapshots.size(), from + PAGE_SIZE);
+
+    StringBuilder html = new StringBuilder();
+    html.append("<!DOCTYPE html><html><head><title>Shapes Photo Album</title></head><body>")
+        .append("<p>Snapshots ").append(from + 1).append("-").append(to)
+        .append(" of ").append(snapshots.size()).append("</p>");
+    for (int i = from; i < to; i++) {
+      ISnapshot snapshot = snapshots.get(i);
+      html.append("<div style=\"background-color:lightgrey;\">")
+          .append("<h2>").append(snapshot.getSnapshotId()).append("</h2>")
+          .append("<p>Description: ").append(snapshot.getDescription()).append("</p>")
+          .append("<img loading=\"lazy\" width=\"").append(width)
+          .append("\" height=\"").append(height)
+          .append("\" src=\"/snapshot/").append(i).append(".svg\"></div>");
+    }
+    if (page > 0) {
+      html.append("<a href=\"/?page=").append(page - 1).append("\">&lt;&lt; Prev</a> ");
+    }
+    if (page < pages - 1) {
+      html.append("<a href=\"/?page=").append(page + 1).append("\">Next &gt;&gt;</a>");
+    }
+    html.append("</body></html>");
+    send(exchange, 200, "text/html; charset=utf-8",
+        html.toString().getBytes(StandardCharsets.UTF_8), null);
+  }
+
+  /**
+   * Serves a rendered snapshot, answering 304 when the client's copy is current.
+   * @param exchange The HTTP exchange.
+   * @param name Requested file name, such as "12.svg".
+   * @throws IOException If the response cannot be written.
+   */
+  private void serveSnapshot(HttpExchange exchange, String name) throws IOException {
+    int dot = name.lastIndexOf('.');
+    String format = dot < 0 ? "" : name.substring(dot + 1);
+    int index;
+    try {
+      index = Integer.parseInt(name.substring(0, Math.max(0, dot)));
+    } catch (NumberFormatException e) {
+      index = -1;
+    }
+    List<ISnapshot> snapshots = model.getSnapshots();
+    if (index < 0 || index >= snapshots.size()
+        || !("svg".equals(format) || "png".equals(format))) {
+      sendError(exchange, 404, "Not found");
+      return;
+    }
+
+    ISnapshot snapshot = snapshots.get(index);
+    String type = "svg".equals(format) ? "image/svg+xml" : "image/png";
+    String key = String.format("%016x-%s", snapshot.getFingerprint(), format);
+    // gzip and identity bodies differ, so each encoding gets its own tag
+    String etag = "\"" + key + (acceptsGzip(exchange, type) ? "-gzip" : "") + "\"";
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      exchange.getResponseHeaders().set("ETag", etag);
+      exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+      exchange.sendResponseHeaders(304, -1);
+      return;
+    }
+    byte[] body = render(snapshot, format, key);
+    send(exchange, 200, type, body, etag);
+  }
+
+  /**
+   * Renders a snapshot, reusing a cached rendering when one exists.
+   * @param snapshot Snapshot to render.
+   * @param format "svg" or "png".
+   * @param key Cache key identifying the snapshot content and format.
+   * @return Encoded image.
+   * @throws IOException If PNG encoding fails.
+   */
+  private byte[] render(ISnapshot snapshot, String format, String key) throws IOException {
+    synchronized (renderCache) {
+      byte[] cached = renderCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    byte[] body;
+    if ("svg".equals(format)) {
+      body = SvgRenderer.generateDocument(snapshot, width, height)
+          .getBytes(StandardCharsets.UTF_8);
+    } else {
+      BufferedImage image = ShapePainter.render(snapshot.getShapes(), width, height,
+          GraphicalViewPanel.BACKGROUND);
+      ByteArrayOutputStream png = new ByteArrayOutputStream();
+      ImageIO.write(image, "png", png);
+      body = png.toByteArray();
+    }
+    synchronized (renderCache) {
+      renderCache.put(key, body);
+    }
+    return body;
+  }
+
+  /**
+   * Sends a response with a known length, so the connection can be kept
+   * alive, gzipping text bodies when the client accepts it.
+   * @param exchange The HTTP exchange.
+   * @param status Status code.
+   * @param type Content type.
+   * @param body Response body.
+   * @param etag Entity tag, or null.
+   * @throws IOException If the response cannot be written.
+   */
+  private void send(HttpExchange exchange, int status, String type, byte[] body, String etag)
+      throws IOException {
+    if (acceptsGzip(exchange, type)) {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(body);
+      }
+      body = compressed.toByteArray();
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    exchange.getResponseHeaders().set("Content-Type", type);
+    exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    if (etag != null) {
+      exchange.getResponseHeaders().set("ETag", etag);
+      exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    }
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Checks whether a response body of this type is sent gzipped.
+   * @param exchange The HTTP exchange.
+   * @param type Content type.
+   * @return True for text bodies when the client accepts gzip.
+   */
+  private static boolean acceptsGzip(HttpExchange exchange, String type) {
+    String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    return !type.startsWith("image/png") && accept != null && accept.contains("gzip");
+  }
+
+  /**
+   * Sends a plain text error.
+   * @param exchange The HTTP exchange.
+   * @param status Status code.
+   * @param message Error message.
+   * @throws IOException If the response cannot be written.
+   */
+  private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+    send(exchange, status, "text/plain; charset=utf-8",
+        message.getBytes(StandardCharsets.UTF_8), null);
+  }
+
+  /**
+   * Reads the page number from the query string.
+   * @param uri Request URI.
+   * @return Page number, or 0 if absent or malformed.
+   */
+  private static int parsePage(URI uri) {
+    String query = uri.getQuery();
+    if (query == null) {
+      return 0;
+    }
+    for (String param : query.split("&")) {
+      if (param.startsWith("page=")) {
+        try {
+          return Integer.parseInt(param.substring("page=".length()));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,55 @@
+package views;
+
+import model.IPhotoalbum;
+import model.ISnapshot;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders the album's last snapshot to a PNG file at any size. Large
+ * canvases are drawn in parallel tiles, so very big scenes render in
+ * reasonable time on machines with many cores.
+ */
+public class ImageView implements IView {
+  private final IPhotoalbum model;
+
+  /**
+   * Constructs an image view.
+   * @param model Photo album model.
+   */
+  public ImageView(IPhotoalbum model) {
+    this.model = model;
+  }
+
+  /**
+   * Writes the last snapshot as a PNG image.
+   * @param xMax Image width.
+   * @param yMax Image height.
+   * @param outputfile PNG file to write.
+   */
+  @Override
+  public void showView(int xMax, int yMax, String outputfile) {
+    List<ISnapshot> snapshots = model.getSnapshots();
+    if (snapshots.isEmpty()) {
+      System.err.println("No snapshots to render.");
+      return;
+    }
+    ISnapshot snapshot = snapshots.get(snapshots.size() - 1);
+    long start = System.nanoTime();
+    BufferedImage image = ShapePainter.render(snapshot.getShapes(), xMax, yMax,
+        GraphicalViewPanel.BACKGROUND);
+    long rendered = System.nanoTime();
+    try {
+      ImageIO.write(image, "png", new File(outputfile));
+      System.out.printf("Rendered %s at %dx%d in %.1f ms, wrote %s in %.1f ms%n",
+          snapshot.getSnapshotId(), xMax, yMax, (rendered - start) / 1e6,
+          outputfile, (System.nanoTime() - rendered) / 1e6);
+    } catch (IOException e) {
+      System.err.println("Error writing image: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package views;
+
+import model.Color;
+import model.IShape;
+import model.ISnapshot;
+import model.Oval;
+import model.Rectangle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the album as UTF-8 JSON Lines: one object per snapshot, one
+ * snapshot per line. Shapes are compact arrays,
+ * {@code [name, type, x, y, w, h, r, g, b]}, where x and y are the
+ * top-left corner of a rectangle or of an oval's bounding box, as the model
+ * stores them, and w and h are a rectangle's size or an oval's radii; an
+ * oval's center is (x + w, y + h). Each snapshot is streamed straight to
+ * the writer, so no text is built per shape and memory does not grow with
+ * the album. Numbers are written exactly, so importing the file gives back the
+ * same shapes.
+ */
+class NdjsonExporter implements SnapshotExporter {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final File file;
+  private final ViewOptions options;
+  private Writer writer;
+
+  /**
+   * Constructs a JSON Lines exporter.
+   * @param file File to write.
+   * @param options Compression settings.
+   */
+  NdjsonExporter(File file, ViewOptions options) {
+    this.file = file;
+    this.options = options;
+  }
+
+  @Override
+  public String getName() {
+    return "ndjson";
+  }
+
+  @Override
+  public void begin(int width, int height) throws IOException {
+    writer = OutputFiles.open(file, options, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void export(int index, ISnapshot snapshot) throws IOException {
+    writeSnapshot(writer, snapshot);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    writer.close();
+  }
+
+  @Override
+  public void abort() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        // already failing; the original error is the one reported
+      }
+    }
+  }
+
+  /**
+   * Writes one snapshot as a line of JSON.
+   * @param out Writer to append to.
+   * @param snapshot Snapshot to write.
+   * @throws IOException If writing fails.
+   */
+  static void writeSnapshot(Writer out, ISnapshot snapshot) throws IOException {
+    out.write("{\"id\":");
+    writeString(out, snapshot.getSnapshotId());
+    out.write(",\"timestamp\":");
+    writeString(out, snapshot.getTimestamp());
+    out.write(",\"description\":");
+    writeString(out, snapshot.getDescription());
+    out.write(",\"shapes\":[");
+    boolean first = true;
+    for (IShape shape : snapshot.getShapes()) {
+      if (!first) {
+        out.write(',');
+      }
+      first = false;
+      writeShape(out, shape);
+    }
+    out.write("]}\n");
+  }
+
+  /**
+   * Writes one shape as a compact array.
+   * @param out Writer to append to.
+   * @param shape Shape to write.
+   * @throws IOException If writing fails.
+   */
+  private static void writeShape(Writer out, IShape shape) throws IOException {
+    out.write('[');
+    writeString(out, shape.getName());
+    if (shape instanceof Rectangle rectangle) {
+      out.write(",\"rectangle\",");
+      writeNumbers(out, rectangle.getX(), rectangle.getY(), rectangle.getWidth(),
+          rectangle.getHeight());
+    } else if (shape instanceof Oval oval) {
+      out.write(",\"oval\",");
+      writeNumbers(out, oval.getX(), oval.getY(), oval.getXRadius(), oval.getYRadius());
+    } else {
+      throw new IllegalArgumentException("Unsupported shape: " + shape.getShapeType());
+    }
+    Color color = shape.getColor();
+    out.write(',');
+    writeNumbers(out, color.getR(), color.getG(), color.getB());
+    out.write(']');
+  }
+
+  /**
+   * Writes numbers separated by commas.
+   * @param out Writer to append to.
+   * @param values Numbers to write.
+   * @throws IOException If writing fails.
+   */
+  private static void writeNumbers(Writer out, double... values) throws IOException {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      writeNumber(out, values[i]);
+    }
+  }
+
+  /**
+   * Writes a number, without a fraction when it is whole.
+   * @param out Writer to append to.
+   * @param value Number to write; must be finite.
+   * @throws IOException If writing fails.
+   */
+  private static void writeNumber(Writer out, double value) throws IOException {
+    if (value == (long) value && Math.abs(value) < 1e15) {
+      out.write(Long.toString((long) value));
+    } else {
+      out.write(Double.toString(value));
+    }
+  }
+
+  /**
+   * Writes a quoted JSON string, escaping quotes, backslashes and control
+   * characters.
+   * @param out Writer to append to.
+   * @param value Text to write; null is written as an empty string.
+   * @throws IOException If writing fails.
+   */
+  private static void writeString(Writer out, String value) throws IOException {
+    out.write('"');
+    if (value != null) {
+      int start = 0;
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c != '"' && c != '\\' && c >= 0x20) {
+          continue;
+        }
+        out.write(value, start, i - start);
+        start = i + 1;
+        switch (c) {
+          case '"' -> out.write("\\\"");
+          case '\\' -> out.write("\\\\");
+          case '\n' -> out.write("\\n");
+          case '\r' -> out.write("\\r");
+          case '\t' -> out.write("\\t");
+          default -> {
+            out.write("\\u00");
+            out.write(HEX[c >> 4]);
+            out.write(HEX[c & 0xf]);
+          }
+        }
+      }
+      out.write(value, start, value.length() - start);
+    }
+    out.write('"');
+  }
+}
@@ -0,0 +1,66 @@
+package views;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Opens the text files written by the views, compressing them when the
+ * options ask for gzip output.
+ */
+final class OutputFiles {
+  private static final String GZIP_SUFFIX = ".gz";
+
+  private OutputFiles() {
+  }
+
+  /**
+   * Gets the file actually written for a requested output file.
+   * @param file Requested output file.
+   * @param options Export settings.
+   * @return The file, with ".gz" appended when compressing.
+   */
+  static File target(File file, ViewOptions options) {
+    if (!options.isGzip() || file.getName().endsWith(GZIP_SUFFIX)) {
+      return file;
+    }
+    return new File(file.getPath() + GZIP_SUFFIX);
+  }
+
+  /**
+   * Opens a writer for an output file.
+   * @param file Requested output file.
+   * @param options Export settings.
+   * @return Buffered writer, compressing on a separate thread if enabled.
+   * @throws IOException If the file cannot be opened.
+   */
+  static Writer open(File file, ViewOptions options) throws IOException {
+    return open(file, options, Charset.defaultCharset());
+  }
+
+  /**
+   * Opens a writer for an output file in a given encoding.
+   * @param file Requested output file.
+   * @param options Export settings.
+   * @param charset Encoding of the text.
+   * @return Buffered writer, compressing on a separate thread if enabled.
+   * @throws IOException If the file cannot be opened.
+   */
+  static Writer open(File file, ViewOptions options, Charset charset) throws IOException {
+    OutputStream out = new FileOutputStream(target(file, options));
+    if (options.isGzip()) {
+      try {
+        out = new AsyncGzipOutputStream(out, options.getGzipLevel());
+      } catch (IOException e) {
+        out.close();
+        throw e;
+      }
+    }
+    return new BufferedWriter(new OutputStreamWriter(out, charset));
+  }
+}
@@ -0,0 +1,178 @@
+package views;
+
+import model.ISnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Splits the web export into a small index page and separate files that
+ * the browser loads only as they scroll into view. Snapshots are grouped
+ * into HTML page files, or written as one SVG file each. The extra files
+ * go in a "name_files" directory next to the index and are written in
+ * parallel. With gzip output every file gets a ".gz" suffix while links
+ * keep the plain names, as web servers expect for precompressed files.
+ */
+public class PagedWebExporter {
+  private static final int SNAPSHOT_HEIGHT = 800;
+  // rough height of a snapshot's heading and description
+  private static final int SECTION_OVERHEAD = 120;
+  private static final String LAZY_LOAD_SCRIPT = "<script>"
+      + "const lazy=new IntersectionObserver(entries=>{for(const e of entries){"
+      + "if(e.isIntersecting){e.target.src=e.target.dataset.src;lazy.unobserve(e.target);}}},"
+      + "{rootMargin:\"1000px\"});"
+      + "document.querySelectorAll(\"[data-src]\").forEach(el=>lazy.observe(el));"
+      + "</script>";
+
+  private final ViewOptions options;
+
+  /**
+   * Constructs an exporter.
+   * @param options Page size and SVG file settings.
+   */
+  public PagedWebExporter(ViewOptions options) {
+    this.options = options;
+  }
+
+  /**
+   * Writes the index page and its page or SVG files.
+   * @param snapshots Snapshots to export.
+   * @param indexFile Index page to write.
+   * @return HTML content of the index page.
+   * @throws IOException If any file cannot be written.
+   */
+  public String export(List<ISnapshot> snapshots, File indexFile) throws IOException {
+    String baseName = indexFile.getName().replaceFirst("\\.[^.]*$", "");
+    String dirName = baseName + "_files";
+    File dir = new File(indexFile.getAbsoluteFile().getParentFile(), dirName);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Unable to create directory " + dir);
+    }
+
+    StringBuilder index = new StringBuilder(WebView.HTML_HEADER);
+    List<FileTask> tasks = new ArrayList<>();
+    if (options.isSvgPerSnapshot()) {
+      for (int i = 0; i < snapshots.size(); i++) {
+        ISnapshot snapshot = snapshots.get(i);
+        String name = String.format("snapshot-%06d.svg", i + 1);
+        index.append("<div style=\"background-color:lightgrey;\">")
+            .append("<h2>").append(snapshot.getSnapshotId()).append("</h2>")
+            .append("<p>Description: ").append(snapshot.getDescription()).append("</p>")
+            .append("<img width=\"800\" height=\"800\" data-src=\"")
+            .append(dirName).append('/').append(name).append("\"></div>");
+        tasks.add(new FileTask(new File(dir, name), () -> svgFile(snapshot)));
+      }
+    } else {
+      int pageSize = options.getPageSize();
+      for (int from = 0; from < snapshots.size(); from += pageSize) {
+        List<ISnapshot> page = snapshots.subList(from,
+            Math.min(snapshots.size(), from + pageSize));
+        String name = String.format("page-%06d.html", from / pageSize + 1);
+        index.append("<iframe title=\"Snapshots ").append(from + 1).append('-')
+            .append(from + page.size()).append("\" style=\"width:100%;border:0;height:")
+            .append(page.size() * (SNAPSHOT_HEIGHT + SECTION_OVERHEAD))
+            .append("px\" data-src=\"").append(dirName).append('/').append(name)
+            .append("\"></iframe>");
+        tasks.add(new FileTask(new File(dir, name), () -> pageFile(page)));
+      }
+    }
+    index.append(LAZY_LOAD_SCRIPT).append(WebView.HTML_FOOTER);
+
+    writeAll(tasks);
+    String html = index.toString();
+    write(indexFile, html);
+    return html;
+  }
+
+  /**
+   * Builds the SVG file for one snapshot.
+   * @param snapshot Snapshot to render.
+   * @return SVG document.
+   */
+  private String svgFile(ISnapshot snapshot) {
+    if (options.isCompactSvg()) {
+      return new CompactSvgWriter(List.of(snapshot)).svgDocument(snapshot, 800, 800);
+    }
+    return SvgRenderer.generateDocument(snapshot, 800, 800);
+  }
+
+  /**
+   * Builds a standalone page for a group of snapshots.
+   * @param page Snapshots on the page.
+   * @return Page HTML.
+   */
+  private String pageFile(List<ISnapshot> page) {
+    if (options.isCompactSvg()) {
+      return new CompactSvgWriter(page).htmlDocument(page);
+    }
+    StringBuilder html = new StringBuilder(WebView.HTML_HEADER);
+    for (ISnapshot snapshot : page) {
+      WebView.appendSnapshotHtml(html, snapshot);
+    }
+    return html.append(WebView.HTML_FOOTER).toString();
+  }
+
+  /**
+   * Generates and writes files on a thread pool.
+   * @param tasks Files to write.
+   * @throws IOException If any file cannot be written.
+   */
+  private void writeAll(List<FileTask> tasks) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors())));
+    try {
+      List<Future<?>> pending = new ArrayList<>();
+      for (FileTask task : tasks) {
+        pending.add(pool.submit(() -> {
+          write(task.file, task.content.get());
+          return null;
+        }));
+      }
+      for (Future<?> future : pending) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while writing pages", e);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Writes text to a file, compressed if the options ask for it.
+   * @param file File to write.
+   * @param content Text to write.
+   * @throws IOException If writing fails.
+   */
+  private void write(File file, String content) throws IOException {
+    try (Writer writer = OutputFiles.open(file, options)) {
+      writer.write(content);
+    }
+  }
+
+  /**
+   * A file and the content to generate for it.
+   */
+  private static final class FileTask {
+    private final File file;
+    private final Supplier<String> content;
+
+    private FileTask(File file, Supplier<String> content) {
+      this.file = file;
+      this.content = content;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package views;
+
+/**
+ * Collects per-frame timing figures during snapshot playback.
+ */
+public class PlaybackStats {
+  private int framesShown;
+  private int framesDropped;
+  private long lastShownNanos;
+  private long totalIntervalNanos;
+  private long maxIntervalNanos;
+  private long totalRasterNanos;
+  private int framesRasterized;
+
+  /**
+   * Records that a frame was put on screen.
+   * @param nowNanos Time the frame was shown.
+   */
+  public synchronized void frameShown(long nowNanos) {
+    if (framesShown > 0) {
+      long interval = nowNanos - lastShownNanos;
+      totalIntervalNanos += interval;
+      maxIntervalNanos = Math.max(maxIntervalNanos, interval);
+    }
+    lastShownNanos = nowNanos;
+    framesShown++;
+  }
+
+  /**
+   * Records frames that were skipped because they were not ready in time.
+   * @param count Number of skipped frames.
+   */
+  public synchronized void framesDropped(int count) {
+    framesDropped += count;
+  }
+
+  /**
+   * Records how long rasterizing one frame took.
+   * @param nanos Raster time.
+   */
+  public synchronized void frameRasterized(long nanos) {
+    totalRasterNanos += nanos;
+    framesRasterized++;
+  }
+
+  /**
+   * Gets the number of frames shown.
+   * @return Frames shown.
+   */
+  public synchronized int getFramesShown() {
+    return framesShown;
+  }
+
+  /**
+   * Gets the number of frames dropped.
+   * @return Frames dropped.
+   */
+  public synchronized int getFramesDropped() {
+    return framesDropped;
+  }
+
+  /**
+   * Gets the mean time between shown frames.
+   * @return Average interval in milliseconds.
+   */
+  public synchronized double getAverageIntervalMillis() {
+    return framesShown < 2 ? 0 : totalIntervalNanos / 1e6 / (framesShown - 1);
+  }
+
+  /**
+   * Gets the longest time between shown frames.
+   * @return Maximum interval in milliseconds.
+   */
+  public synchronized double getMaxIntervalMillis() {
+    return maxIntervalNanos / 1e6;
+  }
+
+  /**
+   * Gets the mean time spent rasterizing a frame.
+   * @return Average raster time in milliseconds.
+   */
+  public synchronized double getAverageRasterMillis() {
+    return framesRasterized == 0 ? 0 : totalRasterNanos / 1e6 / framesRasterized;
+  }
+
+  /**
+   * Returns a summary of the collected timings.
+   * @return Timing summary.
+   */
+  @Override
+  public synchronized String toString() {
+    return String.format("Shown: %d, Dropped: %d, Avg interval: %.2f ms, "
+            + "Max interval: %.2f ms, Avg raster: %.2f ms",
+        framesShown, framesDropped, getAverageIntervalMillis(),
+        getMaxIntervalMillis(), getAverageRasterMillis());
+  }
+}
@@ -0,0 +1,55 @@
+package views;
+
+import model.ISnapshot;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Renders every snapshot to a PNG frame, named by snapshot ID.
+ */
+class PngFramesExporter implements SnapshotExporter {
+  private final File dir;
+  private int width;
+  private int height;
+
+  /**
+   * Constructs a PNG exporter.
+   * @param dir Directory for the frames.
+   */
+  PngFramesExporter(File dir) {
+    this.dir = dir;
+  }
+
+  @Override
+  public String getName() {
+    return "png";
+  }
+
+  @Override
+  public void begin(int width, int height) throws IOException {
+    this.width = width;
+    this.height = height;
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot create " + dir);
+    }
+  }
+
+  @Override
+  public void export(int index, ISnapshot snapshot) throws IOException {
+    BufferedImage image = ShapePainter.render(snapshot.getShapes(), width, height,
+        GraphicalViewPanel.BACKGROUND);
+    ImageIO.write(image, "png", new File(dir, snapshot.getSnapshotId() + ".png"));
+  }
+
+  @Override
+  public void finish() {
+  }
+
+  @Override
+  public void abort() {
+    // each file is closed as soon as it is written
+  }
+}
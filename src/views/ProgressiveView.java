@@ -0,0 +1,29 @@
+package views;
+
+import model.ISnapshot;
+
+/**
+ * A view that can show snapshots one at a time while the script that
+ * produces them is still being read.
+ */
+public interface ProgressiveView extends IView {
+
+  /**
+   * Opens the view before any snapshot is available.
+   * @param xMax Maximum width of the view window.
+   * @param yMax Maximum height of the view window.
+   * @param outputfile Output file for saving view state (if applicable).
+   */
+  void beginView(int xMax, int yMax, String outputfile);
+
+  /**
+   * Adds a newly taken snapshot to the view.
+   * @param snapshot The snapshot to show.
+   */
+  void snapshotPublished(ISnapshot snapshot);
+
+  /**
+   * Signals that no more snapshots will be published.
+   */
+  void finishView();
+}
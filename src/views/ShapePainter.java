@@ -0,0 +1,76 @@
+package views;
+
+import model.IShape;
+import model.ShapeType;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws model shapes onto an AWT graphics context.
+ */
+public final class ShapePainter {
+
+  private ShapePainter() {
+  }
+
+  /**
+   * Renders shapes into a new image. Large images are drawn in parallel
+   * tiles by {@link TiledRenderer}.
+   * @param shapes Shapes to draw, bottom-most first.
+   * @param width Image width.
+   * @param height Image height.
+   * @param background Color to clear the image with.
+   * @return Rendered image.
+   */
+  public static BufferedImage render(Iterable<IShape> shapes, int width, int height,
+                                     Color background) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    TiledRenderer.renderInto(image, shapes, background);
+    return image;
+  }
+
+  /**
+   * Draws every shape in order, so later shapes end up on top.
+   * @param g Graphics context for drawing.
+   * @param shapes Shapes to draw.
+   */
+  public static void paintAll(Graphics g, Iterable<IShape> shapes) {
+    for (IShape shape : shapes) {
+      paint(g, shape);
+    }
+  }
+
+  /**
+   * Draws a single shape.
+   * @param g Graphics context for drawing.
+   * @param shape Shape to draw.
+   */
+  public static void paint(Graphics g, IShape shape) {
+    // Set the color for the current shape
+    g.setColor(toAwtColor(shape.getColor()));
+    int x = (int) shape.getX();
+    int y = (int) shape.getY();
+
+    if (shape.getShapeType() == ShapeType.RECTANGLE) {
+      // Cast to Rectangle and draw
+      int width = (int) ((model.Rectangle) shape).getWidth();
+      int height = (int) ((model.Rectangle) shape).getHeight();
+      g.fillRect(x, y, width, height);
+    } else if (shape.getShapeType() == ShapeType.OVAL) {
+      // Cast to Oval and draw
+      int xRadius = (int) ((model.Oval) shape).getXRadius();
+      int yRadius = (int) ((model.Oval) shape).getYRadius();
+      g.fillOval(x, y, xRadius, yRadius);
+    }
+  }
+
+  /**
+   * Converts a model color to an AWT color.
+   * @param color Model color.
+   * @return Matching AWT color.
+   */
+  public static Color toAwtColor(model.Color color) {
+    return new Color((int) color.getR(), (int) color.getG(), (int) color.getB());
+  }
+}
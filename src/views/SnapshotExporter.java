@@ -0,0 +1,50 @@
+package views;
+
+import model.ISnapshot;
+
+import java.io.IOException;
+
+/**
+ * Writes snapshots to one output format. An {@link ExportPipeline} calls
+ * {@link #begin} once, then {@link #export} for each snapshot in order,
+ * then {@link #finish}, or {@link #abort} as soon as any of them fails,
+ * all on one thread per exporter, so implementations need no locking of
+ * their own.
+ */
+public interface SnapshotExporter {
+
+  /**
+   * Gets a short name for reports, such as the format.
+   * @return Exporter name.
+   */
+  String getName();
+
+  /**
+   * Prepares the output.
+   * @param width Canvas width.
+   * @param height Canvas height.
+   * @throws IOException If the output cannot be created.
+   */
+  void begin(int width, int height) throws IOException;
+
+  /**
+   * Writes one snapshot.
+   * @param index Position of the snapshot in the album.
+   * @param snapshot Snapshot to write; shared with other exporters, so it
+   *     must not be changed.
+   * @throws IOException If writing fails.
+   */
+  void export(int index, ISnapshot snapshot) throws IOException;
+
+  /**
+   * Completes the output after the last snapshot.
+   * @throws IOException If writing fails.
+   */
+  void finish() throws IOException;
+
+  /**
+   * Releases whatever {@link #begin} opened after a step failed. Called at
+   * most once, possibly before begin opened anything; it must not throw.
+   */
+  void abort();
+}
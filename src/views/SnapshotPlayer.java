@@ -0,0 +1,204 @@
+package views;
+
+import controller.GraphicalViewController;
+import model.ISnapshot;
+
+import javax.swing.Timer;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays snapshots back as an animation at a fixed frame rate.
+ * A Swing timer drives frame advances on the event dispatch thread while
+ * upcoming frames are rasterized ahead of time on a background pool.
+ * Frames that are not ready by their deadline are dropped rather than
+ * delaying the frames after them.
+ */
+public class SnapshotPlayer {
+  // number of frames rasterized ahead of the one on screen
+  private static final int FRAMES_AHEAD = 8;
+
+  /**
+   * Receives frames as playback advances. Called on the event dispatch thread.
+   */
+  public interface FrameSink {
+    /**
+     * Shows a rasterized frame.
+     * @param snapshot Snapshot the frame was rendered from.
+     * @param frame Rendered image of the snapshot.
+     */
+    void showFrame(ISnapshot snapshot, BufferedImage frame);
+
+    /**
+     * Signals that playback stopped.
+     * @param stats Timing figures for the run.
+     */
+    void playbackStopped(PlaybackStats stats);
+  }
+
+  private final GraphicalViewController controller;
+  private final int width;
+  private final int height;
+  private final Color background;
+  private final FrameSink sink;
+  private final Map<Integer, Future<BufferedImage>> pending = new TreeMap<>();
+  private ExecutorService rasterPool;
+  private Timer timer;
+  private PlaybackStats stats;
+  private int fps;
+  private int startIndex;
+  private long startNanos;
+  private int shownIndex;
+
+  /**
+   * Constructs a player over the controller's snapshots.
+   * @param controller Controller holding the snapshots and current position.
+   * @param width Frame width.
+   * @param height Frame height.
+   * @param background Color frames are cleared with.
+   * @param sink Receiver of frames.
+   */
+  public SnapshotPlayer(GraphicalViewController controller, int width, int height,
+                        Color background, FrameSink sink) {
+    this.controller = controller;
+    this.width = width;
+    this.height = height;
+    this.background = background;
+    this.sink = sink;
+  }
+
+  /**
+   * Starts playing from the controller's current snapshot.
+   * @param fps Frames per second.
+   * @throws IllegalArgumentException If fps is not positive.
+   */
+  public void start(int fps) {
+    if (fps <= 0) {
+      throw new IllegalArgumentException("Frame rate must be positive.");
+    }
+    stop();
+    this.fps = fps;
+    this.stats = new PlaybackStats();
+    this.startIndex = controller.getCurrentIndex();
+    this.shownIndex = startIndex;
+    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    rasterPool = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "snapshot-raster");
+      thread.setDaemon(true);
+      return thread;
+    });
+    prefetch(startIndex + 1, startIndex + FRAMES_AHEAD);
+    startNanos = System.nanoTime();
+    timer = new Timer(Math.max(1, 1000 / fps), e -> tick());
+    timer.setCoalesce(true);
+    timer.start();
+  }
+
+  /**
+   * Stops playback and reports the timing figures.
+   */
+  public void stop() {
+    if (timer == null) {
+      return;
+    }
+    timer.stop();
+    timer = null;
+    rasterPool.shutdownNow();
+    pending.clear();
+    sink.playbackStopped(stats);
+  }
+
+  /**
+   * Checks whether playback is running.
+   * @return True if playing.
+   */
+  public boolean isPlaying() {
+    return timer != null;
+  }
+
+  /**
+   * Advances to the frame due at the current time, showing the newest
+   * ready frame up to it and dropping any frames skipped over.
+   */
+  private void tick() {
+    int last = controller.getSnapshotCount() - 1;
+    long elapsed = System.nanoTime() - startNanos;
+    int target = (int) Math.min(last, startIndex + elapsed * fps / 1_000_000_000L);
+    for (int index = target; index > shownIndex; index--) {
+      Future<BufferedImage> frame = pending.get(index);
+      if (frame != null && frame.isDone() && !frame.isCancelled()) {
+        show(index, frame);
+        break;
+      }
+    }
+    if (shownIndex >= last) {
+      stop();
+      return;
+    }
+    prefetch(shownIndex + 1, Math.min(last, target + FRAMES_AHEAD));
+  }
+
+  /**
+   * Puts a ready frame on screen and forgets the frames before it.
+   * @param index Snapshot index of the frame.
+   * @param frame Completed raster task.
+   */
+  private void show(int index, Future<BufferedImage> frame) {
+    BufferedImage image;
+    try {
+      image = frame.get();
+    } catch (Exception e) {
+      return;
+    }
+    stats.framesDropped(index - shownIndex - 1);
+    shownIndex = index;
+    controller.goTo(index);
+    sink.showFrame(controller.getSnapshot(index), image);
+    stats.frameShown(System.nanoTime());
+
+    Iterator<Map.Entry<Integer, Future<BufferedImage>>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Integer, Future<BufferedImage>> entry = it.next();
+      if (entry.getKey() > index) {
+        break;
+      }
+      entry.getValue().cancel(false);
+      it.remove();
+    }
+  }
+
+  /**
+   * Schedules rasterization of frames that are not already queued.
+   * @param from First snapshot index.
+   * @param to Last snapshot index, inclusive.
+   */
+  private void prefetch(int from, int to) {
+    int last = controller.getSnapshotCount() - 1;
+    for (int index = from; index <= Math.min(to, last); index++) {
+      if (!pending.containsKey(index)) {
+        ISnapshot snapshot = controller.getSnapshot(index);
+        PlaybackStats runStats = stats;
+        pending.put(index, rasterPool.submit(() -> rasterize(snapshot, runStats)));
+      }
+    }
+  }
+
+  /**
+   * Renders a snapshot off the event dispatch thread.
+   * @param snapshot Snapshot to render.
+   * @param runStats Statistics of the run the frame belongs to.
+   * @return Rendered frame.
+   */
+  private BufferedImage rasterize(ISnapshot snapshot, PlaybackStats runStats) {
+    long begin = System.nanoTime();
+    BufferedImage image = ShapePainter.render(snapshot.getShapes(), width, height, background);
+    runStats.frameRasterized(System.nanoTime() - begin);
+    return image;
+  }
+}
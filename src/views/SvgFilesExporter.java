@@ -0,0 +1,62 @@
+package views;
+
+import model.ISnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes one standalone SVG file per snapshot, named by snapshot ID.
+ */
+class SvgFilesExporter implements SnapshotExporter {
+  private final File dir;
+  private final ViewOptions options;
+  private int width;
+  private int height;
+
+  /**
+   * Constructs an SVG exporter.
+   * @param dir Directory for the files.
+   * @param options Compact SVG and compression settings.
+   */
+  SvgFilesExporter(File dir, ViewOptions options) {
+    this.dir = dir;
+    this.options = options;
+  }
+
+  @Override
+  public String getName() {
+    return "svg";
+  }
+
+  @Override
+  public void begin(int width, int height) throws IOException {
+    this.width = width;
+    this.height = height;
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot create " + dir);
+    }
+  }
+
+  @Override
+  public void export(int index, ISnapshot snapshot) throws IOException {
+    String svg = options.isCompactSvg()
+        ? new CompactSvgWriter(List.of(snapshot)).svgDocument(snapshot, width, height)
+        : SvgRenderer.generateDocument(snapshot, width, height);
+    File file = new File(dir, snapshot.getSnapshotId() + ".svg");
+    try (Writer writer = OutputFiles.open(file, options)) {
+      writer.write(svg);
+    }
+  }
+
+  @Override
+  public void finish() {
+  }
+
+  @Override
+  public void abort() {
+    // each file is closed as soon as it is written
+  }
+}
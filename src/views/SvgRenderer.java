@@ -0,0 +1,100 @@
+package views;
+
+import model.Color;
+import model.IShape;
+import model.ISnapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts snapshots and shapes to SVG markup.
+ */
+public final class SvgRenderer {
+  // formatted SVG colors by packed RGB, shared by every album in the JVM
+  private static final Map<Integer, String> COLOR_CACHE = new ConcurrentHashMap<>();
+
+  private SvgRenderer() {
+  }
+
+  /**
+   * Generates a standalone SVG document for a snapshot.
+   * @param snapshot Snapshot to process.
+   * @param width Document width.
+   * @param height Document height.
+   * @return SVG document as a string.
+   */
+  public static String generateDocument(ISnapshot snapshot, int width, int height) {
+    return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width
+        + "\" height=\"" + height + "\">" + generateSvg(snapshot) + "</svg>";
+  }
+
+  /**
+   * Generates SVG content for a snapshot.
+   * @param snapshot Snapshot to process.
+   * @return SVG content as a string.
+   */
+  public static String generateSvg(ISnapshot snapshot) {
+    StringBuilder svgBuilder = new StringBuilder();
+    for (IShape shape : snapshot.getShapes()) {
+      svgBuilder.append(generateShapeSvg(shape));
+    }
+    return svgBuilder.toString();
+  }
+
+  /**
+   * Generates SVG content for a single shape.
+   * @param shape Shape to process.
+   * @return SVG representation of the shape.
+   */
+  private static String generateShapeSvg(IShape shape) {
+    String color = formatColor(shape.getColor());
+    return switch (shape.getShapeType()) {
+      case RECTANGLE -> generateRectangleSvg((model.Rectangle) shape, color);
+      case OVAL -> generateOvalSvg((model.Oval) shape, color);
+      default -> "";
+    };
+  }
+
+  /**
+   * Generates SVG for a rectangle.
+   * @param rectangle Rectangle shape.
+   * @param color Shape color in SVG format.
+   * @return SVG string for the rectangle.
+   */
+  private static String generateRectangleSvg(model.Rectangle rectangle, String color) {
+    return String.format("<rect x=\"%.1f\" y=\"%.1f\" "
+           + "width=\"%.1f\" height=\"%.1f\" style=\"fill:%s\" />",
+        rectangle.getX(), rectangle.getY(),
+        rectangle.getWidth(), rectangle.getHeight(),
+        color);
+  }
+
+  /**
+   * Generates SVG for an oval.
+   * @param oval Oval shape.
+   * @param color Shape color in SVG format.
+   * @return SVG string for the oval.
+   */
+  private static String generateOvalSvg(model.Oval oval, String color) {
+    return String.format("<ellipse cx=\"%.1f\" cy=\"%.1f\" "
+            + "rx=\"%.1f\" ry=\"%.1f\" style=\"fill:%s\" />",
+        oval.getX() + oval.getXRadius(),
+        oval.getY() + oval.getYRadius(),
+        oval.getXRadius(), oval.getYRadius(),
+        color);
+  }
+
+  /**
+   * Formats a color for SVG.
+   * @param color Color object.
+   * @return Color in "rgb(r,g,b)" format.
+   */
+  private static String formatColor(Color color) {
+    int r = (int) color.getR();
+    int g = (int) color.getG();
+    int b = (int) color.getB();
+    return COLOR_CACHE.computeIfAbsent((r << 16) | (g << 8) | b,
+        rgb -> String.format("rgb(%d,%d,%d)", r, g, b));
+  }
+}
@@ -0,0 +1,148 @@
+package views;
+
+import model.ISnapshot;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded cache of snapshot thumbnails. The least recently used
+ * thumbnails are evicted first. When a directory is given, thumbnails are
+ * also written there as PNG files named after the snapshot's content
+ * fingerprint and the thumbnail and canvas sizes, so later runs over the
+ * same album skip rendering.
+ */
+public class ThumbnailCache {
+  private final int width;
+  private final int height;
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final File diskDir;
+  private final Map<Long, BufferedImage> images;
+
+  /**
+   * Constructs a thumbnail cache.
+   * @param width Thumbnail width.
+   * @param height Thumbnail height.
+   * @param canvasWidth Width of the full-size canvas.
+   * @param canvasHeight Height of the full-size canvas.
+   * @param maxEntries Maximum number of thumbnails kept in memory.
+   * @param diskDir Directory to persist thumbnails in, or null.
+   */
+  public ThumbnailCache(int width, int height, int canvasWidth, int canvasHeight,
+                        int maxEntries, File diskDir) {
+    this.width = width;
+    this.height = height;
+    this.canvasWidth = canvasWidth;
+    this.canvasHeight = canvasHeight;
+    this.diskDir = diskDir;
+    this.images = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    if (diskDir != null && !diskDir.isDirectory() && !diskDir.mkdirs()) {
+      System.err.println("Error: Unable to create thumbnail directory " + diskDir);
+    }
+  }
+
+  /**
+   * Gets a cached thumbnail without rendering it.
+   * @param snapshot Snapshot to look up.
+   * @return Thumbnail, or null if it is not in memory.
+   */
+  public synchronized BufferedImage getIfPresent(ISnapshot snapshot) {
+    return images.get(snapshot.getFingerprint());
+  }
+
+  /**
+   * Gets a thumbnail, loading it from disk or rendering it if needed.
+   * Safe to call from background threads.
+   * @param snapshot Snapshot to render.
+   * @return Thumbnail image.
+   */
+  public BufferedImage get(ISnapshot snapshot) {
+    BufferedImage image = getIfPresent(snapshot);
+    if (image != null) {
+      return image;
+    }
+    File file = diskDir == null ? null : fileFor(snapshot);
+    image = file == null ? null : read(file);
+    if (image == null) {
+      image = render(snapshot);
+      if (file != null) {
+        write(image, file);
+      }
+    }
+    synchronized (this) {
+      images.put(snapshot.getFingerprint(), image);
+    }
+    return image;
+  }
+
+  /**
+   * Renders a snapshot scaled down to thumbnail size.
+   * @param snapshot Snapshot to render.
+   * @return Thumbnail image.
+   */
+  private BufferedImage render(ISnapshot snapshot) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setColor(GraphicalViewPanel.BACKGROUND);
+      g.fillRect(0, 0, width, height);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.scale((double) width / canvasWidth, (double) height / canvasHeight);
+      ShapePainter.paintAll(g, snapshot.getShapes());
+    } finally {
+      g.dispose();
+    }
+    return image;
+  }
+
+  /**
+   * Gets the file a snapshot's thumbnail is persisted in.
+   * @param snapshot Snapshot to look up.
+   * @return Thumbnail file.
+   */
+  private File fileFor(ISnapshot snapshot) {
+    // the canvas size is part of the name because it sets the thumbnail's scale
+    return new File(diskDir, String.format("%016x-%dx%d-%dx%d.png",
+        snapshot.getFingerprint(), width, height, canvasWidth, canvasHeight));
+  }
+
+  /**
+   * Reads a persisted thumbnail.
+   * @param file Thumbnail file.
+   * @return Image, or null if it is missing or unreadable.
+   */
+  private BufferedImage read(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return ImageIO.read(file);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Persists a thumbnail.
+   * @param image Thumbnail image.
+   * @param file Destination file.
+   */
+  private void write(BufferedImage image, File file) {
+    try {
+      ImageIO.write(image, "png", file);
+    } catch (IOException e) {
+      System.err.println("Error writing thumbnail: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package views;
+
+import controller.GraphicalViewController;
+import model.ISnapshot;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * Scrollable strip of snapshot thumbnails for picking a snapshot visually.
+ * Only cells that scroll into view are rendered, on a background pool, and
+ * requests for cells scrolled away again are skipped before rendering.
+ */
+@SuppressWarnings("serial")
+public class ThumbnailStrip extends JScrollPane {
+  private static final int THUMB_WIDTH = 96;
+  private static final int THUMB_HEIGHT = 72;
+  private static final int CACHE_ENTRIES = 512;
+  // cells outside the viewport by this many positions are still rendered
+  private static final int PREFETCH_MARGIN = 4;
+
+  private final GraphicalViewController controller;
+  private final ThumbnailCache cache;
+  private final JList<Integer> list;
+  private final ExecutorService renderPool;
+  private final Set<Integer> requested = new HashSet<>();
+  private volatile int firstVisible;
+  private volatile int lastVisible;
+  private boolean syncing;
+
+  /**
+   * Constructs a thumbnail strip.
+   * @param controller Controller holding the snapshots.
+   * @param canvasWidth Width of the full-size canvas.
+   * @param canvasHeight Height of the full-size canvas.
+   * @param diskDir Directory to persist thumbnails in, or null.
+   * @param onSelect Called with the index of a snapshot the user picks.
+   */
+  public ThumbnailStrip(GraphicalViewController controller, int canvasWidth, int canvasHeight,
+                        File diskDir, IntConsumer onSelect) {
+    this.controller = controller;
+    this.cache = new ThumbnailCache(THUMB_WIDTH, THUMB_HEIGHT, canvasWidth, canvasHeight,
+        CACHE_ENTRIES, diskDir);
+    this.renderPool = Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+          Thread thread = new Thread(r, "thumbnail-render");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    list = new JList<>(new SnapshotIndexModel());
+    list.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+    list.setVisibleRowCount(1);
+    list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    // fixed cell sizes keep JList from rendering every cell to measure it
+    list.setFixedCellWidth(THUMB_WIDTH + 8);
+    list.setFixedCellHeight(THUMB_HEIGHT + 24);
+    list.setCellRenderer(new ThumbnailRenderer());
+    list.addListSelectionListener(e -> {
+      if (!e.getValueIsAdjusting() && !syncing && list.getSelectedIndex() >= 0) {
+        onSelect.accept(list.getSelectedIndex());
+      }
+    });
+
+    setViewportView(list);
+    setHorizontalScrollBarPolicy(HORIZONTAL_SCROLLBAR_ALWAYS);
+    setVerticalScrollBarPolicy(VERTICAL_SCROLLBAR_NEVER);
+    getViewport().addChangeListener(e -> updateVisibleRange());
+  }
+
+  /**
+   * Highlights a snapshot and scrolls it into view without firing a selection.
+   * @param index Index of the snapshot.
+   */
+  public void setCurrent(int index) {
+    syncing = true;
+    try {
+      list.setSelectedIndex(index);
+      list.ensureIndexIsVisible(index);
+    } finally {
+      syncing = false;
+    }
+  }
+
+  /**
+   * Tells the strip that snapshots were appended to the controller.
+   */
+  public void snapshotsAdded() {
+    ((SnapshotIndexModel) list.getModel()).refresh();
+  }
+
+  /**
+   * Records which cells are on screen so queued renders can be skipped.
+   */
+  private void updateVisibleRange() {
+    firstVisible = list.getFirstVisibleIndex();
+    lastVisible = list.getLastVisibleIndex();
+  }
+
+  /**
+   * Queues a thumbnail render for a cell.
+   * @param index Index of the snapshot.
+   */
+  private void request(int index) {
+    if (!requested.add(index)) {
+      return;
+    }
+    ISnapshot snapshot = controller.getSnapshot(index);
+    renderPool.execute(() -> {
+      if (index < firstVisible - PREFETCH_MARGIN || index > lastVisible + PREFETCH_MARGIN) {
+        SwingUtilities.invokeLater(() -> requested.remove(index)); // scrolled away
+        return;
+      }
+      cache.get(snapshot);
+      SwingUtilities.invokeLater(() -> {
+        requested.remove(index);
+        Rectangle cell = list.getCellBounds(index, index);
+        if (cell != null) {
+          list.repaint(cell);
+        }
+      });
+    });
+  }
+
+  /**
+   * List model exposing snapshot indices.
+   */
+  @SuppressWarnings("serial")
+  private class SnapshotIndexModel extends AbstractListModel<Integer> {
+    private int size = controller.getSnapshotCount();
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public Integer getElementAt(int index) {
+      return index;
+    }
+
+    /**
+     * Picks up snapshots added since the last refresh.
+     */
+    void refresh() {
+      int oldSize = size;
+      size = controller.getSnapshotCount();
+      if (size > oldSize) {
+        fireIntervalAdded(this, oldSize, size - 1);
+      }
+    }
+  }
+
+  /**
+   * Draws a cell from the cache, or a placeholder while it renders.
+   */
+  @SuppressWarnings("serial")
+  private class ThumbnailRenderer extends DefaultListCellRenderer {
+    private final ImageIcon placeholder = new ImageIcon(
+        new BufferedImage(THUMB_WIDTH, THUMB_HEIGHT, BufferedImage.TYPE_INT_RGB));
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+      super.getListCellRendererComponent(list, null, index, isSelected, cellHasFocus);
+      ISnapshot snapshot = controller.getSnapshot(index);
+      BufferedImage image = cache.getIfPresent(snapshot);
+      if (image == null) {
+        updateVisibleRange();
+        request(index);
+      }
+      setIcon(image == null ? placeholder : new ImageIcon(image));
+      setText(String.valueOf(index + 1));
+      setToolTipText(snapshot.getSnapshotId() + " " + snapshot.getDescription());
+      setHorizontalTextPosition(SwingConstants.CENTER);
+      setVerticalTextPosition(SwingConstants.BOTTOM);
+      setHorizontalAlignment(SwingConstants.CENTER);
+      return this;
+    }
+  }
+}
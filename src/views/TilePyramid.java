@@ -0,0 +1,334 @@
+package views;
+
+import model.Bounds;
+import model.IShape;
+import model.ISnapshot;
+import model.SnapshotSummary;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zoom-level tiles of the displayed snapshot, rendered on demand by
+ * background workers and kept in an LRU cache. Level 0 draws one canvas
+ * unit per pixel and each level up doubles the scale. Shapes smaller than
+ * a pixel at a level are drawn as a single pixel instead of being
+ * rasterized, and shapes are looked up through a coarse grid so a tile
+ * only visits the shapes near it.
+ */
+final class TilePyramid {
+  static final int TILE_SIZE = 256;
+  static final int MIN_LEVEL = -4;
+  static final int MAX_LEVEL = 6;
+  static final int MAX_TILES = 256;
+  // grid cells per side when indexing a snapshot's shapes
+  private static final int GRID_CELLS = 64;
+
+  private final Color background;
+  private final Runnable tileReady;
+  private final ExecutorService workers;
+  private final Map<TileKey, BufferedImage> tiles = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+          return size() > MAX_TILES;
+        }
+      });
+  private final Set<TileKey> pending = ConcurrentHashMap.newKeySet();
+  private volatile Source source;
+
+  /**
+   * Creates an empty pyramid.
+   * @param background Color behind the shapes.
+   * @param tileReady Called on a worker thread whenever a tile finishes.
+   */
+  TilePyramid(Color background, Runnable tileReady) {
+    this.background = background;
+    this.tileReady = tileReady;
+    this.workers = Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+          Thread thread = new Thread(runnable, "tile-renderer");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Switches to another snapshot. Tiles of earlier snapshots stay cached
+   * and are reused if a snapshot with the same content returns.
+   * @param snapshot Snapshot to draw.
+   */
+  void setSnapshot(ISnapshot snapshot) {
+    Source current = source;
+    if (current == null || current.snapshot != snapshot) {
+      source = new Source(snapshot);
+    }
+  }
+
+  /**
+   * Gets a tile of the current snapshot, queueing it if it is not ready.
+   * @param level Zoom level.
+   * @param column Tile column at that level.
+   * @param row Tile row at that level.
+   * @return The tile, or null while it is being rendered.
+   */
+  BufferedImage getTile(int level, int column, int row) {
+    Source current = source;
+    TileKey key = new TileKey(current.fingerprint, level, column, row);
+    BufferedImage tile = tiles.get(key);
+    if (tile == null) {
+      request(current, key);
+    }
+    return tile;
+  }
+
+  /**
+   * Gets a tile only if it is already cached.
+   * @param level Zoom level.
+   * @param column Tile column at that level.
+   * @param row Tile row at that level.
+   * @return The tile, or null.
+   */
+  BufferedImage peekTile(int level, int column, int row) {
+    return tiles.get(new TileKey(source.fingerprint, level, column, row));
+  }
+
+  /**
+   * Queues a tile ahead of need, e.g. the next zoom level of the view.
+   * @param level Zoom level.
+   * @param column Tile column at that level.
+   * @param row Tile row at that level.
+   */
+  void prefetch(int level, int column, int row) {
+    getTile(level, column, row);
+  }
+
+  /**
+   * Stops the background workers.
+   */
+  void shutdown() {
+    workers.shutdownNow();
+  }
+
+  /**
+   * Gets the drawing scale of a level.
+   * @param level Zoom level.
+   * @return Pixels per canvas unit.
+   */
+  static double scaleOf(int level) {
+    return Math.scalb(1.0, level);
+  }
+
+  /**
+   * Schedules a tile unless it is already queued.
+   * @param current Snapshot the tile belongs to.
+   * @param key Tile to render.
+   */
+  private void request(Source current, TileKey key) {
+    if (!pending.add(key)) {
+      return;
+    }
+    workers.execute(() -> {
+      try {
+        // skip tiles the user has navigated away from
+        if (source == current) {
+          tiles.put(key, render(current, key));
+          tileReady.run();
+        }
+      } finally {
+        pending.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Renders one tile.
+   * @param current Snapshot to draw.
+   * @param key Tile to render.
+   * @return Tile image.
+   */
+  private BufferedImage render(Source current, TileKey key) {
+    double scale = scaleOf(key.level);
+    double unit = TILE_SIZE / scale;
+    // one canvas unit of slack for the integer truncation in ShapePainter
+    Bounds area = new Bounds(key.column * unit - 1, key.row * unit - 1,
+        (key.column + 1) * unit + 1, (key.row + 1) * unit + 1);
+    BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = tile.createGraphics();
+    try {
+      g.setColor(background);
+      g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+      Graphics2D scaled = (Graphics2D) g.create();
+      scaled.translate(-key.column * TILE_SIZE, -key.row * TILE_SIZE);
+      scaled.scale(scale, scale);
+      List<IShape> shapes = current.snapshot.getShapes();
+      BitSet nearby = current.grid().shapesNear(area);
+      for (int i = nearby.nextSetBit(0); i >= 0; i = nearby.nextSetBit(i + 1)) {
+        IShape shape = shapes.get(i);
+        Bounds bounds = shape.getBounds();
+        if (!bounds.intersects(area)) {
+          continue;
+        }
+        if (bounds.getWidth() * scale < 1 && bounds.getHeight() * scale < 1) {
+          // too small to rasterize: one pixel in the shape's color
+          g.setColor(ShapePainter.toAwtColor(shape.getColor()));
+          g.fillRect((int) Math.floor(bounds.getMinX() * scale) - key.column * TILE_SIZE,
+              (int) Math.floor(bounds.getMinY() * scale) - key.row * TILE_SIZE, 1, 1);
+        } else {
+          ShapePainter.paint(scaled, shape);
+        }
+      }
+      scaled.dispose();
+    } finally {
+      g.dispose();
+    }
+    return tile;
+  }
+
+  /**
+   * The snapshot being drawn, with its content fingerprint and shape grid.
+   */
+  private static final class Source {
+    private final ISnapshot snapshot;
+    private final long fingerprint;
+    private volatile ShapeGrid grid;
+
+    private Source(ISnapshot snapshot) {
+      this.snapshot = snapshot;
+      this.fingerprint = snapshot.getFingerprint();
+    }
+
+    /**
+     * Builds the shape grid on first use.
+     * @return Shape grid.
+     */
+    private ShapeGrid grid() {
+      ShapeGrid result = grid;
+      if (result == null) {
+        synchronized (this) {
+          result = grid;
+          if (result == null) {
+            result = new ShapeGrid(snapshot);
+            grid = result;
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Buckets a snapshot's shapes by the grid cells their bounds overlap.
+   */
+  private static final class ShapeGrid {
+    private final Bounds extent;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int shapeCount;
+    private final int[][] cells = new int[GRID_CELLS * GRID_CELLS][];
+    private final int[] counts = new int[GRID_CELLS * GRID_CELLS];
+
+    private ShapeGrid(ISnapshot snapshot) {
+      Bounds union = snapshot.getSummary().getBounds();
+      extent = union == null ? new Bounds(0, 0, 1, 1) : union;
+      cellWidth = Math.max(extent.getWidth() / GRID_CELLS, Double.MIN_NORMAL);
+      cellHeight = Math.max(extent.getHeight() / GRID_CELLS, Double.MIN_NORMAL);
+      SnapshotSummary summary = snapshot.getSummary();
+      shapeCount = summary.getShapeCount();
+      // cell spans of every shape, computed in bulk from the packed boxes
+      int[][] spans = summary.gridSpans(extent, GRID_CELLS, GRID_CELLS);
+      for (int i = 0; i < shapeCount; i++) {
+        for (int row = spans[2][i]; row <= spans[3][i]; row++) {
+          for (int column = spans[0][i]; column <= spans[1][i]; column++) {
+            add(row * GRID_CELLS + column, i);
+          }
+        }
+      }
+    }
+
+    /**
+     * Collects the shapes in the cells an area overlaps.
+     * @param area Area in canvas units.
+     * @return Shape indexes; iterating the set visits them in z-order.
+     */
+    private BitSet shapesNear(Bounds area) {
+      BitSet result = new BitSet(shapeCount);
+      if (!area.intersects(extent)) {
+        return result;
+      }
+      for (int row = rowOf(area.getMinY()); row <= rowOf(area.getMaxY()); row++) {
+        for (int column = columnOf(area.getMinX());
+             column <= columnOf(area.getMaxX()); column++) {
+          int cell = row * GRID_CELLS + column;
+          for (int i = 0; i < counts[cell]; i++) {
+            result.set(cells[cell][i]);
+          }
+        }
+      }
+      return result;
+    }
+
+    private void add(int cell, int shapeIndex) {
+      int[] indexes = cells[cell];
+      if (indexes == null) {
+        indexes = new int[8];
+      } else if (counts[cell] == indexes.length) {
+        indexes = Arrays.copyOf(indexes, indexes.length * 2);
+      }
+      indexes[counts[cell]++] = shapeIndex;
+      cells[cell] = indexes;
+    }
+
+    private int columnOf(double x) {
+      return Math.max(0, Math.min(GRID_CELLS - 1,
+          (int) Math.floor((x - extent.getMinX()) / cellWidth)));
+    }
+
+    private int rowOf(double y) {
+      return Math.max(0, Math.min(GRID_CELLS - 1,
+          (int) Math.floor((y - extent.getMinY()) / cellHeight)));
+    }
+  }
+
+  /**
+   * Identifies a tile of a snapshot's content at one zoom level.
+   */
+  private static final class TileKey {
+    private final long fingerprint;
+    private final int level;
+    private final int column;
+    private final int row;
+
+    private TileKey(long fingerprint, int level, int column, int row) {
+      this.fingerprint = fingerprint;
+      this.level = level;
+      this.column = column;
+      this.row = row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TileKey other)) {
+        return false;
+      }
+      return fingerprint == other.fingerprint && level == other.level
+          && column == other.column && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fingerprint, level, column, row);
+    }
+  }
+}
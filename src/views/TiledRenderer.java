@@ -0,0 +1,154 @@
+package views;
+
+import model.Bounds;
+import model.IShape;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders large images by splitting them into square tiles that are drawn
+ * in parallel on the common fork/join pool. Shapes are first binned into
+ * the tiles their bounds overlap, so each tile draws only its own shapes,
+ * still in z-order. Workers draw straight into the target image, each
+ * through its own graphics context clipped to its tile. Shapes keep their
+ * canvas coordinates, since translating them shifts how oval edges round.
+ */
+public final class TiledRenderer {
+  /** Width and height of a tile in pixels. */
+  public static final int TILE_SIZE = 256;
+  // below this many pixels one thread is faster than splitting
+  private static final long PARALLEL_THRESHOLD = 1024L * 1024L;
+
+  private TiledRenderer() {
+  }
+
+  /**
+   * Clears an image and draws shapes onto it, in parallel when the image
+   * is large.
+   * @param target Image to draw into.
+   * @param shapes Shapes to draw, bottom-most first.
+   * @param background Color to clear the image with.
+   */
+  public static void renderInto(BufferedImage target, Iterable<IShape> shapes,
+                                Color background) {
+    int width = target.getWidth();
+    int height = target.getHeight();
+    if ((long) width * height < PARALLEL_THRESHOLD) {
+      Graphics2D g = target.createGraphics();
+      try {
+        g.setColor(background);
+        g.fillRect(0, 0, width, height);
+        ShapePainter.paintAll(g, shapes);
+      } finally {
+        g.dispose();
+      }
+      return;
+    }
+    List<IShape> ordered = new ArrayList<>();
+    shapes.forEach(ordered::add);
+    TileGrid grid = new TileGrid(ordered, width, height);
+    ForkJoinPool.commonPool().invoke(
+        new TileRange(grid, ordered, target, background, 0, grid.tileCount()));
+  }
+
+  /**
+   * The shapes overlapping each tile, as indexes in drawing order.
+   */
+  private static final class TileGrid {
+    private final int columns;
+    private final int[][] shapeIndexes;
+    private final int[] counts;
+
+    private TileGrid(List<IShape> shapes, int width, int height) {
+      this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+      int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+      shapeIndexes = new int[columns * rows][];
+      counts = new int[columns * rows];
+      for (int i = 0; i < shapes.size(); i++) {
+        Bounds bounds = shapes.get(i).getBounds();
+        // one pixel of slack for the integer truncation in ShapePainter
+        int firstColumn = Math.max(0, tileOf(bounds.getMinX() - 1));
+        int lastColumn = Math.min(columns - 1, tileOf(bounds.getMaxX() + 1));
+        int firstRow = Math.max(0, tileOf(bounds.getMinY() - 1));
+        int lastRow = Math.min(rows - 1, tileOf(bounds.getMaxY() + 1));
+        for (int row = firstRow; row <= lastRow; row++) {
+          for (int column = firstColumn; column <= lastColumn; column++) {
+            add(row * columns + column, i);
+          }
+        }
+      }
+    }
+
+    private static int tileOf(double coordinate) {
+      return Math.floorDiv((int) Math.floor(coordinate), TILE_SIZE);
+    }
+
+    private void add(int tile, int shapeIndex) {
+      int[] indexes = shapeIndexes[tile];
+      if (indexes == null) {
+        indexes = new int[4];
+      } else if (counts[tile] == indexes.length) {
+        indexes = Arrays.copyOf(indexes, indexes.length * 2);
+      }
+      indexes[counts[tile]++] = shapeIndex;
+      shapeIndexes[tile] = indexes;
+    }
+
+    private int tileCount() {
+      return counts.length;
+    }
+  }
+
+  /**
+   * Draws a range of tiles, splitting it until each task has one tile.
+   */
+  @SuppressWarnings("serial")
+  private static final class TileRange extends RecursiveAction {
+    private final TileGrid grid;
+    private final List<IShape> shapes;
+    private final BufferedImage target;
+    private final Color background;
+    private final int start;
+    private final int end;
+
+    private TileRange(TileGrid grid, List<IShape> shapes, BufferedImage target,
+                      Color background, int start, int end) {
+      this.grid = grid;
+      this.shapes = shapes;
+      this.target = target;
+      this.background = background;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > 1) {
+        int middle = (start + end) >>> 1;
+        invokeAll(new TileRange(grid, shapes, target, background, start, middle),
+            new TileRange(grid, shapes, target, background, middle, end));
+        return;
+      }
+      int tileX = start % grid.columns * TILE_SIZE;
+      int tileY = start / grid.columns * TILE_SIZE;
+      Graphics2D g = target.createGraphics();
+      try {
+        g.clipRect(tileX, tileY, TILE_SIZE, TILE_SIZE);
+        g.setColor(background);
+        g.fillRect(tileX, tileY, TILE_SIZE, TILE_SIZE);
+        int[] indexes = grid.shapeIndexes[start];
+        for (int i = 0; i < grid.counts[start]; i++) {
+          ShapePainter.paint(g, shapes.get(indexes[i]));
+        }
+      } finally {
+        g.dispose();
+      }
+    }
+  }
+}
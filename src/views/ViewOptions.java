@@ -0,0 +1,248 @@
+package views;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Optional settings passed from the command line to the views.
+ */
+public class ViewOptions {
+  private boolean incrementalRepaint = true;
+  private File thumbnailDir;
+  private boolean progressive;
+  private boolean openBrowser = true;
+  private int port = 8080;
+  private int pageSize;
+  private boolean svgPerSnapshot;
+  private boolean compactSvg;
+  private boolean gzip;
+  private int gzipLevel = 6;
+  private boolean diagnostics;
+  private int maxErrors = 100;
+  private List<String> exportFormats = List.of("html");
+
+  /**
+   * Checks whether the graphical view redraws only changed regions.
+   * @return True if incremental repaint is enabled.
+   */
+  public boolean isIncrementalRepaint() {
+    return incrementalRepaint;
+  }
+
+  /**
+   * Enables or disables incremental repaint in the graphical view.
+   * @param incrementalRepaint True to redraw only changed regions.
+   */
+  public void setIncrementalRepaint(boolean incrementalRepaint) {
+    this.incrementalRepaint = incrementalRepaint;
+  }
+
+  /**
+   * Gets the directory where snapshot thumbnails are persisted.
+   * @return Thumbnail directory, or null to keep thumbnails in memory only.
+   */
+  public File getThumbnailDir() {
+    return thumbnailDir;
+  }
+
+  /**
+   * Sets the directory where snapshot thumbnails are persisted.
+   * @param thumbnailDir Thumbnail directory, or null to disable persistence.
+   */
+  public void setThumbnailDir(File thumbnailDir) {
+    this.thumbnailDir = thumbnailDir;
+  }
+
+  /**
+   * Checks whether views are fed snapshots while the script is still read.
+   * @return True if progressive rendering is enabled.
+   */
+  public boolean isProgressive() {
+    return progressive;
+  }
+
+  /**
+   * Enables or disables progressive rendering.
+   * @param progressive True to show each snapshot as soon as it is taken.
+   */
+  public void setProgressive(boolean progressive) {
+    this.progressive = progressive;
+  }
+
+  /**
+   * Checks whether the web view opens its output in a browser.
+   * @return True if the browser is opened after export.
+   */
+  public boolean isOpenBrowser() {
+    return openBrowser;
+  }
+
+  /**
+   * Enables or disables opening the web output in a browser.
+   * @param openBrowser False to only write the output file.
+   */
+  public void setOpenBrowser(boolean openBrowser) {
+    this.openBrowser = openBrowser;
+  }
+
+  /**
+   * Gets the port the server view listens on.
+   * @return Port number.
+   */
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Sets the port the server view listens on.
+   * @param port Port number; 0 picks a free port.
+   */
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Gets how many snapshots the web view puts in each page file.
+   * @return Snapshots per page, or 0 for a single HTML file.
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets how many snapshots the web view puts in each page file.
+   * @param pageSize Snapshots per page, or 0 for a single HTML file.
+   * @throws IllegalArgumentException If pageSize is negative.
+   */
+  public void setPageSize(int pageSize) {
+    if (pageSize < 0) {
+      throw new IllegalArgumentException("Page size cannot be negative.");
+    }
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Checks whether the web view writes one SVG file per snapshot.
+   * @return True if each snapshot gets its own SVG file.
+   */
+  public boolean isSvgPerSnapshot() {
+    return svgPerSnapshot;
+  }
+
+  /**
+   * Enables or disables writing one SVG file per snapshot.
+   * @param svgPerSnapshot True to write each snapshot to its own SVG file.
+   */
+  public void setSvgPerSnapshot(boolean svgPerSnapshot) {
+    this.svgPerSnapshot = svgPerSnapshot;
+  }
+
+  /**
+   * Checks whether the web view writes size-optimized SVG.
+   * @return True if compact SVG is enabled.
+   */
+  public boolean isCompactSvg() {
+    return compactSvg;
+  }
+
+  /**
+   * Enables or disables size-optimized SVG in the web view.
+   * @param compactSvg True to share colors and geometry and shorten numbers.
+   */
+  public void setCompactSvg(boolean compactSvg) {
+    this.compactSvg = compactSvg;
+  }
+
+  /**
+   * Checks whether file output is gzip-compressed.
+   * @return True if output files get a ".gz" suffix and are compressed.
+   */
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  /**
+   * Enables or disables gzip-compressed file output.
+   * @param gzip True to compress output files.
+   */
+  public void setGzip(boolean gzip) {
+    this.gzip = gzip;
+  }
+
+  /**
+   * Gets the gzip compression level.
+   * @return Level from 1 (fastest) to 9 (smallest).
+   */
+  public int getGzipLevel() {
+    return gzipLevel;
+  }
+
+  /**
+   * Sets the gzip compression level.
+   * @param gzipLevel Level from 1 (fastest) to 9 (smallest).
+   * @throws IllegalArgumentException If the level is out of range.
+   */
+  public void setGzipLevel(int gzipLevel) {
+    if (gzipLevel < 1 || gzipLevel > 9) {
+      throw new IllegalArgumentException("Compression level must be between 1 and 9.");
+    }
+    this.gzipLevel = gzipLevel;
+  }
+
+  /**
+   * Checks whether script errors are collected and summarized instead of
+   * printed line by line.
+   * @return True if diagnostics mode is enabled.
+   */
+  public boolean isDiagnostics() {
+    return diagnostics;
+  }
+
+  /**
+   * Enables or disables diagnostics mode.
+   * @param diagnostics True to collect script errors and print a summary.
+   */
+  public void setDiagnostics(boolean diagnostics) {
+    this.diagnostics = diagnostics;
+  }
+
+  /**
+   * Gets how many script errors diagnostics mode keeps and prints.
+   * @return Maximum number of errors listed.
+   */
+  public int getMaxErrors() {
+    return maxErrors;
+  }
+
+  /**
+   * Sets how many script errors diagnostics mode keeps and prints.
+   * @param maxErrors Maximum number of errors listed.
+   * @throws IllegalArgumentException If the number is negative.
+   */
+  public void setMaxErrors(int maxErrors) {
+    if (maxErrors < 0) {
+      throw new IllegalArgumentException("Maximum error count cannot be negative.");
+    }
+    this.maxErrors = maxErrors;
+  }
+
+  /**
+   * Gets the formats the export view writes.
+   * @return Format names, such as "html", "svg" and "png".
+   */
+  public List<String> getExportFormats() {
+    return exportFormats;
+  }
+
+  /**
+   * Sets the formats the export view writes.
+   * @param exportFormats Format names.
+   * @throws IllegalArgumentException If no format is given.
+   */
+  public void setExportFormats(List<String> exportFormats) {
+    if (exportFormats.isEmpty()) {
+      throw new IllegalArgumentException("At least one export format is required.");
+    }
+    this.exportFormats = List.copyOf(exportFormats);
+  }
+}
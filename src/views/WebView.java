@@ -3,23 +3,39 @@ package views;
 import model.*;
 import model.Color;
 
-import java.awt.*;
 import java.io.*;
 import java.util.List;
 
 /**
  * Displays the photo album in a web view.
  */
-public class WebView implements IView {
+public class WebView implements ProgressiveView {
+  static final String HTML_HEADER = "<!DOCTYPE html>"
+      + "<html><head><title>Shapes Photo Album</title></head><body>";
+  static final String HTML_FOOTER = "</body></html>";
+
   private IPhotoalbum model;
+  private ViewOptions options;
   private String htmlContent;
+  private File streamFile;
+  private Writer streamWriter;
 
   /**
    * Constructs a web view.
    * @param model Photo album model.
    */
   public WebView(IPhotoalbum model) {
+    this(model, new ViewOptions());
+  }
+
+  /**
+   * Constructs a web view with options.
+   * @param model Photo album model.
+   * @param options Export settings.
+   */
+  public WebView(IPhotoalbum model, ViewOptions options) {
     this.model = model;
+    this.options = options;
   }
 
   /**
@@ -30,11 +46,9 @@ public class WebView implements IView {
    */
   @Override
   public void showView(int xMax, int yMax, String outputfile) {
-    List<ISnapshot> snapshots = model.getSnapshots();
-    generateHtml(snapshots);
     try {
       File file = new File(outputfile);
-      writeToFile(file);
+      export(file);
       openInBrowser(file);
     } catch (IOException e) {
       System.err.println("Error displaying HTML content: " + e.getMessage());
@@ -42,109 +56,137 @@ public class WebView implements IView {
   }
 
   /**
-   * Generates HTML content for all snapshots.
-   * @param snapshots List of snapshots.
+   * Writes the web output without opening it, reporting failures to the
+   * caller.
+   * @param file File to save the HTML content.
+   * @throws IOException If the output cannot be written.
    */
-  private void generateHtml(List<ISnapshot> snapshots) {
-    StringBuilder htmlBuilder = new StringBuilder();
-    htmlBuilder.append("<!DOCTYPE html>")
-        .append("<html><head><title>Shapes Photo Album</title></head><body>");
-    for (ISnapshot snapshot : snapshots) {
-      htmlBuilder.append("<div style=\"background-color:lightgrey;\">")
-          .append("<h2>").append(snapshot.getSnapshotId()).append("</h2>")
-          .append("<p>Description: ").append(snapshot.getDescription()).append("</p>")
-          .append("<svg width=\"800\" height=\"800\">")
-          .append(generateSvg(snapshot))
-          .append("</svg></div>");
+  public void export(File file) throws IOException {
+    List<ISnapshot> snapshots = model.getSnapshots();
+    if (options.getPageSize() > 0 || options.isSvgPerSnapshot()) {
+      htmlContent = new PagedWebExporter(options).export(snapshots, file);
+    } else if (options.isCompactSvg()) {
+      htmlContent = new CompactSvgWriter(snapshots).htmlDocument(snapshots);
+      writeToFile(file);
+    } else {
+      writeHtml(snapshots, file);
     }
-    htmlBuilder.append("</body></html>");
-    htmlContent = htmlBuilder.toString();
   }
 
   /**
-   * Writes HTML content to a file.
+   * Generates HTML content for all snapshots, writing each section as it
+   * is built so compressed output overlaps with generation.
+   * @param snapshots List of snapshots.
    * @param file File to write to.
    * @throws IOException If file writing fails.
    */
-  private void writeToFile(File file) throws IOException {
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-      writer.write(htmlContent);
+  private void writeHtml(List<ISnapshot> snapshots, File file) throws IOException {
+    StringBuilder htmlBuilder = new StringBuilder();
+    htmlBuilder.append(HTML_HEADER);
+    try (Writer writer = OutputFiles.open(file, options)) {
+      writer.write(HTML_HEADER);
+      for (ISnapshot snapshot : snapshots) {
+        int start = htmlBuilder.length();
+        appendSnapshotHtml(htmlBuilder, snapshot);
+        writer.append(htmlBuilder, start, htmlBuilder.length());
+      }
+      writer.write(HTML_FOOTER);
     }
+    htmlBuilder.append(HTML_FOOTER);
+    htmlContent = htmlBuilder.toString();
   }
 
   /**
-   * Opens the HTML file in the default browser.
-   * @param file HTML file to open.
-   * @throws IOException If browser opening fails.
+   * Appends the HTML section for one snapshot.
+   * @param htmlBuilder Builder to append to.
+   * @param snapshot Snapshot to render.
    */
-  private void openInBrowser(File file) throws IOException {
-    Desktop.getDesktop().browse(file.toURI());
+  static void appendSnapshotHtml(StringBuilder htmlBuilder, ISnapshot snapshot) {
+    htmlBuilder.append("<div style=\"background-color:lightgrey;\">")
+        .append("<h2>").append(snapshot.getSnapshotId()).append("</h2>")
+        .append("<p>Description: ").append(snapshot.getDescription()).append("</p>")
+        .append("<svg width=\"800\" height=\"800\">")
+        .append(SvgRenderer.generateSvg(snapshot))
+        .append("</svg></div>");
   }
 
   /**
-   * Generates SVG content for a snapshot.
-   * @param snapshot Snapshot to process.
-   * @return SVG content as a string.
+   * Opens the output file and writes the page header, so snapshot
+   * sections can be streamed to disk as they are taken.
+   * @param xMax Maximum X dimension (optional, unused).
+   * @param yMax Maximum Y dimension (optional, unused).
+   * @param outputfile File to save the HTML content.
    */
-  private String generateSvg(ISnapshot snapshot) {
-    StringBuilder svgBuilder = new StringBuilder();
-    for (IShape shape : snapshot.getShapes()) {
-      svgBuilder.append(generateShapeSvg(shape));
+  @Override
+  public void beginView(int xMax, int yMax, String outputfile) {
+    try {
+      streamFile = new File(outputfile);
+      streamWriter = OutputFiles.open(streamFile, options);
+      streamWriter.write(HTML_HEADER);
+    } catch (IOException e) {
+      System.err.println("Error writing HTML content: " + e.getMessage());
+      streamWriter = null;
     }
-    return svgBuilder.toString();
   }
 
   /**
-   * Generates SVG content for a single shape.
-   * @param shape Shape to process.
-   * @return SVG representation of the shape.
+   * Writes the section for a new snapshot and flushes it to disk.
+   * @param snapshot The snapshot to write.
    */
-  private String generateShapeSvg(IShape shape) {
-    String color = formatColor(shape.getColor());
-    return switch (shape.getShapeType()) {
-      case RECTANGLE -> generateRectangleSvg((model.Rectangle) shape, color);
-      case OVAL -> generateOvalSvg((model.Oval) shape, color);
-      default -> "";
-    };
+  @Override
+  public void snapshotPublished(ISnapshot snapshot) {
+    if (streamWriter == null) {
+      return;
+    }
+    StringBuilder section = new StringBuilder();
+    appendSnapshotHtml(section, snapshot);
+    try {
+      streamWriter.write(section.toString());
+      streamWriter.flush();
+    } catch (IOException e) {
+      System.err.println("Error writing HTML content: " + e.getMessage());
+    }
   }
 
   /**
-   * Generates SVG for a rectangle.
-   * @param rectangle Rectangle shape.
-   * @param color Shape color in SVG format.
-   * @return SVG string for the rectangle.
+   * Writes the page footer, closes the file and opens it in a browser.
    */
-  private String generateRectangleSvg(model.Rectangle rectangle, String color) {
-    return String.format("<rect x=\"%.1f\" y=\"%.1f\" "
-           + "width=\"%.1f\" height=\"%.1f\" style=\"fill:%s\" />",
-        rectangle.getX(), rectangle.getY(),
-        rectangle.getWidth(), rectangle.getHeight(),
-        color);
+  @Override
+  public void finishView() {
+    if (streamWriter == null) {
+      return;
+    }
+    try {
+      streamWriter.write(HTML_FOOTER);
+      streamWriter.close();
+      streamWriter = null;
+      openInBrowser(streamFile);
+    } catch (IOException e) {
+      System.err.println("Error displaying HTML content: " + e.getMessage());
+    }
   }
 
   /**
-   * Generates SVG for an oval.
-   * @param oval Oval shape.
-   * @param color Shape color in SVG format.
-   * @return SVG string for the oval.
+   * Writes HTML content to a file.
+   * @param file File to write to.
+   * @throws IOException If file writing fails.
    */
-  private String generateOvalSvg(model.Oval oval, String color) {
-    return String.format("<ellipse cx=\"%.1f\" cy=\"%.1f\" "
-            + "rx=\"%.1f\" ry=\"%.1f\" style=\"fill:%s\" />",
-        oval.getX() + oval.getXRadius(),
-        oval.getY() + oval.getYRadius(),
-        oval.getXRadius(), oval.getYRadius(),
-        color);
+  private void writeToFile(File file) throws IOException {
+    try (Writer writer = OutputFiles.open(file, options)) {
+      writer.write(htmlContent);
+    }
   }
 
   /**
-   * Formats a color for SVG.
-   * @param color Color object.
-   * @return Color in "rgb(r,g,b)" format.
+   * Opens the HTML file in the default browser. Compressed output is not
+   * opened, since browsers do not decode gzip files from disk.
+   * @param file HTML file to open.
    */
-  private String formatColor(Color color) {
-    return String.format("rgb(%d,%d,%d)",
-        (int) color.getR(), (int) color.getG(), (int) color.getB());
+  private void openInBrowser(File file) {
+    if (!options.isOpenBrowser() || options.isGzip()) {
+      return;
+    }
+    BrowserLauncher.open(file);
   }
 
   /**
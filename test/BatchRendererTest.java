@@ -0,0 +1,52 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import controller.BatchRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Tests for rendering many albums in one batch.
+ */
+public class BatchRendererTest {
+  private static final List<String> SCRIPT = List.of(
+      "shape R rectangle 0 0 10 20 255 0 0",
+      "snapshot first",
+      "move R 5 6",
+      "snapshot");
+
+  /**
+   * Tests that batch albums with the same name get separate pages and that
+   * albums which cannot be read or written are reported as failures.
+   * @throws IOException If the temporary files cannot be used.
+   */
+  @Test
+  public void testBatchNamesAndFailures() throws IOException {
+    File dir = Files.createTempDirectory("batch").toFile();
+    File first = new File(dir, "a/x.txt");
+    File second = new File(dir, "b/x.txt");
+    File third = new File(dir, "x.cmd");
+    for (File input : List.of(first, second, third)) {
+      input.getParentFile().mkdirs();
+      Files.write(input.toPath(), SCRIPT);
+    }
+    File out = new File(dir, "out");
+    List<BatchRenderer.Result> results = new BatchRenderer(out, 2)
+        .renderAll(List.of(first, second, third, new File(dir, "missing.txt")));
+
+    assertEquals(List.of("x.html", "x-2.html", "x-3.html", "missing.html"),
+        results.stream().map(result -> result.getOutput().getName()).toList());
+    for (int i = 0; i < 3; i++) {
+      assertTrue(results.get(i).isSuccess());
+      assertTrue(results.get(i).getOutput().isFile());
+    }
+    assertFalse(results.get(3).isSuccess());
+
+    // a directory in the way of the page makes the write fail
+    File blocked = new File(dir, "blocked");
+    new File(blocked, "x.html").mkdirs();
+    assertFalse(new BatchRenderer(blocked, 1).renderAll(List.of(first)).get(0).isSuccess());
+  }
+}
@@ -0,0 +1,136 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import controller.CompiledScript;
+import controller.PhotoalbumController;
+import controller.ScriptDiagnostics;
+import model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for compiling album scripts and replaying them.
+ */
+public class CompiledScriptTest {
+  private static final List<String> SCRIPT = List.of(
+      "# a comment",
+      "shape R rectangle 0 0 10 20 255 0 0",
+      "shape O oval 50 50 5 5 0 0 255",
+      "Move R 5 6",
+      "resize O 7 8",
+      "snapshot  first   view",
+      "group g R O",
+      "move group g 100 100",
+      "color group g 0 255 0",
+      "bogus line",
+      "snapshot");
+
+  /**
+   * Tests that a compiled script has the same effect as its commands.
+   */
+  @Test
+  public void testReplayMatchesCommands() {
+    CompiledScript script = CompiledScript.compile(SCRIPT);
+    assertEquals(9, script.size());
+
+    IPhotoalbum model = new PhotoAlbumModel();
+    script.run(model);
+    assertEquals(2, model.getSnapshots().size());
+    assertEquals("first view", model.getSnapshots().get(0).getDescription());
+    Rectangle first = (Rectangle) model.getSnapshots().get(0).getShapes().get(0);
+    assertEquals(5, first.getX(), 0);
+    assertEquals(20, first.getHeight(), 0);
+    Oval last = (Oval) model.getSnapshots().get(1).getShapes().get(1);
+    assertEquals(150, last.getX(), 0);
+    assertEquals(8, last.getYRadius(), 0);
+    assertEquals(new Color(0, 255, 0), last.getColor());
+  }
+
+  /**
+   * Tests that commands run one at a time, including a group whose
+   * members outgrow the compiler's small buffers, match the whole script.
+   */
+  @Test
+  public void testRunCommandMatchesScript() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    PhotoalbumController controller = new PhotoalbumController(model);
+    for (String line : SCRIPT) {
+      controller.readCommand(line);
+    }
+    for (int i = 0; i < 10; i++) {
+      controller.readCommand("shape S" + i + " rectangle " + i + " 0 1 1 0 0 0");
+    }
+    controller.readCommand("group all S0 S1 S2 S3 S4 S5 S6 S7 S8 S9");
+    controller.readCommand("move group all 10 10");
+
+    IPhotoalbum expected = new PhotoAlbumModel();
+    CompiledScript.compile(SCRIPT).run(expected);
+    assertEquals(expected.getSnapshots().size(), model.getSnapshots().size());
+    assertEquals(expected.getSnapshots().get(1).getShapes().get(1).getColor(),
+        model.getSnapshots().get(1).getShapes().get(1).getColor());
+    assertEquals(19, ((Rectangle) model.getShape("S9")).getX(), 0);
+  }
+
+  /**
+   * Tests that a saved script loads back and replays identically.
+   * @throws IOException If the temporary file cannot be used.
+   */
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File file = File.createTempFile("album", ".palc");
+    file.deleteOnExit();
+    CompiledScript.compile(SCRIPT).save(file);
+
+    IPhotoalbum fromText = new PhotoAlbumModel();
+    CompiledScript.compile(SCRIPT).run(fromText);
+    IPhotoalbum fromFile = new PhotoAlbumModel();
+    CompiledScript.read(file.getPath()).run(fromFile);
+    String toId = fromText.getSnapshotIDs().get(1);
+    assertEquals(fromText.getShapes().toString(), fromFile.getShapes().toString());
+    assertTrue(SnapshotDiff.between(fromText.getSnapshotById(toId),
+        fromFile.getSnapshotById(toId)).isEmpty());
+
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+    assertThrows(IOException.class, () -> CompiledScript.read(file.getPath()));
+  }
+
+  /**
+   * Tests that diagnostics mode records bad lines and keeps only the valid
+   * commands.
+   */
+  @Test
+  public void testDiagnostics() {
+    ScriptDiagnostics diagnostics = new ScriptDiagnostics(2);
+    CompiledScript script = CompiledScript.compile(List.of(
+        "shape R rectangle 0 0 10 20 255 0 0",
+        "shape R oval 0 0 1 1 0 0 0",
+        "",
+        "move R x 6",
+        "resize Missing 1 1",
+        "group g R",
+        "color group g 0 300 0",
+        "frob 1",
+        "twiddle 2",
+        "snapshot done"), diagnostics);
+
+    assertEquals(6, diagnostics.getErrorCount());
+    assertEquals(2, diagnostics.getErrors().size());
+    assertEquals(2, diagnostics.getErrors().get(0).getLine());
+    assertEquals("shape", diagnostics.getErrors().get(0).getCommand());
+    assertEquals(4, diagnostics.getErrors().get(1).getLine());
+    assertEquals(Integer.valueOf(1), diagnostics.getErrorCountsByCommand().get("resize"));
+    assertEquals(Integer.valueOf(2), diagnostics.getErrorCountsByCommand()
+        .get(ScriptDiagnostics.UNKNOWN));
+    assertEquals("10 lines, 3 commands, 6 errors (color 1, move 1, resize 1, shape 1,"
+        + " unknown 2); first 2 shown", diagnostics.summary());
+
+    IPhotoalbum model = new PhotoAlbumModel();
+    script.run(model);
+    assertEquals(3, script.size());
+    assertEquals(new Color(255, 0, 0), model.getShape("R").getColor());
+  }
+}
@@ -0,0 +1,410 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Tests for driving one album from several threads.
+ */
+public class ConcurrentPhotoAlbumModelTest {
+
+  /**
+   * Tests that every snapshot is a consistent cut while feeder threads
+   * move their own shapes in lock step.
+   */
+  @Test
+  public void testSnapshotsAreConsistentCuts() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    int feeders = 4;
+    int shapesPerFeeder = 50;
+    for (int f = 0; f < feeders; f++) {
+      for (int s = 0; s < shapesPerFeeder; s++) {
+        model.createRectangle("f" + f + "s" + s, ShapeType.RECTANGLE, 0, 0,
+            1, 1, new Color(0, 0, 0));
+      }
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (int f = 0; f < feeders; f++) {
+      int feeder = f;
+      threads.add(new Thread(() -> {
+        for (int step = 1; step <= 200; step++) {
+          // x and y always match once a move has completed
+          for (int s = 0; s < shapesPerFeeder; s++) {
+            model.moveShape("f" + feeder + "s" + s, step, step);
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (int i = 0; i < 100; i++) {
+      model.takeSnapshot("cut " + i);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    model.takeSnapshot("final");
+
+    assertEquals(101, model.getSnapshots().size());
+    for (ISnapshot snapshot : model.getSnapshots()) {
+      assertEquals(feeders * shapesPerFeeder, snapshot.getShapes().size());
+      for (IShape shape : snapshot.getShapes()) {
+        assertEquals(shape.getX(), shape.getY(), 0);
+      }
+    }
+    for (IShape shape : model.getSnapshots().get(100).getShapes()) {
+      assertEquals(200, shape.getX(), 0);
+    }
+  }
+
+  /**
+   * Tests that only one of several racing creates of a name succeeds.
+   */
+  @Test
+  public void testDuplicateNamesRejectedAcrossThreads() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    int[] failures = new int[1];
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      threads.add(new Thread(() -> {
+        try {
+          model.createOval("shared", ShapeType.OVAL, 0, 0, 1, 1, new Color(0, 0, 0));
+        } catch (IllegalArgumentException e) {
+          synchronized (failures) {
+            failures[0]++;
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(7, failures[0]);
+    assertEquals(1, model.getShapes().size());
+  }
+
+  /**
+   * Tests that a subscriber pulling one batch at a time receives every
+   * event from concurrent writers, in order and without gaps.
+   */
+  @Test
+  public void testEventsArriveInOrderWithBackpressure() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    List<ModelEvent> received = new ArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    model.events().subscribe(new Flow.Subscriber<List<ModelEvent>>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(List<ModelEvent> batch) {
+        received.addAll(batch);
+        subscription.request(1);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+
+    List<Thread> threads = new ArrayList<>();
+    for (int f = 0; f < 4; f++) {
+      String name = "s" + f;
+      model.createOval(name, ShapeType.OVAL, 0, 0, 1, 1, new Color(0, 0, 0));
+      threads.add(new Thread(() -> {
+        for (int step = 1; step <= 1000; step++) {
+          model.moveShape(name, step, step);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    model.takeSnapshot("end");
+    model.events().close();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+
+    assertEquals(4 + 4000 + 1, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      assertEquals(i, received.get(i).getSequence());
+    }
+    ModelEvent last = received.get(received.size() - 1);
+    assertEquals(ModelEvent.Kind.SNAPSHOT_TAKEN, last.getKind());
+    assertSame(model.getSnapshots().get(0), last.getSnapshot());
+    ModelEvent lastMove = received.get(received.size() - 2);
+    assertEquals(ModelEvent.Kind.SHAPE_MOVED, lastMove.getKind());
+    assertEquals(1000, lastMove.getShape().getX(), 0);
+  }
+
+  /**
+   * Tests that a subscriber can follow group transforms, nested groups
+   * included, from the group events alone.
+   */
+  @Test
+  public void testGroupEventsCarryPayload() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    List<ModelEvent> received = new ArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    model.events().subscribe(new Flow.Subscriber<List<ModelEvent>>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(List<ModelEvent> batch) {
+        received.addAll(batch);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+    model.createRectangle("a", ShapeType.RECTANGLE, 0, 0, 1, 1, new Color(0, 0, 0));
+    model.createOval("b", ShapeType.OVAL, 10, 10, 1, 1, new Color(0, 0, 0));
+    model.createGroup("inner", List.of("b"));
+    model.createGroup("outer", List.of("a", "inner"));
+    model.moveGroup("outer", 5, 7);
+    model.moveGroup("inner", 1, 1);
+    model.changeGroupColor("outer", 255, 0, 0);
+    model.events().close();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+
+    Map<String, double[]> positions = new HashMap<>();
+    Map<String, Color> colors = new HashMap<>();
+    Map<String, List<String>> groups = new HashMap<>();
+    for (ModelEvent event : received) {
+      switch (event.getKind()) {
+        case SHAPE_CREATED -> {
+          positions.put(event.getName(),
+              new double[] {event.getShape().getX(), event.getShape().getY()});
+          colors.put(event.getName(), event.getShape().getColor());
+        }
+        case GROUP_CREATED -> groups.put(event.getName(), event.getMembers());
+        case GROUP_MOVED -> forEachShape(groups, event.getName(), shape -> {
+          positions.get(shape)[0] += event.getDx();
+          positions.get(shape)[1] += event.getDy();
+        });
+        case GROUP_RECOLORED -> forEachShape(groups, event.getName(),
+            shape -> colors.put(shape, event.getColor()));
+        default -> fail("Unexpected event " + event);
+      }
+    }
+    for (String name : List.of("a", "b")) {
+      IShape shape = model.getShape(name);
+      assertEquals(shape.getX(), positions.get(name)[0], 0);
+      assertEquals(shape.getY(), positions.get(name)[1], 0);
+      assertEquals(shape.getColor(), colors.get(name));
+    }
+    assertEquals(16, model.getShape("b").getX(), 0);
+  }
+
+  private static void forEachShape(Map<String, List<String>> groups, String group,
+                                   Consumer<String> action) {
+    for (String member : groups.get(group)) {
+      if (groups.containsKey(member)) {
+        forEachShape(groups, member, action);
+      } else {
+        action.accept(member);
+      }
+    }
+  }
+
+  /**
+   * Tests that a snapshot can be looked up by ID while it is being taken.
+   */
+  @Test
+  public void testLookupWhileSnapshotting() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    List<Throwable> failures = new ArrayList<>();
+    Thread reader = new Thread(() -> {
+      try {
+        for (int n = 1; n <= 2000; n++) {
+          String id = "snapshot-" + n;
+          ISnapshot snapshot = model.getSnapshotById(id);
+          while (snapshot == null) {
+            snapshot = model.getSnapshotById(id);
+          }
+          assertEquals(n - 1, model.indexOfSnapshot(id));
+        }
+      } catch (RuntimeException | AssertionError e) {
+        failures.add(e);
+      }
+    });
+    reader.start();
+    for (int n = 1; n <= 2000; n++) {
+      model.takeSnapshot("s" + n);
+    }
+    reader.join();
+    assertTrue(failures.toString(), failures.isEmpty());
+  }
+
+  /**
+   * Tests that looking up snapshots while they are cleared and taken again
+   * never throws and never returns a snapshot with another ID.
+   */
+  @Test
+  public void testLookupWhileClearing() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    AtomicBoolean done = new AtomicBoolean();
+    List<Throwable> failures = new ArrayList<>();
+    Thread reader = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          // IDs are never reused, so look up the ones taken most recently
+          for (String id : model.getSnapshotIDs().toArray(new String[0])) {
+            ISnapshot snapshot = model.getSnapshotById(id);
+            assertTrue(snapshot == null || snapshot.getSnapshotId().equals(id));
+          }
+        }
+      } catch (RuntimeException | AssertionError e) {
+        failures.add(e);
+      }
+    });
+    reader.start();
+    for (int round = 0; round < 5000; round++) {
+      for (int n = 0; n < 4; n++) {
+        model.takeSnapshot("s" + n);
+      }
+      model.clearSnapshots();
+    }
+    done.set(true);
+    reader.join();
+    assertTrue(failures.toString(), failures.isEmpty());
+  }
+
+  /**
+   * Tests that a shape removed while it is being created never stays drawn
+   * after its name is gone.
+   */
+  @Test
+  public void testCreateRaceWithRemove() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel();
+    Thread creator = new Thread(() -> {
+      for (int i = 0; i < 20000; i++) {
+        try {
+          model.createOval("x", ShapeType.OVAL, i, i, 1, 1, new Color(0, 0, 0));
+        } catch (IllegalArgumentException e) {
+          // still present from the last round
+        }
+      }
+    });
+    Thread remover = new Thread(() -> {
+      for (int i = 0; i < 20000; i++) {
+        model.removeShape("x");
+      }
+    });
+    creator.start();
+    remover.start();
+    creator.join();
+    remover.join();
+    model.removeShape("x");
+
+    assertTrue(model.getShapes().isEmpty());
+    model.takeSnapshot("empty");
+    assertTrue(model.getSnapshots().get(0).getShapes().isEmpty());
+  }
+
+  /**
+   * Tests that a subscriber with a full buffer that reads the album slows
+   * the writers without deadlocking them.
+   */
+  @Test
+  public void testSlowSubscriberReadingAlbum() throws InterruptedException {
+    IPhotoalbum model = new ConcurrentPhotoAlbumModel(1);
+    model.createOval("a", ShapeType.OVAL, 0, 0, 1, 1, new Color(0, 0, 0));
+    model.createGroup("g", List.of("a"));
+    List<ModelEvent> received = new ArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    model.events().subscribe(new Flow.Subscriber<List<ModelEvent>>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(List<ModelEvent> batch) {
+        // takes the album's capture lock while writers are blocked
+        assertEquals(List.of("a"), model.getGroupMembers("g"));
+        model.getShapes();
+        received.addAll(batch);
+        try {
+          Thread.sleep(2);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        subscription.request(1);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+
+    List<Thread> threads = new ArrayList<>();
+    for (int f = 0; f < 4; f++) {
+      String name = "s" + f;
+      model.createRectangle(name, ShapeType.RECTANGLE, 0, 0, 1, 1, new Color(0, 0, 0));
+      Thread thread = new Thread(() -> {
+        for (int step = 1; step <= 2000; step++) {
+          model.moveShape(name, step, step);
+          if (step % 500 == 0) {
+            model.takeSnapshot(name + step);
+          }
+        }
+      });
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join(20000);
+      assertFalse("writer deadlocked", thread.isAlive());
+    }
+    model.events().close();
+    assertTrue(done.await(20, TimeUnit.SECONDS));
+
+    assertEquals(4 + 8000 + 16, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      assertEquals(i, received.get(i).getSequence());
+    }
+  }
+}
@@ -0,0 +1,213 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import model.*;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for snapshot bookkeeping in the model.
+ */
+public class PhotoAlbumModelTest {
+
+  /**
+   * Tests that snapshots taken back to back get distinct, ordered IDs.
+   */
+  @Test
+  public void testSnapshotIdsAreUniqueAndDeterministic() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    for (int i = 0; i < 1000; i++) {
+      model.takeSnapshot("Snapshot " + i);
+    }
+
+    assertEquals(1000, model.getSnapshotIDs().size());
+    assertEquals(1000, new HashSet<>(model.getSnapshotIDs()).size());
+    assertEquals("snapshot-1", model.getSnapshotIDs().get(0));
+    assertEquals("snapshot-1000", model.getSnapshotIDs().get(999));
+  }
+
+  /**
+   * Tests looking snapshots up by ID.
+   */
+  @Test
+  public void testSnapshotLookupById() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.takeSnapshot("first");
+    model.takeSnapshot("second");
+    String id = model.getSnapshotIDs().get(1);
+
+    assertSame(model.getSnapshots().get(1), model.getSnapshotById(id));
+    assertEquals(1, model.indexOfSnapshot(id));
+    assertNull(model.getSnapshotById("missing"));
+    assertEquals(-1, model.indexOfSnapshot("missing"));
+
+    model.clearSnapshots();
+    assertNull(model.getSnapshotById(id));
+    model.takeSnapshot("third");
+    assertEquals("snapshot-3", model.getSnapshotIDs().get(0));
+  }
+
+  /**
+   * Tests applying a batch that creates and then updates shapes.
+   */
+  @Test
+  public void testApplyBatch() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("R", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    MutationBatch batch = new MutationBatch()
+        .createOval("O", 5, 5, 2, 3, new Color(1, 2, 3))
+        .move("R", 7, 8)
+        .resize("R", 20, 30)
+        .resize("O", 4, 6)
+        .color("O", 10, 20, 30);
+    model.applyBatch(batch);
+
+    Rectangle rectangle = (Rectangle) model.getShape("R");
+    Oval oval = (Oval) model.getShape("O");
+    assertEquals(7, rectangle.getX(), 0);
+    assertEquals(30, rectangle.getHeight(), 0);
+    assertEquals(6, oval.getYRadius(), 0);
+    assertEquals(new Color(10, 20, 30), oval.getColor());
+    assertSame(oval, model.getShapes().get(1));
+  }
+
+  /**
+   * Tests that an invalid operation leaves the album unchanged.
+   */
+  @Test
+  public void testApplyBatchIsAllOrNothing() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("R", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    MutationBatch batch = new MutationBatch()
+        .move("R", 7, 8)
+        .createOval("O", 5, 5, 2, 3, new Color(1, 2, 3))
+        .color("missing", 1, 1, 1);
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> model.applyBatch(batch));
+    assertTrue(e.getMessage().startsWith("Operation 2:"));
+    assertEquals(0, model.getShape("R").getX(), 0);
+    assertNull(model.getShape("O"));
+  }
+
+  /**
+   * Tests looking up a shape's state and changes across snapshots.
+   */
+  @Test
+  public void testShapeHistory() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("R", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.takeSnapshot("0");
+    model.takeSnapshot("1");
+    model.moveShape("R", 5, 5);
+    model.takeSnapshot("2");
+    model.changeShapeColor("R", 255, 0, 0);
+    model.takeSnapshot("3");
+    model.removeShape("R");
+    model.takeSnapshot("4");
+
+    ShapeTimeline timeline = model.getShapeHistory("R");
+    assertEquals(4, timeline.size());
+    assertEquals(0, timeline.stateAt(1).getX(), 0);
+    assertEquals(5, timeline.stateAt(2).getX(), 0);
+    assertNull(timeline.stateAt(4));
+    assertArrayEquals(new int[] {3}, timeline.snapshotsWith(ShapeTimeline.RECOLORED));
+    assertArrayEquals(new int[] {2, 3},
+        timeline.snapshotsWith(ShapeTimeline.MOVED | ShapeTimeline.RECOLORED));
+    assertNull(model.getShapeHistory("missing"));
+  }
+
+  /**
+   * Tests querying shapes by region, color and type across many snapshots.
+   */
+  @Test
+  public void testQuery() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("R", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(200, 0, 0));
+    model.createOval("O", ShapeType.OVAL, 100, 100, 5, 5, new Color(0, 0, 200));
+    for (int i = 0; i < 1000; i++) {
+      model.moveShape("R", i, 0);
+      model.takeSnapshot("step " + i);
+    }
+    Bounds canvas = new Bounds(0, 0, 800, 800);
+
+    List<QueryMatch> offCanvas = model.query(new ShapeQuery().outside(canvas));
+    assertEquals(209, offCanvas.size());
+    assertEquals(791, offCanvas.get(0).getSnapshotIndex());
+    assertEquals("R", offCanvas.get(0).getShape().getName());
+
+    List<QueryMatch> reds = model.query(new ShapeQuery().snapshots(10, 20)
+        .colorBetween(new Color(150, 0, 0), new Color(255, 50, 50)));
+    assertEquals(10, reds.size());
+    assertEquals(10, reds.get(0).getSnapshotIndex());
+
+    List<QueryMatch> ovalsNearCorner = model.query(new ShapeQuery()
+        .ofType(ShapeType.OVAL).intersecting(new Bounds(0, 0, 50, 50)));
+    assertTrue(ovalsNearCorner.isEmpty());
+    assertEquals(1000, model.query(new ShapeQuery().ofType(ShapeType.OVAL)).size());
+  }
+
+  /**
+   * Tests moving and recoloring nested groups, then ungrouping them.
+   */
+  @Test
+  public void testGroups() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("A", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.createOval("B", ShapeType.OVAL, 50, 50, 5, 5, new Color(0, 0, 0));
+    model.createRectangle("C", ShapeType.RECTANGLE, 100, 0, 10, 10, new Color(0, 0, 0));
+    model.createGroup("window", List.of("A", "B"));
+    model.createGroup("building", List.of("window", "C"));
+    assertEquals(List.of("C", "window"), model.getGroupMembers("building"));
+
+    model.moveGroup("building", 10, 20);
+    model.moveGroup("window", 1, 1);
+    model.changeGroupColor("building", 255, 0, 0);
+    model.changeShapeColor("B", 0, 255, 0);
+    model.moveShape("A", 5, 5);
+    model.takeSnapshot("grouped");
+
+    ISnapshot snapshot = model.getSnapshots().get(0);
+    IShape a = snapshot.getShapes().get(0);
+    assertEquals(5, a.getX(), 0);
+    assertEquals(new Color(255, 0, 0), a.getColor());
+    assertEquals(71, snapshot.getShapes().get(1).getY(), 0);
+    assertEquals(new Color(0, 255, 0), snapshot.getShapes().get(1).getColor());
+    assertEquals(110, model.getShape("C").getX(), 0);
+
+    model.ungroup("building");
+    model.ungroup("window");
+    assertEquals(5, model.getShape("A").getX(), 0);
+    assertEquals(61, model.getShape("B").getX(), 0);
+    assertEquals(new Color(255, 0, 0), model.getShape("C").getColor());
+    assertThrows(IllegalArgumentException.class,
+        () -> model.createGroup("A", List.of("C")));
+    assertThrows(IllegalArgumentException.class, () -> model.moveGroup("window", 1, 1));
+  }
+
+  /**
+   * Tests the bulk box arrays behind snapshot summaries.
+   */
+  @Test
+  public void testSummaryCulling() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    for (int i = 0; i < 100; i++) {
+      model.createRectangle("R" + i, ShapeType.RECTANGLE, i * 10, 0, 5, 5, new Color(0, 0, 0));
+    }
+    model.createOval("O", ShapeType.OVAL, 0, 100, 10, 20, new Color(0, 0, 0));
+    model.takeSnapshot("row");
+    SnapshotSummary summary = model.getSnapshots().get(0).getSummary();
+
+    Bounds bounds = summary.getBounds();
+    assertEquals(995, bounds.getMaxX(), 0);
+    assertEquals(140, bounds.getMaxY(), 0);
+    assertArrayEquals(new int[] {2, 3, 4}, summary.shapesIntersecting(new Bounds(22, 0, 41, 1)));
+    assertArrayEquals(new int[] {100}, summary.shapesIntersecting(new Bounds(19, 139, 30, 150)));
+    assertEquals(0, summary.shapesIntersecting(new Bounds(2000, 0, 3000, 10)).length);
+
+    int[][] spans = summary.gridSpans(new Bounds(0, 0, 1000, 1000), 10, 10);
+    assertEquals(9, spans[0][99]);
+    assertEquals(0, spans[1][100]);
+    assertEquals(1, spans[3][100]);
+  }
+}
@@ -0,0 +1,73 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import controller.CompiledScript;
+import controller.PhotoalbumController;
+import model.ConcurrentPhotoAlbumModel;
+import model.IPhotoalbum;
+import model.SnapshotListener;
+import views.ViewOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for rendering snapshots while the script is still being parsed.
+ */
+public class ProgressiveRenderTest {
+  private static final List<String> SCRIPT = List.of(
+      "shape R rectangle 0 0 10 20 255 0 0",
+      "snapshot first",
+      "shape O oval 50 50 5 5 0 0 255",
+      "move R 5 6",
+      "snapshot");
+
+  /**
+   * Tests that progressive mode runs text and compiled scripts alike,
+   * taking each snapshot as the file reaches it.
+   * @throws IOException If the temporary files cannot be used.
+   */
+  @Test
+  public void testProgressiveRunsCompiledAndText() throws IOException {
+    File text = File.createTempFile("album", ".txt");
+    text.deleteOnExit();
+    Files.write(text.toPath(), SCRIPT);
+    File compiled = File.createTempFile("album", ".palc");
+    compiled.deleteOnExit();
+    CompiledScript.read(text.getPath()).save(compiled);
+
+    for (File input : List.of(text, compiled)) {
+      List<SnapshotListener> registered = new ArrayList<>();
+      IPhotoalbum model = new ConcurrentPhotoAlbumModel() {
+        @Override
+        public void addSnapshotListener(SnapshotListener listener) {
+          registered.add(listener);
+          super.addSnapshotListener(listener);
+        }
+
+        @Override
+        public void removeSnapshotListener(SnapshotListener listener) {
+          registered.remove(listener);
+          super.removeSnapshotListener(listener);
+        }
+      };
+      List<Integer> shapesAtSnapshot = new ArrayList<>();
+      model.addSnapshotListener(snapshot -> shapesAtSnapshot.add(model.getShapes().size()));
+      ViewOptions options = new ViewOptions();
+      options.setProgressive(true);
+      options.setOpenBrowser(false);
+      File out = File.createTempFile("album", ".html");
+      out.deleteOnExit();
+      new PhotoalbumController(model, options).run(input.getPath(), "web", 800, 800,
+          out.getPath());
+
+      assertEquals(List.of(1, 2), shapesAtSnapshot);
+      // only the test's own listener is left once the run is over
+      assertEquals(1, registered.size());
+      String html = Files.readString(out.toPath());
+      assertTrue(html.contains("snapshot-1") && html.contains("snapshot-2"));
+    }
+  }
+}
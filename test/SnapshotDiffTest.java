@@ -0,0 +1,79 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import model.*;
+
+/**
+ * Tests for computing changes between snapshots.
+ */
+public class SnapshotDiffTest {
+
+  /**
+   * Tests that each kind of change is reported for the right shape.
+   */
+  @Test
+  public void testDetectsEveryChangeKind() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("Moved", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.createRectangle("Recolored", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.createOval("Resized", ShapeType.OVAL, 0, 0, 5, 5, new Color(0, 0, 0));
+    model.createOval("Removed", ShapeType.OVAL, 0, 0, 5, 5, new Color(0, 0, 0));
+    model.createOval("Same", ShapeType.OVAL, 0, 0, 5, 5, new Color(0, 0, 0));
+    model.takeSnapshot("before");
+
+    model.moveShape("Moved", 20, 30);
+    model.changeShapeColor("Recolored", 255, 0, 0);
+    model.resizeOval("Resized", 8, 9);
+    model.removeShape("Removed");
+    model.createRectangle("Added", ShapeType.RECTANGLE, 1, 1, 2, 2, new Color(1, 1, 1));
+    model.takeSnapshot("after");
+
+    ISnapshot before = model.getSnapshots().get(0);
+    ISnapshot after = model.getSnapshots().get(1);
+    SnapshotDiff diff = SnapshotDiff.between(before, after);
+
+    assertEquals(1, diff.getAdded().size());
+    assertEquals("Added", diff.getAdded().get(0).getName());
+    assertEquals(1, diff.getRemoved().size());
+    assertEquals("Removed", diff.getRemoved().get(0).getName());
+    assertEquals(3, diff.getChanged().size());
+    assertEquals("Moved", diff.getMoved().get(0).getName());
+    assertEquals("Recolored", diff.getRecolored().get(0).getName());
+    assertEquals("Resized", diff.getResized().get(0).getName());
+    assertSame(after.getShape("Moved"), diff.getMoved().get(0).getAfter());
+  }
+
+  /**
+   * Tests that identical snapshots produce an empty diff.
+   */
+  @Test
+  public void testIdenticalSnapshots() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("Rect1", ShapeType.RECTANGLE, 10, 10, 30, 30, new Color(255, 255, 0));
+    model.takeSnapshot("first");
+    model.takeSnapshot("second");
+
+    SnapshotDiff diff = SnapshotDiff.between(model.getSnapshots().get(0),
+        model.getSnapshots().get(1));
+    assertTrue(diff.isEmpty());
+  }
+
+  /**
+   * Tests that re-creating a shape on top of the others is a restack.
+   */
+  @Test
+  public void testRestackedShape() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("Bottom", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.createRectangle("Top", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.takeSnapshot("first");
+    model.removeShape("Bottom");
+    model.createRectangle("Bottom", ShapeType.RECTANGLE, 0, 0, 10, 10, new Color(0, 0, 0));
+    model.takeSnapshot("second");
+
+    SnapshotDiff diff = SnapshotDiff.between(model.getSnapshots().get(0),
+        model.getSnapshots().get(1));
+    assertEquals(1, diff.getChanged().size());
+    assertTrue(diff.getChanged().get(0).isRestacked());
+    assertFalse(diff.getChanged().get(0).isMoved());
+  }
+}
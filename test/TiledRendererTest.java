@@ -0,0 +1,56 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import model.*;
+import views.ShapePainter;
+import views.TiledRenderer;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the parallel tiled renderer.
+ */
+public class TiledRendererTest {
+
+  /**
+   * Tests that a canvas large enough to be drawn in parallel tiles comes
+   * out pixel for pixel the same as a single-pass render, with shapes that
+   * cross tile edges, overlap and reach past the canvas.
+   */
+  @Test
+  public void testTilesMatchSinglePass() {
+    Random random = new Random(7);
+    List<IShape> shapes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      double x = random.nextDouble() * 1400 - 100;
+      double y = random.nextDouble() * 1100 - 100;
+      double w = random.nextDouble() * 300 + 0.5;
+      double h = random.nextDouble() * 300 + 0.5;
+      Color color = new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+      shapes.add(i % 2 == 0
+          ? new Rectangle("r" + i, ShapeType.RECTANGLE, x, y, w, h, color)
+          : new Oval("o" + i, ShapeType.OVAL, x, y, w / 2, h / 2, color));
+    }
+    java.awt.Color background = new java.awt.Color(30, 60, 90);
+    BufferedImage tiled = new BufferedImage(1300, 1000, BufferedImage.TYPE_INT_RGB);
+    TiledRenderer.renderInto(tiled, shapes, background);
+
+    BufferedImage single = new BufferedImage(1300, 1000, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = single.createGraphics();
+    g.setColor(background);
+    g.fillRect(0, 0, 1300, 1000);
+    ShapePainter.paintAll(g, shapes);
+    g.dispose();
+
+    for (int y = 0; y < 1000; y++) {
+      for (int x = 0; x < 1300; x++) {
+        if (tiled.getRGB(x, y) != single.getRGB(x, y)) {
+          fail("Pixel differs at " + x + ", " + y);
+        }
+      }
+    }
+  }
+}
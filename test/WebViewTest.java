@@ -1,7 +1,20 @@
 import static org.junit.Assert.*;
 import org.junit.Test;
 import model.*;
+import controller.NdjsonImporter;
 import controller.PhotoalbumController;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import views.ExportPipeline;
+import views.SnapshotExporter;
+import views.ViewOptions;
 import views.WebView;
 
 /**
@@ -154,4 +167,173 @@ public class WebViewTest {
     assertTrue(htmlContent.contains("<rect"));
     assertTrue(htmlContent.contains("<ellipse"));
   }
+
+  /**
+   * Tests that compact SVG shares colors and repeated geometry.
+   */
+  @Test
+  public void testCompactSvg() {
+    IPhotoalbum model = new PhotoAlbumModel();
+    ViewOptions options = new ViewOptions();
+    options.setCompactSvg(true);
+    options.setOpenBrowser(false);
+    WebView view = new WebView(model, options);
+
+    model.createRectangle("Rect1", ShapeType.RECTANGLE, 10, 10, 30, 30, new Color(255, 0, 0));
+    model.takeSnapshot("Snapshot1");
+    model.createOval("Oval1", ShapeType.OVAL, 20, 20, 10.5, 10, new Color(255, 0, 0));
+    model.takeSnapshot("Snapshot2");
+
+    view.showView(800, 800, "output_compact.html");
+    String htmlContent = view.getHtmlContent();
+    assertTrue(htmlContent.contains("<style>.c0{fill:rgb(255,0,0)}</style>"));
+    assertTrue(htmlContent.contains("<defs><rect id=\"d0\" x=\"10\" y=\"10\" width=\"30\" height=\"30\"/></defs>"));
+    assertTrue(htmlContent.contains("<ellipse cx=\"30.5\" cy=\"30\" rx=\"10.5\" ry=\"10\" class=\"c0\"/>"));
+    assertEquals(2, htmlContent.split("<use href=\"#d0\" class=\"c0\"/>", -1).length - 1);
+    assertFalse(htmlContent.contains("style=\"fill"));
+  }
+
+  /**
+   * Tests that one pass feeds every exporter and a failing exporter does
+   * not stop the others.
+   */
+  @Test
+  public void testExportPipeline() throws IOException {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.createRectangle("Rect1", ShapeType.RECTANGLE, 10, 10, 30, 30, new Color(255, 0, 0));
+    model.takeSnapshot("Snapshot1");
+    model.createOval("Oval1", ShapeType.OVAL, 20, 20, 10, 10, new Color(0, 0, 255));
+    model.takeSnapshot("Snapshot2");
+
+    File dir = Files.createTempDirectory("export").toFile();
+    String output = new File(dir, "album.out").getPath();
+    ViewOptions options = new ViewOptions();
+    List<String> aborted = new ArrayList<>();
+    SnapshotExporter failing = failingExporter("broken", new IOException("disk full"), aborted);
+    SnapshotExporter crashing = failingExporter("crashed", new LinkageError("bad class"),
+        aborted);
+    List<ExportPipeline.Result> results = new ExportPipeline(List.of(
+        ExportPipeline.exporterFor("html", output, options), failing,
+        ExportPipeline.exporterFor("svg", output, options), crashing), 1)
+        .run(model.getSnapshots(), 800, 800);
+
+    assertEquals(4, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertEquals(2, results.get(0).getExported());
+    assertEquals("disk full", results.get(1).getError());
+    assertEquals(2, results.get(2).getExported());
+    assertEquals("bad class", results.get(3).getError());
+    assertEquals(List.of("broken", "crashed"), aborted.stream().sorted().toList());
+    String html = Files.readString(new File(dir, "album.html").toPath());
+    assertTrue(html.contains("Snapshot2") && html.endsWith("</body></html>"));
+    String svg = Files.readString(new File(dir, "album_svg/snapshot-2.svg").toPath());
+    assertTrue(svg.contains("<ellipse"));
+  }
+
+  /**
+   * Builds an exporter whose every export fails.
+   * @param name Exporter name.
+   * @param failure Thrown by each export.
+   * @param aborted Receives the name when the exporter is aborted.
+   * @return The exporter.
+   */
+  private static SnapshotExporter failingExporter(String name, Throwable failure,
+                                                  List<String> aborted) {
+    return new SnapshotExporter() {
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public void begin(int width, int height) {
+      }
+
+      @Override
+      public void export(int index, ISnapshot snapshot) throws IOException {
+        if (failure instanceof IOException e) {
+          throw e;
+        }
+        throw (Error) failure;
+      }
+
+      @Override
+      public void finish() {
+      }
+
+      @Override
+      public void abort() {
+        synchronized (aborted) {
+          aborted.add(name);
+        }
+      }
+    };
+  }
+
+  /**
+   * Tests that an album exported as JSON Lines imports back to the same
+   * snapshots, and that a malformed line is reported with its position.
+   */
+  @Test
+  public void testNdjsonRoundTrip() throws IOException {
+    IPhotoalbum model = new PhotoAlbumModel();
+    model.takeSnapshot("Discarded");
+    model.clearSnapshots();
+    model.createRectangle("R", ShapeType.RECTANGLE, 10, 10.25, 30, 30, new Color(255, 0, 0));
+    model.createOval("O", ShapeType.OVAL, 20, 20, 10, 10, new Color(0, 0, 255));
+    model.takeSnapshot("Say \"hi\"\nthen\tleave");
+    model.removeShape("R");
+    model.createRectangle("R", ShapeType.RECTANGLE, -5, 1e-3, 30, 30, new Color(255, 0, 0));
+    model.resizeOval("O", 7, 0.1);
+    model.changeShapeColor("O", 1, 2, 3);
+    model.takeSnapshot("Second");
+    model.removeShape("R");
+    model.createRectangle("T", ShapeType.RECTANGLE, 0, 0, 1, 1, new Color(0, 0, 0));
+    model.takeSnapshot("");
+
+    File dir = Files.createTempDirectory("ndjson").toFile();
+    String output = new File(dir, "album.html").getPath();
+    List<ExportPipeline.Result> results = new ExportPipeline(List.of(
+        ExportPipeline.exporterFor("ndjson", output, new ViewOptions())))
+        .run(model.getSnapshots(), 800, 800);
+    assertTrue(results.get(0).isSuccess());
+    Path file = new File(dir, "album.ndjson").toPath();
+    assertEquals(3, Files.readAllLines(file).size());
+
+    IPhotoalbum copy = NdjsonImporter.load(file.toString());
+    assertEquals(List.of("snapshot-2", "snapshot-3", "snapshot-4"), copy.getSnapshotIDs());
+    for (int i = 0; i < 3; i++) {
+      ISnapshot expected = model.getSnapshots().get(i);
+      ISnapshot actual = copy.getSnapshots().get(i);
+      assertEquals(expected.getDescription(), actual.getDescription());
+      assertEquals(expected.getTimestamp(), actual.getTimestamp());
+      assertEquals(expected.getShapes().size(), actual.getShapes().size());
+      for (int j = 0; j < expected.getShapes().size(); j++) {
+        // same shapes in the same drawing order
+        assertEquals(expected.getShapes().get(j).toString(),
+            actual.getShapes().get(j).toString());
+      }
+      assertEquals(expected.getFingerprint(), actual.getFingerprint());
+    }
+    copy.takeSnapshot("After import");
+    assertEquals("snapshot-5", copy.getSnapshotIDs().get(3));
+
+    Path bad = new File(dir, "bad.ndjson").toPath();
+    Files.writeString(bad, "{\"description\":\"a\",\"shapes\":[]}\n{\"shapes\":[[\"X\",\"oval\",1]]}\n");
+    IPhotoalbum partial = new PhotoAlbumModel();
+    try {
+      NdjsonImporter.read(bad.toString(), partial);
+      fail("Malformed line was accepted");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2, column 25:"));
+    }
+    assertEquals(1, partial.getSnapshots().size());
+
+    // compressed files are recognized whatever the case of the suffix
+    Path upper = new File(dir, "ALBUM.NDJSON.GZ").toPath();
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(upper))) {
+      out.write(Files.readAllBytes(file));
+    }
+    assertEquals(3, NdjsonImporter.load(upper.toString()).getSnapshots().size());
+  }
 }
@@ -0,0 +1,107 @@
+package views;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for the gzip stream that compresses on its own thread.
+ */
+public class AsyncGzipOutputStreamTest {
+
+  /**
+   * Tests that written bytes decompress to the same bytes, across several
+   * chunks and with single-byte writes mixed in.
+   * @throws IOException If the round trip fails.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] data = new byte[300_000];
+    new Random(1).nextBytes(data);
+    ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    try (OutputStream out = new AsyncGzipOutputStream(sink, 6)) {
+      out.write(data[0]);
+      out.write(data, 1, data.length - 1);
+    }
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(sink.toByteArray()))) {
+      assertArrayEquals(data, in.readAllBytes());
+    }
+  }
+
+  /**
+   * Tests that a sink that fails after the gzip header makes close throw,
+   * closes the sink and stops the compressor thread.
+   * @throws IOException If the stream cannot be created.
+   */
+  @Test
+  public void testFailingSinkStopsCompressor() throws IOException {
+    Set<Thread> before = compressors();
+    FailingSink sink = new FailingSink();
+    AsyncGzipOutputStream out = new AsyncGzipOutputStream(sink, 1);
+    sink.failing = true;
+    byte[] data = new byte[64 * 1024];
+    new Random(2).nextBytes(data);
+    try {
+      for (int i = 0; i < 16; i++) {
+        out.write(data);
+      }
+    } catch (IOException e) {
+      // a write may already see the failure; close must still clean up
+      assertEquals("sink failed", e.getMessage());
+    }
+    try {
+      out.close();
+      fail("Expected the failed write to be reported");
+    } catch (IOException e) {
+      assertEquals("sink failed", e.getMessage());
+    }
+    assertTrue(sink.closed);
+    Set<Thread> after = compressors();
+    after.removeAll(before);
+    assertTrue(after.isEmpty());
+  }
+
+  private static Set<Thread> compressors() {
+    Set<Thread> threads = new HashSet<>();
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("gzip-writer") && thread.isAlive()) {
+        threads.add(thread);
+      }
+    }
+    return threads;
+  }
+
+  /**
+   * Accepts the gzip header, then fails every write.
+   */
+  private static final class FailingSink extends OutputStream {
+    private volatile boolean failing;
+    private volatile boolean closed;
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (failing) {
+        throw new IOException("sink failed");
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}